@@ -0,0 +1,68 @@
+package org.perrierFrancois.turing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.compiled.LockStepRunner;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an adder on all its <code>2^(2*bits)</code> inputs, on a single thread: one {@link CompiledTuringMachine} reset
+ * and initialized for each input, against a {@link LockStepRunner} running the inputs by chunks of <code>lanes</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AdderSweepBenchmark {
+
+    @Param({"4", "8"})
+    public int bits;
+
+    @Param({"64", "1024"})
+    public int lanes;
+
+    private CompiledTuringMachine machine;
+    private LockStepRunner runner;
+    private List<List<String>> ribbons;
+
+    @Setup
+    public void setUp() {
+        final CompiledDefinition definition = BinaryAdderDefinitionGenerator.compileDefinition(bits);
+        machine = new CompiledTuringMachine(definition);
+        runner = new LockStepRunner(definition, lanes, LockStepRunner.DEFAULT_MARGIN, Long.MAX_VALUE);
+        ribbons = new ArrayList<>();
+        for (long a = 0; a < 1 << bits; a++) {
+            for (long b = 0; b < 1 << bits; b++) {
+                ribbons.add(Ribbons.adderInput(bits, a, b));
+            }
+        }
+    }
+
+    @Benchmark
+    public long compiledTuringMachine() {
+        long transitions = 0;
+        for (List<String> ribbon : ribbons) {
+            machine.reset();
+            machine.initialize(ribbon);
+            transitions += machine.run().getTransitions();
+        }
+        return transitions;
+    }
+
+    @Benchmark
+    public long lockStep() {
+        long transitions = 0;
+        for (RunResult result : runner.runAll(ribbons.stream())) {
+            transitions += result.getTransitions();
+        }
+        return transitions;
+    }
+}
@@ -0,0 +1,38 @@
+package org.perrierFrancois.turing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of generating adder definitions, as {@link TuringMachineDefinition}s or streamed into {@link CompiledDefinition}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefinitionBuildBenchmark {
+
+    @Param({"4", "8", "16", "32", "64"})
+    public int bits;
+
+    @Benchmark
+    public TuringMachineDefinition buildAdderDefinition() {
+        return BinaryAdderDefinitionGenerator.buildDefinition(bits);
+    }
+
+    @Benchmark
+    public CompiledDefinition buildAndCompileAdderDefinition() {
+        return CompiledDefinition.compile(BinaryAdderDefinitionGenerator.buildDefinition(bits));
+    }
+
+    @Benchmark
+    public CompiledDefinition streamAdderDefinition() {
+        return BinaryAdderDefinitionGenerator.compileDefinition(bits);
+    }
+}
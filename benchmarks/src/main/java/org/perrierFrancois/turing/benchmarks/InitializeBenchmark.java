@@ -0,0 +1,68 @@
+package org.perrierFrancois.turing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of loading large ribbons on a machine, reset between loads so that it can reuse its tape storage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InitializeBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int ribbonSize;
+
+    private List<String> ribbon;
+    private String ribbonChars;
+    private TuringMachine turingMachine;
+    private CompiledTuringMachine compiledTuringMachine;
+
+    @Setup
+    public void setUp() {
+        final int bits = ribbonSize / 2;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(4);
+        ribbon = Ribbons.adderInput(bits, 0x5555_5555_5555_5555L, 0x3333_3333_3333_3333L);
+        ribbonChars = String.join("", ribbon);
+        turingMachine = new TuringMachine(definition);
+        compiledTuringMachine = new CompiledTuringMachine(definition);
+    }
+
+    @Benchmark
+    public TuringMachine turingMachine() {
+        turingMachine.reset();
+        turingMachine.initialize(ribbon);
+        return turingMachine;
+    }
+
+    @Benchmark
+    public CompiledTuringMachine compiledTuringMachine() {
+        compiledTuringMachine.reset();
+        compiledTuringMachine.initialize(ribbon);
+        return compiledTuringMachine;
+    }
+
+    @Benchmark
+    public TuringMachine turingMachineFromChars() {
+        turingMachine.reset();
+        turingMachine.initialize(ribbonChars);
+        return turingMachine;
+    }
+
+    @Benchmark
+    public CompiledTuringMachine compiledTuringMachineFromChars() {
+        compiledTuringMachine.reset();
+        compiledTuringMachine.initialize(ribbonChars);
+        return compiledTuringMachine;
+    }
+}
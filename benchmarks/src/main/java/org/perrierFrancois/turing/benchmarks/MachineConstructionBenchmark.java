@@ -0,0 +1,48 @@
+package org.perrierFrancois.turing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.compiled.TieredDefinition;
+import org.perrierFrancois.turing.compiled.TieredTuringMachine;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a machine (ie. its action table) from an adder definition.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MachineConstructionBenchmark {
+
+    @Param({"4", "8", "16", "32"})
+    public int bits;
+
+    private TuringMachineDefinition definition;
+
+    @Setup
+    public void setUp() {
+        definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+    }
+
+    @Benchmark
+    public TuringMachine turingMachine() {
+        return new TuringMachine(definition);
+    }
+
+    @Benchmark
+    public CompiledTuringMachine compiledTuringMachine() {
+        return new CompiledTuringMachine(definition);
+    }
+
+    @Benchmark
+    public TieredTuringMachine tieredTuringMachine() {
+        return new TieredDefinition(definition).newMachine();
+    }
+}
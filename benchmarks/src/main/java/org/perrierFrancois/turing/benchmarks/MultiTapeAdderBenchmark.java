@@ -0,0 +1,58 @@
+package org.perrierFrancois.turing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.MultiTapeBinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.multitape.MultiTapeTuringMachine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single tape adder against its three tapes counterpart, see {@link MultiTapeBinaryAdderDefinitionGenerator}: the
+ * single tape machine performs a quadratic number of transitions, the multi-tape one a linear number.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MultiTapeAdderBenchmark {
+
+    private static final long A = 0xA5A5_A5A5_A5A5_A5A5L;
+    private static final long B = 0x5A5A_5A5A_5A5A_5A5AL;
+
+    @Param({"8", "32", "128"})
+    public int bits;
+
+    private CompiledTuringMachine singleTapeMachine;
+    private MultiTapeTuringMachine multiTapeMachine;
+    private List<String> ribbon;
+    private List<List<String>> ribbons;
+
+    @Setup
+    public void setUp() {
+        final long mask = bits < Long.SIZE ? (1L << bits) - 1 : -1L;
+        singleTapeMachine = new CompiledTuringMachine(BinaryAdderDefinitionGenerator.compileDefinition(bits));
+        ribbon = Ribbons.adderInput(bits, A & mask, B & mask);
+        multiTapeMachine = new MultiTapeTuringMachine(MultiTapeBinaryAdderDefinitionGenerator.buildDefinition());
+        ribbons = List.of(Ribbons.number(A & mask, bits), Ribbons.number(B & mask, bits), List.of());
+    }
+
+    @Benchmark
+    public RunResult singleTape() {
+        singleTapeMachine.reset();
+        singleTapeMachine.initialize(ribbon);
+        return singleTapeMachine.run();
+    }
+
+    @Benchmark
+    public RunResult multiTape() {
+        multiTapeMachine.reset();
+        multiTapeMachine.initializeTapes(ribbons);
+        return multiTapeMachine.run();
+    }
+}
@@ -0,0 +1,31 @@
+package org.perrierFrancois.turing.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.String.format;
+
+final class Ribbons {
+
+    private Ribbons() {
+    }
+
+    /**
+     * @return the initial tape of a <code>bits</code> bits adder computing <code>a + b</code>
+     */
+    static List<String> adderInput(int bits, long a, long b) {
+        final List<String> ribbon = new ArrayList<>(2 * bits);
+        ribbon.addAll(number(a, bits));
+        ribbon.addAll(number(b, bits));
+        return ribbon;
+    }
+
+    /**
+     * @return the <code>bits</code> least significant bits of <code>i</code>, most significant first, padded with zeros
+     */
+    static List<String> number(long i, int bits) {
+        final String strI = format("%" + bits + "s", Long.toBinaryString(i)).replace(' ', '0');
+        return Arrays.asList(strI.split(""));
+    }
+}
@@ -0,0 +1,138 @@
+package org.perrierFrancois.turing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.TuringMachineEngine;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.compiled.GeneratedTuringMachine;
+import org.perrierFrancois.turing.compiled.TieredDefinition;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+import org.perrierFrancois.turing.metrics.ExecutionMetrics;
+import org.perrierFrancois.turing.tape.MappedTape;
+import org.perrierFrancois.turing.tape.PackedTape;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Raw stepping throughput. Each invocation is a full run; the <code>steps</code> secondary result reports the number
+ * of transitions per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SteppingBenchmark {
+
+    public enum Engine {
+        INTERPRETED(TuringMachine::new),
+        COMPILED(CompiledTuringMachine::new),
+        /**
+         * {@link #COMPILED} counting {@link ExecutionMetrics}
+         */
+        COMPILED_METRICS(definition -> {
+            final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+            machine.enableMetrics(new ExecutionMetrics(machine.getDefinition()));
+            return machine;
+        }),
+        /**
+         * {@link #COMPILED} sampling {@link ExecutionMetrics}, as the batch runner does
+         */
+        COMPILED_SAMPLED(definition -> {
+            final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+            machine.enableMetrics(new ExecutionMetrics(machine.getDefinition(), ExecutionMetrics.DEFAULT_SAMPLE_INTERVAL));
+            return machine;
+        }),
+        /**
+         * {@link #COMPILED} on a {@link MappedTape} in the temporary directory
+         */
+        COMPILED_MAPPED(definition -> new CompiledTuringMachine(CompiledDefinition.compile(definition), MappedTape::new)),
+        /**
+         * {@link #COMPILED} on a {@link PackedTape}, the definitions using at most 4 symbols
+         */
+        COMPILED_PACKED(definition -> new CompiledTuringMachine(CompiledDefinition.compile(definition), PackedTape::new)),
+        /**
+         * Generated bytecode, falling back to {@link #COMPILED} for definitions too large to be generated
+         */
+        GENERATED(definition -> GeneratedTuringMachine.forDefinition(CompiledDefinition.compile(definition), Long.MAX_VALUE)),
+        /**
+         * Promoted from the interpreter by its profile, during the warm-up
+         */
+        TIERED(definition -> new TieredDefinition(definition).newMachine());
+
+        private final Function<TuringMachineDefinition, TuringMachineEngine> factory;
+
+        Engine(Function<TuringMachineDefinition, TuringMachineEngine> factory) {
+            this.factory = factory;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Adder {
+        @Param({"8", "32"})
+        public int bits;
+
+        @Param
+        public Engine engine;
+
+        TuringMachineEngine machine;
+        List<String> ribbon;
+
+        @Setup
+        public void setUp() {
+            machine = engine.factory.apply(BinaryAdderDefinitionGenerator.buildDefinition(bits));
+            ribbon = Ribbons.adderInput(bits, 0xA5A5_A5A5L & ((1L << bits) - 1), 0x5A5A_5A5AL & ((1L << bits) - 1));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Counter {
+        @Param({"1000000"})
+        public long steps;
+
+        @Param
+        public Engine engine;
+
+        TuringMachineEngine machine;
+
+        @Setup
+        public void setUp() {
+            machine = engine.factory.apply(BinaryCounterDefinitionGenerator.buildDefinition());
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Steps {
+        public long steps;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            steps = 0;
+        }
+    }
+
+    @Benchmark
+    public RunResult adder(Adder adder, Steps steps) {
+        adder.machine.reset();
+        adder.machine.initialize(adder.ribbon);
+        final RunResult result = adder.machine.run();
+        steps.steps += result.getSteps();
+        return result;
+    }
+
+    @Benchmark
+    public RunResult counter(Counter counter, Steps steps) {
+        counter.machine.reset();
+        counter.machine.initialize(List.of());
+        final RunResult result = counter.machine.run(counter.steps);
+        steps.steps += result.getSteps();
+        return result;
+    }
+}
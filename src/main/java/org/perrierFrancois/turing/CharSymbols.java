@@ -0,0 +1,30 @@
+package org.perrierFrancois.turing;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+
+/**
+ * Reads ribbons given as {@link CharSequence}s, each character being a one character symbol, and a space an empty
+ * cell, eg. <code>"0110 1"</code>.<br/>
+ * The symbols of the ASCII characters are shared instances, so that reading a ribbon does not allocate.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CharSymbols {
+
+    public static final char EMPTY_CHAR = ' ';
+
+    private static final String[] ASCII = new String[128];
+
+    static {
+        for (char c = 0; c < ASCII.length; c++) {
+            ASCII[c] = String.valueOf(c);
+        }
+        ASCII[EMPTY_CHAR] = EMPTY_SYMBOL;
+    }
+
+    public static String symbol(char c) {
+        return c < ASCII.length ? ASCII[c] : String.valueOf(c);
+    }
+}
@@ -0,0 +1,299 @@
+package org.perrierFrancois.turing;
+
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.Arrays;
+
+/**
+ * Detects machines which provably never halt, from the transitions reported by an engine.<br/>
+ * Engines report every transition with {@link #step(int, int, int)}, using integer ids for states and symbols (the
+ * empty symbol being <code>0</code>); the detector keeps its own copy of the tape, so that it works the same on top of
+ * every engine. Two kinds of loops are detected:
+ * <ul>
+ * <li>{@link Kind#EXACT}: the whole configuration (internal state, head position and tape contents) repeats. Following
+ * Brent, a checkpoint configuration is kept and replaced after 1, 2, 4, 8... steps, and every configuration is compared
+ * to it through an incrementally maintained fingerprint; fingerprint matches are then verified on the tape contents,
+ * so no hash collision can give a false positive</li>
+ * <li>{@link Kind#TRANSLATED}: the head drifts into the empty part of the tape while repeating the same behaviour. At
+ * two records (the head visiting a new cell past an end of the tape) in the same state, if the cells the machine went
+ * back over between the two records hold the same contents, the machine repeats the same moves forever, shifted by the
+ * distance between the two records. Checkpoint records are also replaced on a Brent schedule</li>
+ * </ul>
+ * Costs a handful of comparisons per step, plus a tape snapshot each time a checkpoint is replaced (at exponentially
+ * growing intervals).
+ */
+public class LoopDetector {
+
+    public enum Kind {
+        EXACT,
+        TRANSLATED
+    }
+
+    @Value
+    public static class Loop {
+        Kind kind;
+
+        /**
+         * Number of transitions of one iteration of the loop
+         */
+        long period;
+
+        /**
+         * Head displacement over one iteration of the loop: <code>0</code> for an {@link Kind#EXACT} loop, negative if
+         * the machine drifts to the left
+         */
+        long shift;
+
+        /**
+         * Transitions counter (since {@link #start(int[], int)}) when the loop was detected
+         */
+        long detectedAt;
+    }
+
+    /**
+     * cells compared at most to prove a translated loop
+     */
+    private static final int MAX_WINDOW = 1 << 16;
+
+    private static final int MIN_CAPACITY = 16;
+
+    // shadow tape, cells[i] being the symbol at position i - offset (relative to the first cell of the ribbon)
+    private int[] cells;
+    private int offset;
+    private int low;
+    private int high;
+
+    private int state;
+    private int position;
+    private long steps;
+    private long hash;
+
+    @Getter
+    private Loop loop;
+
+    private final ExactCheckpoint exact = new ExactCheckpoint();
+    private final RecordCheckpoint right = new RecordCheckpoint(1);
+    private final RecordCheckpoint left = new RecordCheckpoint(-1);
+
+    /**
+     * Starts detecting on a new run.
+     *
+     * @param ribbon symbol ids of the initial ribbon
+     * @param state  initial state id
+     */
+    public void start(int[] ribbon, int state) {
+        final int length = Math.max(1, ribbon.length);
+        this.cells = new int[Math.max(MIN_CAPACITY, 2 * length)];
+        this.offset = (cells.length - length) / 2;
+        System.arraycopy(ribbon, 0, cells, offset, ribbon.length);
+        this.low = 0;
+        this.high = length - 1;
+
+        this.state = state;
+        this.position = 0;
+        this.steps = 0;
+        this.hash = 0;
+        for (int i = 0; i < ribbon.length; i++) {
+            hash ^= zobrist(i, ribbon[i]);
+        }
+        this.loop = null;
+
+        exact.take();
+        right.reset();
+        left.reset();
+    }
+
+    /**
+     * Reports a transition: <code>written</code> has been written under the head, which then moved by
+     * <code>delta</code> (<code>-1</code>, <code>0</code> or <code>1</code>), and the machine went to
+     * <code>nextState</code>.
+     *
+     * @return <code>true</code> if the machine has been proven to loop forever, see {@link #getLoop()}
+     */
+    public boolean step(int written, int delta, int nextState) {
+        final int index = position + offset;
+        final int previous = cells[index];
+        if (previous != written) {
+            cells[index] = written;
+            hash ^= zobrist(position, previous) ^ zobrist(position, written);
+        }
+
+        position += delta;
+        state = nextState;
+        steps++;
+
+        if (position > high) {
+            high = position;
+            ensureCapacity();
+            if (right.record()) {
+                return true;
+            }
+        } else if (position < low) {
+            low = position;
+            ensureCapacity();
+            if (left.record()) {
+                return true;
+            }
+        }
+        right.visit();
+        left.visit();
+
+        return exact.check();
+    }
+
+    private int symbolAt(int position) {
+        return cells[position + offset];
+    }
+
+    private void ensureCapacity() {
+        if (low + offset >= 0 && high + offset < cells.length) {
+            return;
+        }
+        final int size = high - low + 1;
+        final int[] grown = new int[Math.max(2 * cells.length, 2 * size)];
+        final int newOffset = (grown.length - size) / 2 - low;
+        // the new cell is not in the old array: copy without it
+        final int copiedLow = Math.max(low, -offset);
+        final int copiedHigh = Math.min(high, cells.length - 1 - offset);
+        System.arraycopy(cells, copiedLow + offset, grown, copiedLow + newOffset, copiedHigh - copiedLow + 1);
+        cells = grown;
+        offset = newOffset;
+    }
+
+    /**
+     * Position dependent random value of a symbol; the empty symbol hashes to <code>0</code>, so that empty cells do
+     * not change the fingerprint of the tape.
+     */
+    private static long zobrist(int position, int symbol) {
+        if (symbol == 0) {
+            return 0;
+        }
+        long z = position * 0x9E3779B97F4A7C15L + symbol * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private class ExactCheckpoint {
+        private int state;
+        private int position;
+        private long hash;
+        private long step;
+        private long interval;
+        private int low;
+        private int[] snapshot;
+
+        void take() {
+            take(1);
+        }
+
+        private void take(long interval) {
+            this.state = LoopDetector.this.state;
+            this.position = LoopDetector.this.position;
+            this.hash = LoopDetector.this.hash;
+            this.step = steps;
+            this.interval = interval;
+            this.low = LoopDetector.this.low;
+            this.snapshot = Arrays.copyOfRange(cells, LoopDetector.this.low + offset, high + offset + 1);
+        }
+
+        boolean check() {
+            if (LoopDetector.this.state == state && LoopDetector.this.position == position && LoopDetector.this.hash == hash
+                    && sameTape()) {
+                loop = new Loop(Kind.EXACT, steps - step, 0, steps);
+                return true;
+            }
+            if (steps - step == interval) {
+                take(2 * interval);
+            }
+            return false;
+        }
+
+        private boolean sameTape() {
+            // the tape only grows, cells outside of the snapshot must be empty
+            for (int p = LoopDetector.this.low; p <= high; p++) {
+                final int index = p - low;
+                final int expected = index >= 0 && index < snapshot.length ? snapshot[index] : 0;
+                if (symbolAt(p) != expected) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private class RecordCheckpoint {
+        /**
+         * direction of the records, <code>1</code> to the right and <code>-1</code> to the left
+         */
+        private final int direction;
+
+        private boolean taken;
+        private int state;
+        private int position;
+        private long step;
+        private long interval;
+
+        /**
+         * farthest distance the head went back since the checkpoint record
+         */
+        private int back;
+
+        /**
+         * cells behind the record, the nearest first
+         */
+        private int[] window;
+
+        RecordCheckpoint(int direction) {
+            this.direction = direction;
+        }
+
+        void reset() {
+            taken = false;
+        }
+
+        void visit() {
+            if (taken) {
+                back = Math.max(back, direction * (position - LoopDetector.this.position));
+            }
+        }
+
+        boolean record() {
+            if (taken && LoopDetector.this.state == state && back < window.length && sameWindow()) {
+                loop = new Loop(Kind.TRANSLATED, steps - step, LoopDetector.this.position - position, steps);
+                return true;
+            }
+            if (!taken || steps - step >= interval) {
+                take(taken ? 2 * interval : 1);
+            }
+            return false;
+        }
+
+        private boolean sameWindow() {
+            for (int i = 0; i <= back; i++) {
+                if (symbolAt(LoopDetector.this.position - direction * i) != window[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void take(long interval) {
+            this.taken = true;
+            this.state = LoopDetector.this.state;
+            this.position = LoopDetector.this.position;
+            this.step = steps;
+            this.interval = interval;
+            this.back = 0;
+
+            final int size = Math.min(MAX_WINDOW, high - low + 1);
+            if (window == null || window.length != size) {
+                window = new int[size];
+            }
+            for (int i = 0; i < size; i++) {
+                window[i] = symbolAt(position - direction * i);
+            }
+        }
+    }
+}
@@ -7,7 +7,11 @@ public enum MachineState {
     READY(false),
     RUNNING(false),
     ACCEPTED(true),
-    ILLEGAL_STATE(true);
+    ILLEGAL_STATE(true),
+    /**
+     * The machine has been proven to never halt, see {@link LoopDetector}
+     */
+    LOOPING(true);
 
     private final boolean finalState;
 
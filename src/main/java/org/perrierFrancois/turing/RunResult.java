@@ -0,0 +1,36 @@
+package org.perrierFrancois.turing;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Outcome of a {@link TuringMachineEngine#run(long)} call.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RunResult {
+
+    MachineState machineState;
+
+    StopReason reason;
+
+    /**
+     * Total transitions counter of the machine
+     */
+    long transitions;
+
+    /**
+     * Transitions performed by this call
+     */
+    long steps;
+
+    /**
+     * Builds the result of a run which stopped either on a final machine state or, if the machine is still running,
+     * on the given reason.
+     */
+    public static RunResult of(MachineState machineState, StopReason runningReason, long transitions, long steps) {
+        final StopReason reason = machineState.isFinal() ? StopReason.of(machineState) : runningReason;
+        return new RunResult(machineState, reason, transitions, steps);
+    }
+}
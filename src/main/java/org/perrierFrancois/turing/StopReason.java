@@ -0,0 +1,40 @@
+package org.perrierFrancois.turing;
+
+/**
+ * Why a {@link TuringMachineEngine#run(long)} call returned.
+ */
+public enum StopReason {
+    /**
+     * A final state has been reached
+     */
+    ACCEPTED,
+    /**
+     * No action is defined for the current internal state and symbol
+     */
+    ILLEGAL_STATE,
+    /**
+     * The machine has been proven to never halt, see {@link LoopDetector}
+     */
+    LOOPING,
+    /**
+     * The step budget has been consumed before the machine reached a final machine state
+     */
+    BUDGET_EXHAUSTED,
+    /**
+     * The condition passed to {@link TuringMachineEngine#runUntil} has been met
+     */
+    CONDITION_MET;
+
+    static StopReason of(MachineState machineState) {
+        switch (machineState) {
+            case ACCEPTED:
+                return ACCEPTED;
+            case ILLEGAL_STATE:
+                return ILLEGAL_STATE;
+            case LOOPING:
+                return LOOPING;
+            default:
+                throw new IllegalArgumentException("Not a final machine state: " + machineState);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.perrierFrancois.turing.definition.Move;
 import org.perrierFrancois.turing.definition.TuringMachineDefinition;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -13,9 +14,8 @@ import java.util.stream.StreamSupport;
 import static java.lang.String.format;
 import static java.lang.System.lineSeparator;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toMap;
 
-public class TuringMachine {
+public class TuringMachine implements TuringMachineEngine {
     public static final String EMPTY_SYMBOL = "";
 
     // config
@@ -23,14 +23,26 @@ public class TuringMachine {
 
     private final Set<String> finalStates;
 
-    private final Map<ActionKey, Runnable> actionTable;
+    /**
+     * actions per state, then per read symbol: looking an action up allocates nothing
+     */
+    private final Map<String, Map<String, ActionCommand>> actionTable = new HashMap<>();
+
+    /**
+     * ids of the states and symbols, for the {@link LoopDetector}
+     */
+    private final Map<String, Integer> stateIds = new HashMap<>();
+
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+
+    private final List<String> symbolNames = new ArrayList<>();
 
     // runtime
     /**
      * Transitions counter (purely informal)
      */
     @Getter
-    private int transitions;
+    private long transitions;
 
     @Getter
     private MachineState machineState;
@@ -38,37 +50,172 @@ public class TuringMachine {
     @Getter
     private Tape tape;
 
+    /**
+     * Tape of the previous run, whose cells are reused by the next {@link #initialize(List)}
+     */
+    private Tape recycledTape;
+
     @Getter
     private String internalState;
 
+    /**
+     * Opt-in, see {@link #enableLoopDetection()}
+     */
+    @Getter
+    private LoopDetector loopDetector;
+
 
     public TuringMachine(TuringMachineDefinition definition) {
         this.initialState = definition.getInitialState();
         this.finalStates = new HashSet<>(definition.getFinalStates());
-        this.actionTable = definition.getActions().stream()
-                .collect(toMap(ActionKey::new, ActionCommand::new));
+        internSymbol(EMPTY_SYMBOL);
+        for (Action action : definition.getActions()) {
+            // symbols only ever read get an id too, so that initialize(int[]) can express them
+            internSymbol(action.getWhenReading());
+            final ActionCommand previous = actionTable.computeIfAbsent(action.getInState(), s -> new HashMap<>())
+                    .putIfAbsent(action.getWhenReading(), new ActionCommand(action));
+            if (previous != null) {
+                throw new IllegalStateException(format("Duplicate action in state %s when reading %s",
+                        action.getInState(), action.getWhenReading()));
+            }
+        }
 
         reset();
     }
 
+    /**
+     * Makes the following runs end in {@link MachineState#LOOPING} as soon as the machine is proven to never halt.<br/>
+     * Must be called before {@link #initialize(List)}.
+     */
+    public void enableLoopDetection() {
+        assertState(MachineState.READY);
+        this.loopDetector = new LoopDetector();
+    }
+
+    /**
+     * @return the loop the machine has been found in, if it is {@link MachineState#LOOPING}
+     */
+    public Optional<LoopDetector.Loop> getLoop() {
+        return Optional.ofNullable(loopDetector).map(LoopDetector::getLoop);
+    }
+
+    /**
+     * Makes the machine {@link MachineState#READY} again. The cells of the current tape are reused by the next
+     * initialization: a tape obtained with {@link #getTape()} must not be used afterwards.
+     */
+    @Override
     public void reset() {
         this.transitions = 0;
         this.internalState = this.initialState;
+        if (tape != null) {
+            this.recycledTape = tape;
+        }
         this.tape = null;
         this.machineState = MachineState.READY;
     }
 
+    @Override
     public void initialize(List<String> ribbon) {
+        final Tape tape = startTape();
+        for (String symbol : ribbon) {
+            tape.append(symbol);
+        }
+        start(tape);
+
+        if (loopDetector != null) {
+            loopDetector.start(ribbon.stream().mapToInt(this::internSymbol).toArray(), stateId(internalState));
+        }
+    }
+
+    /**
+     * Same as {@link #initialize(List)}, each character being a symbol (see {@link CharSymbols}). Once the machine has
+     * run, further resets and initializations with ASCII ribbons allocate nothing.
+     */
+    @Override
+    public void initialize(CharSequence ribbon) {
+        final Tape tape = startTape();
+        for (int i = 0; i < ribbon.length(); i++) {
+            tape.append(CharSymbols.symbol(ribbon.charAt(i)));
+        }
+        start(tape);
+
+        if (loopDetector != null) {
+            loopDetector.start(ribbon.chars().mapToObj(c -> CharSymbols.symbol((char) c))
+                    .mapToInt(this::internSymbol).toArray(), stateId(internalState));
+        }
+    }
+
+    /**
+     * Same as {@link #initialize(List)}, with the ids of the symbols (see {@link #symbolId(String)}).
+     */
+    public void initialize(int[] ribbon) {
+        for (int symbol : ribbon) {
+            if (symbol < 0 || symbol >= symbolNames.size()) {
+                throw new IllegalArgumentException(format("Unknown symbol id %d", symbol));
+            }
+        }
+        final Tape tape = startTape();
+        for (int symbol : ribbon) {
+            tape.append(symbolNames.get(symbol));
+        }
+        start(tape);
+
+        if (loopDetector != null) {
+            loopDetector.start(ribbon.clone(), stateId(internalState));
+        }
+    }
+
+    private Tape startTape() {
         assertState(MachineState.READY);
-        this.tape = new Tape(ribbon);
+        final Tape tape = recycledTape != null ? recycledTape : new Tape();
+        recycledTape = null;
+        tape.clear();
+        return tape;
+    }
+
+    private void start(Tape tape) {
+        tape.rewind();
+        this.tape = tape;
         this.machineState = MachineState.RUNNING;
     }
 
+    @Override
     public void nextStep() {
         assertState(MachineState.RUNNING);
+        step();
+    }
+
+    @Override
+    public RunResult run(long maxSteps) {
+        assertStarted();
+        final long start = transitions;
+
+        while (machineState == MachineState.RUNNING && transitions - start < maxSteps) {
+            step();
+        }
+
+        return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, transitions - start);
+    }
+
+    @Override
+    public RunResult runUntil(Predicate<? super TuringMachineEngine> condition, long maxSteps) {
+        assertStarted();
+        final long start = transitions;
+
+        while (machineState == MachineState.RUNNING && transitions - start < maxSteps) {
+            if (condition.test(this)) {
+                return RunResult.of(machineState, StopReason.CONDITION_MET, transitions, transitions - start);
+            }
+            step();
+        }
 
+        return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, transitions - start);
+    }
+
+    private void step() {
         final String currentSymbol = tape.read();
-        final Runnable action = actionTable.get(ActionKey.of(internalState, currentSymbol));
+        final Map<String, ActionCommand> actions = actionTable.get(internalState);
+        final ActionCommand action = actions == null ? null : actions.get(currentSymbol);
 
         if (action == null) {
             this.machineState = MachineState.ILLEGAL_STATE;
@@ -90,21 +237,41 @@ public class TuringMachine {
         return result;
     }
 
+    private int stateId(String state) {
+        return stateIds.computeIfAbsent(state, s -> stateIds.size());
+    }
+
+    /**
+     * @return the id of the symbol, <code>-1</code> if this machine has met no such symbol; ids are only meaningful to
+     * this machine, see {@link #initialize(int[])}
+     */
+    public int symbolId(String symbol) {
+        return symbolIds.getOrDefault(symbol, -1);
+    }
+
+    /**
+     * @return the id of the symbol, assigning the next one to a symbol which has none yet
+     */
+    private int internSymbol(String symbol) {
+        return symbolIds.computeIfAbsent(symbol, s -> {
+            symbolNames.add(s);
+            return symbolNames.size() - 1;
+        });
+    }
+
+    public String symbolName(int symbol) {
+        return symbolNames.get(symbol);
+    }
+
     private void assertState(MachineState expectedMachineState) {
         if (this.machineState != expectedMachineState) {
             throw new IllegalStateException(format("Machine should be in state %s for this operation", expectedMachineState));
         }
     }
 
-    @Data
-    @AllArgsConstructor(staticName = "of")
-    private static class ActionKey {
-        private final String state;
-        private final String symbol;
-
-        public ActionKey(Action action) {
-            this.state = action.getInState();
-            this.symbol = action.getWhenReading();
+    private void assertStarted() {
+        if (this.machineState == MachineState.READY) {
+            throw new IllegalStateException("Machine should be initialized for this operation");
         }
     }
 
@@ -113,11 +280,17 @@ public class TuringMachine {
         private final String symbolToWrite;
         private final Move move;
         private final String nextState;
+        private final int symbolToWriteId;
+        private final int delta;
+        private final int nextStateId;
 
         public ActionCommand(Action action) {
             this.symbolToWrite = action.getWrite();
             this.move = action.getMove();
             this.nextState = action.getToState();
+            this.symbolToWriteId = internSymbol(symbolToWrite);
+            this.delta = move == Move.LEFT ? -1 : move == Move.RIGHT ? 1 : 0;
+            this.nextStateId = stateId(nextState);
         }
 
         @Override
@@ -131,36 +304,95 @@ public class TuringMachine {
 
             if (finalStates.contains(internalState)) {
                 machineState = MachineState.ACCEPTED;
+            } else if (loopDetector != null && loopDetector.step(symbolToWriteId, delta, nextStateId)) {
+                machineState = MachineState.LOOPING;
             }
         }
     }
 
+    /**
+     * Doubly linked list of cells.<br/>
+     * Cells are recycled: {@link #clear()} keeps them in a free list, from which the following appends take their
+     * cells, so that a tape reused for many runs stops allocating once it has reached its largest size.
+     */
     public static class Tape implements Iterable<Cell> {
 
         private Cell currentCell;
         private Cell firstCell;
+        private Cell lastCell;
+
+        /**
+         * recycled cells, linked by {@link Cell#next}
+         */
+        private Cell spareCells;
 
         //keep track of the position to avoid having to iterate on the whole tape to find where we are;
         @Getter
         private int position = 0;
 
+        /**
+         * position of the first cell of the initial ribbon, ie. the number of cells added on the left
+         */
+        @Getter
+        private int origin = 0;
+
         public Tape(List<String> initialState) {
-            if (initialState.isEmpty()) {
-                firstCell = Cell.empty();
+            for (String symbol : initialState) {
+                append(symbol);
+            }
+            rewind();
+        }
+
+        private Tape() {
+        }
+
+        /**
+         * Removes all the cells, keeping them for the following appends
+         */
+        private void clear() {
+            if (firstCell != null) {
+                lastCell.next = spareCells;
+                spareCells = firstCell;
+            }
+            firstCell = null;
+            lastCell = null;
+            currentCell = null;
+            position = 0;
+            origin = 0;
+        }
+
+        private void append(String symbol) {
+            final Cell cell = obtain(symbol);
+            if (lastCell == null) {
+                firstCell = cell;
             } else {
-                firstCell = Cell.of(initialState.get(0));
-                //noinspection ResultOfMethodCallIgnored
-                initialState.stream()
-                        .skip(1)
-                        .map(Cell::of)
-                        .reduce(firstCell, (prev, cur) -> {
-                            prev.next = cur;
-                            cur.prev = prev;
-                            return cur;
-                        });
+                lastCell.next = cell;
+                cell.prev = lastCell;
             }
+            lastCell = cell;
+        }
 
+        /**
+         * Puts the head on the first cell, adding an empty cell to an empty tape
+         */
+        private void rewind() {
+            if (firstCell == null) {
+                append(EMPTY_SYMBOL);
+            }
             currentCell = firstCell;
+            position = 0;
+        }
+
+        private Cell obtain(String symbol) {
+            final Cell cell = spareCells;
+            if (cell == null) {
+                return Cell.of(symbol);
+            }
+            spareCells = cell.next;
+            cell.symbol = symbol;
+            cell.next = null;
+            cell.prev = null;
+            return cell;
         }
 
         public List<String> getSymbols() {
@@ -180,9 +412,10 @@ public class TuringMachine {
                     break;
                 case LEFT:
                     if (currentCell.getPrev() == null) {
-                        currentCell.prev = Cell.empty();
+                        currentCell.prev = obtain(EMPTY_SYMBOL);
                         currentCell.prev.next = currentCell;
                         firstCell = currentCell.getPrev();
+                        origin++;
                     } else {
                         position--;
                     }
@@ -190,8 +423,9 @@ public class TuringMachine {
                     break;
                 case RIGHT:
                     if (currentCell.getNext() == null) {
-                        currentCell.next = Cell.empty();
+                        currentCell.next = obtain(EMPTY_SYMBOL);
                         currentCell.next.prev = currentCell;
+                        lastCell = currentCell.next;
                     }
 
                     position++;
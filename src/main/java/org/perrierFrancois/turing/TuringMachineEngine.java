@@ -0,0 +1,59 @@
+package org.perrierFrancois.turing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Run/step contract shared by the Turing machine implementations.
+ */
+public interface TuringMachineEngine {
+
+    void reset();
+
+    void initialize(List<String> ribbon);
+
+    /**
+     * Same as {@link #initialize(List)}, each character being a symbol (see {@link CharSymbols}).
+     */
+    default void initialize(CharSequence ribbon) {
+        final List<String> symbols = new ArrayList<>(ribbon.length());
+        for (int i = 0; i < ribbon.length(); i++) {
+            symbols.add(CharSymbols.symbol(ribbon.charAt(i)));
+        }
+        initialize(symbols);
+    }
+
+    /**
+     * Performs a single transition. The machine must be {@link MachineState#RUNNING}.
+     */
+    void nextStep();
+
+    /**
+     * Runs the machine until it reaches a final machine state. Never returns if the machine loops forever.
+     */
+    default RunResult run() {
+        return run(Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs the machine until it reaches a final machine state or performs <code>maxSteps</code> transitions.<br/>
+     * Can be called again to resume a run which exhausted its budget.
+     */
+    RunResult run(long maxSteps);
+
+    /**
+     * Runs the machine until it reaches a final machine state or the condition, evaluated before each transition, is met.
+     */
+    default RunResult runUntil(Predicate<? super TuringMachineEngine> condition) {
+        return runUntil(condition, Long.MAX_VALUE);
+    }
+
+    RunResult runUntil(Predicate<? super TuringMachineEngine> condition, long maxSteps);
+
+    MachineState getMachineState();
+
+    String getInternalState();
+
+    long getTransitions();
+}
@@ -0,0 +1,200 @@
+package org.perrierFrancois.turing.analysis;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.NO_ACTION;
+
+/**
+ * Shrinks a {@link TuringMachineDefinition} without changing its behaviour:
+ * <ol>
+ * <li>the states which can not be reached from the initial state are removed, with their actions</li>
+ * <li>equivalent states are merged. Like in DFA minimization, states are partitioned (Moore's algorithm): they start
+ * split by the symbol and move of their actions (an undefined action being a behaviour of its own), and classes are
+ * refined by the classes of the next states until the partition is stable. Each class is then replaced by one of its
+ * states</li>
+ * </ol>
+ * Final states are never merged, so that runs end in the same final state. The minimized definition performs the same
+ * transitions on the same tapes; only the names of the internal states differ, merged states being named after one of
+ * them.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DefinitionMinimizer {
+
+    @Value
+    public static class Result {
+        TuringMachineDefinition definition;
+
+        int statesBefore;
+
+        int unreachableStates;
+
+        int mergedStates;
+
+        int actionsBefore;
+
+        int actionsAfter;
+
+        public int getStatesAfter() {
+            return statesBefore - unreachableStates - mergedStates;
+        }
+    }
+
+    public static Result minimize(TuringMachineDefinition definition) {
+        final CompiledDefinition compiled = CompiledDefinition.compile(definition);
+        final int stateCount = compiled.getStateCount();
+        final int symbolCount = compiled.getSymbolCount();
+
+        final boolean[] reachable = reachable(compiled);
+        int unreachable = 0;
+        for (boolean r : reachable) {
+            unreachable += r ? 0 : 1;
+        }
+
+        final int[] classes = partition(compiled, reachable);
+
+        // representative of each class: the initial state for its class, the lowest id otherwise
+        final int[] representatives = new int[stateCount];
+        Arrays.fill(representatives, -1);
+        representatives[classes[compiled.getInitialState()]] = compiled.getInitialState();
+        int classCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            if (!reachable[state]) {
+                continue;
+            }
+            if (representatives[classes[state]] < 0) {
+                representatives[classes[state]] = state;
+            }
+            classCount = Math.max(classCount, classes[state] + 1);
+        }
+
+        final List<Action> actions = new ArrayList<>();
+        for (int state = 0; state < stateCount; state++) {
+            if (!reachable[state] || representatives[classes[state]] != state) {
+                continue;
+            }
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                final long action = compiled.action(state, symbol);
+                if (action == NO_ACTION) {
+                    continue;
+                }
+                final int next = representatives[classes[CompiledDefinition.nextState(action)]];
+                actions.add(Action.builder()
+                        .inState(compiled.stateName(state))
+                        .whenReading(compiled.symbolName(symbol))
+                        .write(compiled.symbolName(CompiledDefinition.writeSymbol(action)))
+                        .move(CompiledDefinition.toMove(CompiledDefinition.move(action)))
+                        .toState(compiled.stateName(next))
+                        .build());
+            }
+        }
+
+        final TuringMachineDefinition.TuringMachineDefinitionBuilder minimized = TuringMachineDefinition.builder()
+                .initialState(definition.getInitialState())
+                .actions(actions);
+        for (int state = 0; state < stateCount; state++) {
+            if (reachable[state] && compiled.isFinal(state)) {
+                minimized.finalState(compiled.stateName(state));
+            }
+        }
+
+        final int reachableCount = stateCount - unreachable;
+        return new Result(minimized.build(), stateCount, unreachable, reachableCount - classCount,
+                definition.getActions().size(), actions.size());
+    }
+
+    private static boolean[] reachable(CompiledDefinition definition) {
+        final boolean[] reachable = new boolean[definition.getStateCount()];
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        reachable[definition.getInitialState()] = true;
+        queue.add(definition.getInitialState());
+
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            if (definition.isFinal(state)) {
+                continue;
+            }
+            for (int symbol = 0; symbol < definition.getSymbolCount(); symbol++) {
+                final long action = definition.action(state, symbol);
+                if (action != NO_ACTION && !reachable[CompiledDefinition.nextState(action)]) {
+                    reachable[CompiledDefinition.nextState(action)] = true;
+                    queue.add(CompiledDefinition.nextState(action));
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @return the class of each reachable state, classes being numbered from <code>0</code>
+     */
+    private static int[] partition(CompiledDefinition definition, boolean[] reachable) {
+        final int stateCount = definition.getStateCount();
+        final int symbolCount = definition.getSymbolCount();
+
+        int[] classes = new int[stateCount];
+        int classCount = -1;
+        while (true) {
+            final int[] refined = new int[stateCount];
+            final Map<Signature, Integer> ids = new HashMap<>();
+            for (int state = 0; state < stateCount; state++) {
+                if (!reachable[state]) {
+                    continue;
+                }
+
+                final long[] signature = new long[symbolCount + 2];
+                signature[0] = classes[state];
+                if (definition.isFinal(state)) {
+                    // final states are kept apart: their own id makes them unique
+                    signature[1] = -1 - state;
+                } else {
+                    for (int symbol = 0; symbol < symbolCount; symbol++) {
+                        final long action = definition.action(state, symbol);
+                        // replace the next state by its class
+                        signature[symbol + 2] = action == NO_ACTION ? NO_ACTION
+                                : (action & 0xFFFFFFFFL) | (long) classes[CompiledDefinition.nextState(action)] << 32;
+                    }
+                }
+                refined[state] = ids.computeIfAbsent(new Signature(signature), s -> ids.size());
+            }
+
+            // refining never merges classes: the partition is stable when the count does not grow
+            if (ids.size() == classCount) {
+                return refined;
+            }
+            classCount = ids.size();
+            classes = refined;
+        }
+    }
+
+    private static final class Signature {
+        private final long[] values;
+        private final int hash;
+
+        private Signature(long[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature && Arrays.equals(values, ((Signature) o).values);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.metrics.ExecutionMetrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Runs many ribbons against a single {@link CompiledDefinition}, spreading them over an executor.<br/>
+ * The definition is immutable and shared by all the workers; each chunk takes a {@link CompiledTuringMachine} from a
+ * pool of idle machines owned by the runner and gives it back once done, so no action table is ever rebuilt and there
+ * are never more machines than chunks run concurrently, whatever threads the executor uses.<br/>
+ * Ribbons are processed in chunks, to amortize scheduling, and only a bounded number of chunks is in flight at any time,
+ * so that arbitrarily long input streams can be processed.
+ */
+public class BatchRunner {
+
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final CompiledDefinition definition;
+
+    private final ExecutorService executor;
+
+    private final int chunkSize;
+
+    private final int maxChunksInFlight;
+
+    private final long maxSteps;
+
+    /**
+     * idle machines, taken by a chunk for its whole run
+     */
+    private final Queue<CompiledTuringMachine> machines = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean started;
+
+    /**
+     * sample interval of the metrics, <code>0</code> when they are disabled
+     */
+    private volatile int sampleInterval;
+
+    /**
+     * totals of the ended chunks, each pooled machine merging its own metrics into a stripe (picked by thread) at the
+     * end of each chunk, under the lock of the stripe
+     */
+    private final ExecutionMetrics[] stripes;
+
+    /**
+     * Builds a runner on the common {@link ForkJoinPool}, with no step budget.
+     */
+    public BatchRunner(CompiledDefinition definition) {
+        this(definition, ForkJoinPool.commonPool(), Long.MAX_VALUE);
+    }
+
+    /**
+     * @param executor executor running the chunks, eg. a {@link ForkJoinPool} or a virtual thread per task executor
+     * @param maxSteps step budget of each run (see {@link CompiledTuringMachine#run(long)})
+     */
+    public BatchRunner(CompiledDefinition definition, ExecutorService executor, long maxSteps) {
+        this(definition, executor, maxSteps, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchRunner(CompiledDefinition definition, ExecutorService executor, long maxSteps, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.definition = definition;
+        this.executor = executor;
+        this.maxSteps = maxSteps;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = 4 * Runtime.getRuntime().availableProcessors();
+        this.stripes = new ExecutionMetrics[Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ExecutionMetrics(definition);
+        }
+    }
+
+    /**
+     * Samples the transitions of every run, see {@link #getMetrics()} and
+     * {@link ExecutionMetrics#DEFAULT_SAMPLE_INTERVAL}. Must be called before the first run.
+     */
+    public void enableMetrics() {
+        enableMetrics(ExecutionMetrics.DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval see {@link ExecutionMetrics#ExecutionMetrics(CompiledDefinition, int)}, <code>1</code> to
+     *                       count every transition
+     */
+    public void enableMetrics(int sampleInterval) {
+        if (started) {
+            throw new IllegalStateException("Metrics should be enabled before the first run");
+        }
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be positive");
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * @return a copy of the metrics of all the chunks ended so far
+     */
+    public ExecutionMetrics getMetrics() {
+        if (sampleInterval == 0) {
+            throw new IllegalStateException("Metrics are not enabled");
+        }
+        final ExecutionMetrics metrics = new ExecutionMetrics(definition);
+        for (ExecutionMetrics stripe : stripes) {
+            synchronized (stripe) {
+                metrics.merge(stripe);
+            }
+        }
+        return metrics;
+    }
+
+    private CompiledTuringMachine newMachine() {
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+        if (sampleInterval > 0) {
+            machine.enableMetrics(new ExecutionMetrics(definition, sampleInterval));
+        }
+        return machine;
+    }
+
+    /**
+     * Moves the metrics of the chunk that just ended on the current thread to the totals.
+     */
+    private void collectMetrics(ExecutionMetrics metrics) {
+        final ExecutionMetrics stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            stripe.merge(metrics);
+        }
+        metrics.clear();
+    }
+
+    public CompiledDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return the results of each run, in input order
+     */
+    public List<RunResult> runAll(Stream<? extends List<String>> ribbons) {
+        return runAll(ribbons, machine -> RunResult.of(machine.getMachineState(), StopReason.BUDGET_EXHAUSTED,
+                machine.getTransitions(), machine.getTransitions()));
+    }
+
+    /**
+     * Runs each ribbon, then maps the machine to a result.
+     *
+     * @param result called on the worker thread right after the run; the machine (and its tape) must not be
+     *               retained, as it is reused for the next ribbon
+     * @return the results of each run, in input order
+     */
+    public <R> List<R> runAll(Stream<? extends List<String>> ribbons, Function<? super CompiledTuringMachine, ? extends R> result) {
+        final List<R> results = new ArrayList<>();
+        final ArrayDeque<CompletableFuture<List<R>>> inFlight = new ArrayDeque<>();
+
+        final Iterator<? extends List<String>> iterator = ribbons.iterator();
+        while (iterator.hasNext()) {
+            inFlight.add(submit(nextChunk(iterator), result));
+            if (inFlight.size() >= maxChunksInFlight) {
+                results.addAll(join(inFlight.poll()));
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            results.addAll(join(inFlight.poll()));
+        }
+
+        return results;
+    }
+
+    /**
+     * Runs each ribbon, and hands over the results as soon as they are available, in no particular order.
+     *
+     * @param result   see {@link #runAll(Stream, Function)}
+     * @param consumer receives each result together with the index of its ribbon in the input stream; called
+     *                 concurrently from the worker threads
+     */
+    public <R> void runAll(Stream<? extends List<String>> ribbons, Function<? super CompiledTuringMachine, ? extends R> result,
+                           ObjLongConsumer<? super R> consumer) {
+        final ArrayDeque<CompletableFuture<List<R>>> inFlight = new ArrayDeque<>();
+
+        final Iterator<? extends List<String>> iterator = ribbons.iterator();
+        long index = 0;
+        while (iterator.hasNext()) {
+            final List<List<String>> chunk = nextChunk(iterator);
+            final long firstIndex = index;
+            index += chunk.size();
+
+            inFlight.add(this.<R>submit(chunk, result).thenApply(results -> {
+                for (int i = 0; i < results.size(); i++) {
+                    consumer.accept(results.get(i), firstIndex + i);
+                }
+                return results;
+            }));
+
+            if (inFlight.size() >= maxChunksInFlight) {
+                join(inFlight.poll());
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            join(inFlight.poll());
+        }
+    }
+
+    private List<List<String>> nextChunk(Iterator<? extends List<String>> iterator) {
+        final List<List<String>> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && iterator.hasNext()) {
+            chunk.add(iterator.next());
+        }
+        return chunk;
+    }
+
+    private <R> CompletableFuture<List<R>> submit(List<List<String>> chunk, Function<? super CompiledTuringMachine, ? extends R> result) {
+        started = true;
+        return CompletableFuture.supplyAsync(() -> {
+            final CompiledTuringMachine pooled = machines.poll();
+            final CompiledTuringMachine machine = pooled != null ? pooled : newMachine();
+            try {
+                final List<R> results = new ArrayList<>(chunk.size());
+                for (List<String> ribbon : chunk) {
+                    machine.reset();
+                    machine.initialize(ribbon);
+                    machine.run(maxSteps);
+                    results.add(result.apply(machine));
+                }
+                return results;
+            } finally {
+                if (machine.metrics != null) {
+                    collectMetrics(machine.metrics);
+                }
+                machines.add(machine);
+            }
+        }, executor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
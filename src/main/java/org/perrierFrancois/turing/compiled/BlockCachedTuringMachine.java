@@ -0,0 +1,95 @@
+package org.perrierFrancois.turing.compiled;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.tape.SymbolTape;
+
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.EMPTY_SYMBOL_ID;
+
+/**
+ * {@link CompiledTuringMachine} running as a macro-machine over fixed size blocks of cells.<br/>
+ * The tape is split into blocks of {@link BlockTransitionCache#getBlockSize()} cells, aligned on the first cell of the
+ * initial ribbon. Each time the head enters a block, the whole run inside the block (until the head leaves it or the
+ * machine halts) is looked up in a {@link BlockTransitionCache}, so machines sweeping many times over the same patterns
+ * replay their sweeps block by block instead of cell by cell.<br/>
+ * Transitions count the replaced steps, and the tape only gets the cells visited by the head: results are identical to
+ * the ones of {@link CompiledTuringMachine}. Whether it pays off depends on the definition, see the cache counters.
+ */
+public class BlockCachedTuringMachine extends CompiledTuringMachine {
+
+    public static final int DEFAULT_BLOCK_SIZE = 8;
+
+    public static final int DEFAULT_CACHE_CAPACITY = 1 << 16;
+
+    @Getter
+    private final BlockTransitionCache cache;
+
+    public BlockCachedTuringMachine(CompiledDefinition definition) {
+        this(definition, DEFAULT_BLOCK_SIZE, DEFAULT_CACHE_CAPACITY);
+    }
+
+    public BlockCachedTuringMachine(CompiledDefinition definition, int blockSize, int cacheCapacity) {
+        super(definition);
+        this.cache = new BlockTransitionCache(definition, blockSize, cacheCapacity);
+    }
+
+    @Override
+    public RunResult run(long maxSteps) {
+        assertStarted();
+        if (machineState != MachineState.RUNNING || hasForeignSymbols() || isObserved()) {
+            // foreign symbols have no place in the cache keys, and observers need every transition
+            return super.run(maxSteps);
+        }
+
+        final SymbolTape tape = this.tape;
+        final int blockSize = cache.getBlockSize();
+        final int[] contents = cache.contents();
+        final long start = transitions;
+
+        while (machineState == MachineState.RUNNING && transitions - start < maxSteps) {
+            final long remaining = maxSteps - (transitions - start);
+            final int entry = Math.floorMod(tape.getPosition() - tape.getOrigin(), blockSize);
+            final int blockStart = tape.getPosition() - entry;
+            final int size = tape.size();
+            for (int i = 0; i < blockSize; i++) {
+                final int position = blockStart + i;
+                contents[i] = position >= 0 && position < size ? tape.symbolAt(position) : EMPTY_SYMBOL_ID;
+            }
+
+            final BlockTransitionCache.Transition transition = cache.lookup(state, entry);
+            if (transition.steps > remaining) {
+                // not enough budget for the whole block: step normally
+                super.run(Math.min(remaining, 2L * blockSize));
+                continue;
+            }
+
+            replay(tape, entry, transition);
+            state = transition.state;
+            transitions += transition.steps;
+            machineState = transition.outcome;
+        }
+
+        return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, transitions - start);
+    }
+
+    /**
+     * Writes the visited cells and moves the head to its exit offset, only going through the visited cells so that the
+     * tape grows exactly as if the block had been run step by step.
+     */
+    private static void replay(SymbolTape tape, int entry, BlockTransitionCache.Transition transition) {
+        tape.move(false, entry - transition.low);
+        for (int i = transition.low; i < transition.high; i++) {
+            tape.write(transition.contents[i]);
+            tape.moveRight();
+        }
+        tape.write(transition.contents[transition.high]);
+
+        if (transition.exit > transition.high) {
+            tape.move(true, transition.exit - transition.high);
+        } else {
+            tape.move(false, transition.high - transition.exit);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.perrierFrancois.turing.compiled;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.MachineState;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.*;
+
+/**
+ * Bounded cache of block transitions, used by {@link BlockCachedTuringMachine}.<br/>
+ * A block transition is what happens when the machine runs inside a block of <code>blockSize</code> cells, from a given
+ * internal state, head offset and block contents, until the head leaves the block, the machine halts or a bounded
+ * number of steps have run. The least recently used transitions are evicted first.<br/>
+ * Not thread safe: each machine owns its cache.
+ */
+public class BlockTransitionCache {
+
+    private final CompiledDefinition definition;
+
+    @Getter
+    private final int blockSize;
+
+    @Getter
+    private final int capacity;
+
+    /**
+     * transitions running longer than this inside a single block stop there, with the head still inside the block (the
+     * machine is probably looping): the next lookup then starts from where they stopped
+     */
+    private final int maxBlockSteps;
+
+    private final Map<Key, Transition> transitions;
+
+    /**
+     * reused for lookups, so that hits do not allocate
+     */
+    private final Key probe;
+
+    @Getter
+    private long hits;
+
+    @Getter
+    private long misses;
+
+    @Getter
+    private long evictions;
+
+    public BlockTransitionCache(CompiledDefinition definition, int blockSize, int capacity) {
+        if (blockSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Block size and capacity must be positive");
+        }
+        this.definition = definition;
+        this.blockSize = blockSize;
+        this.capacity = capacity;
+        this.maxBlockSteps = 64 * blockSize;
+        this.probe = new Key(new int[blockSize]);
+        this.transitions = new LinkedHashMap<Key, Transition>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Transition> eldest) {
+                if (size() > BlockTransitionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the number of cached transitions
+     */
+    public int size() {
+        return transitions.size();
+    }
+
+    public void clear() {
+        transitions.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Contents buffer of the lookup key, to be filled before calling {@link #lookup(int, int)}.
+     */
+    int[] contents() {
+        return probe.contents;
+    }
+
+    /**
+     * @param state internal state when entering the block
+     * @param entry head offset in the block
+     * @return the transition for the current {@link #contents()}
+     */
+    Transition lookup(int state, int entry) {
+        probe.set(state, entry);
+        final Transition cached = transitions.get(probe);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+
+        misses++;
+        final Transition computed = compute(state, entry, probe.contents);
+        transitions.put(probe.copy(), computed);
+        return computed;
+    }
+
+    private Transition compute(int state, int entry, int[] contents) {
+        final long[] actions = definition.actions;
+        final int symbolCount = definition.symbolCount;
+        final boolean[] finalStates = definition.finalStates;
+
+        final int[] cells = contents.clone();
+        int head = entry;
+        int low = entry;
+        int high = entry;
+        int steps = 0;
+        MachineState outcome = MachineState.RUNNING;
+
+        while (head >= 0 && head < blockSize && steps < maxBlockSteps) {
+            final long action = actions[state * symbolCount + cells[head]];
+            if (action == NO_ACTION) {
+                outcome = MachineState.ILLEGAL_STATE;
+                break;
+            }
+
+            cells[head] = writeSymbol(action);
+            final int move = move(action);
+            head += move == LEFT ? -1 : move == RIGHT ? 1 : 0;
+            state = nextState(action);
+            steps++;
+
+            if (head >= 0 && head < blockSize) {
+                low = Math.min(low, head);
+                high = Math.max(high, head);
+            }
+            if (finalStates[state]) {
+                outcome = MachineState.ACCEPTED;
+                break;
+            }
+        }
+
+        return new Transition(cells, low, high, head, state, steps, outcome);
+    }
+
+    /**
+     * Effect of running inside a block: the cells <code>[low, high]</code> are the ones visited by the head, and get
+     * their new contents; the head ends at offset <code>exit</code>, which is <code>-1</code> or <code>blockSize</code>
+     * if it left the block, and inside the block if the machine is still running there after the maximum number of
+     * steps.
+     */
+    static final class Transition {
+        final int[] contents;
+        final int low;
+        final int high;
+        final int exit;
+        final int state;
+        final int steps;
+        final MachineState outcome;
+
+        private Transition(int[] contents, int low, int high, int exit, int state, int steps, MachineState outcome) {
+            this.contents = contents;
+            this.low = low;
+            this.high = high;
+            this.exit = exit;
+            this.state = state;
+            this.steps = steps;
+            this.outcome = outcome;
+        }
+    }
+
+    private static final class Key {
+        private final int[] contents;
+        private int state;
+        private int entry;
+        private int hash;
+
+        private Key(int[] contents) {
+            this.contents = contents;
+        }
+
+        private void set(int state, int entry) {
+            this.state = state;
+            this.entry = entry;
+            this.hash = 31 * (31 * state + entry) + Arrays.hashCode(contents);
+        }
+
+        private Key copy() {
+            final Key copy = new Key(contents.clone());
+            copy.state = state;
+            copy.entry = entry;
+            copy.hash = hash;
+            return copy;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return state == other.state && entry == other.entry && Arrays.equals(contents, other.contents);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.perrierFrancois.turing.compiled;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.tape.SymbolTape;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.perrierFrancois.turing.compiled.Checkpoints.*;
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.EMPTY_SYMBOL_ID;
+
+/**
+ * Writes periodic checkpoints of a running {@link CompiledTuringMachine} to a file (see {@link Checkpoints} for the
+ * format), eg. every few billion transitions:
+ * <pre>
+ * while (machine.run(budget).getMachineState() == MachineState.RUNNING) {
+ *     writer.checkpoint(machine);
+ * }
+ * </pre>
+ * The first checkpoint holds the whole tape; the following ones are appended as deltas holding only the segments
+ * which changed. The writer keeps a copy of the last checkpointed tape and compares the segments when checkpointing,
+ * so the machine runs at full speed in between.<br/>
+ * Once the deltas outweigh the last full checkpoint, the file is replaced by a new full checkpoint (written aside, then
+ * atomically moved), which bounds both the file size and the restore time. Every checkpoint is forced to the disk
+ * before {@link #checkpoint(CompiledTuringMachine)} returns.
+ */
+public class CheckpointWriter implements Closeable {
+
+    private final Path path;
+
+    private FileChannel channel;
+
+    private CompiledDefinition definition;
+
+    private long fingerprint;
+
+    // tape of the last checkpoint, and of the current one
+    private int[] written = new int[0];
+    private int writtenOrigin;
+    private int writtenSize;
+    private int[] current = new int[0];
+
+    private long fullBytes;
+    private long deltaBytes;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(0);
+
+    private final CRC32 crc = new CRC32();
+
+    @Getter
+    private long checkpoints;
+
+    /**
+     * Number of tape segments written by the last checkpoint
+     */
+    @Getter
+    private int writtenSegments;
+
+    public CheckpointWriter(Path path) {
+        this.path = path;
+    }
+
+    public void checkpoint(CompiledTuringMachine machine) throws IOException {
+        machine.assertStarted();
+        if (machine.getDefinition() != definition) {
+            final long fingerprint = machine.getDefinition().fingerprint();
+            if (definition != null && fingerprint != this.fingerprint) {
+                throw new IllegalArgumentException("Checkpoint of another definition");
+            }
+            this.definition = machine.getDefinition();
+            this.fingerprint = fingerprint;
+        }
+
+        final SymbolTape tape = machine.getTape();
+        final int size = tape.size();
+        final int origin = tape.getOrigin();
+        if (current.length < size) {
+            current = new int[Math.max(size, 2 * current.length)];
+        }
+        tape.copySymbols(0, current, 0, size);
+
+        final boolean full = channel == null || deltaBytes > fullBytes;
+        final int first = Math.floorDiv(-origin, SEGMENT_SIZE);
+        final int last = Math.floorDiv(size - 1 - origin, SEGMENT_SIZE);
+        final int[] segments = new int[last - first + 1];
+        int count = 0;
+        for (int segment = first; segment <= last; segment++) {
+            if (full || isDirty(segment, origin, size)) {
+                segments[count++] = segment;
+            }
+        }
+
+        final ByteBuffer record = record(machine, full, origin, size, segments, count);
+        if (full) {
+            replace(record);
+            fullBytes = record.limit();
+            deltaBytes = 0;
+        } else {
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                // the file may end with an incomplete record: the next checkpoint starts a new file
+                close();
+                throw e;
+            }
+            deltaBytes += record.limit();
+        }
+
+        final int[] previous = written;
+        written = current;
+        writtenOrigin = origin;
+        writtenSize = size;
+        current = previous;
+        writtenSegments = count;
+        checkpoints++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * @return whether the cells of the segment differ from the last checkpoint, the cells added since then being empty
+     */
+    private boolean isDirty(int segment, int origin, int size) {
+        // positions relative to the origin
+        final int from = Math.max(segment * SEGMENT_SIZE, -origin);
+        final int to = Math.min(segment * SEGMENT_SIZE + SEGMENT_SIZE, size - origin);
+        final int writtenFrom = Math.max(from, -writtenOrigin);
+        final int writtenTo = Math.min(to, writtenSize - writtenOrigin);
+
+        if (writtenFrom >= writtenTo) {
+            return !isEmpty(from + origin, to + origin);
+        }
+        return !Arrays.equals(current, writtenFrom + origin, writtenTo + origin,
+                written, writtenFrom + writtenOrigin, writtenTo + writtenOrigin)
+                || !isEmpty(from + origin, writtenFrom + origin)
+                || !isEmpty(writtenTo + origin, to + origin);
+    }
+
+    private boolean isEmpty(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (current[i] != EMPTY_SYMBOL_ID) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer record(CompiledTuringMachine machine, boolean full, int origin, int size, int[] segments, int count) {
+        final List<String> foreignSymbols = machine.getForeignSymbols();
+        final int cellBytes = definition.getSymbolCount() + foreignSymbols.size() <= 256 ? 1 : Integer.BYTES;
+
+        final byte[][] names = new byte[foreignSymbols.size()][];
+        long capacity = 2 * Byte.BYTES + Long.BYTES + 9 * Integer.BYTES;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = foreignSymbols.get(i).getBytes(StandardCharsets.UTF_8);
+            capacity += Integer.BYTES + names[i].length;
+        }
+        capacity += (long) count * (Integer.BYTES + SEGMENT_SIZE * cellBytes);
+        if (buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(Math.toIntExact(Math.max(capacity, 2L * buffer.capacity())))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear();
+
+        buffer.putInt(0);
+        buffer.put(full ? FULL : DELTA);
+        buffer.put((byte) cellBytes);
+        buffer.putLong(machine.getTransitions());
+        buffer.putInt(machine.getInternalStateId());
+        buffer.putInt(machine.getMachineState().ordinal());
+        buffer.putInt(origin);
+        buffer.putInt(size);
+        buffer.putInt(machine.getTape().getPosition());
+        buffer.putInt(names.length);
+        for (byte[] name : names) {
+            buffer.putInt(name.length).put(name);
+        }
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(segments[i]);
+            final int from = Math.max(segments[i] * SEGMENT_SIZE, -origin) + origin;
+            final int to = Math.min(segments[i] * SEGMENT_SIZE + SEGMENT_SIZE, size - origin) + origin;
+            for (int c = from; c < to; c++) {
+                if (cellBytes == 1) {
+                    buffer.put((byte) current[c]);
+                } else {
+                    buffer.putInt(current[c]);
+                }
+            }
+        }
+
+        final int length = buffer.position() - Integer.BYTES;
+        buffer.putInt(0, length);
+        crc.reset();
+        crc.update(buffer.duplicate().position(Integer.BYTES).limit(Integer.BYTES + length));
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Replaces the file by a new one holding the header and the given full checkpoint
+     */
+    private void replace(ByteBuffer record) throws IOException {
+        close();
+
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(SEGMENT_SIZE)
+                    .putLong(fingerprint)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,194 @@
+package org.perrierFrancois.turing.compiled;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.perrierFrancois.turing.MachineState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static java.lang.String.format;
+
+/**
+ * Checkpoint files of running {@link CompiledTuringMachine}s, written by a {@link CheckpointWriter}, so that long runs
+ * survive a restart: a machine restored with {@link #restore(Path, CompiledTuringMachine)} continues exactly where the
+ * checkpointed one was.<br/>
+ * Format (little endian):
+ * <pre>
+ * int    magic ("TMCP")
+ * int    version
+ * int    segment size (cells)
+ * long   definition fingerprint (see {@link CompiledDefinition#fingerprint()})
+ * record full checkpoint, then delta checkpoints:
+ *   int    body length
+ *   byte   kind (full or delta)
+ *   byte   bytes per cell (1 or 4)
+ *   long   transitions
+ *   int    internal state id, machine state ordinal
+ *   int    tape origin, tape size, head position (relative to the leftmost cell)
+ *   int    foreign symbol count, then the names (int byte length + UTF-8 bytes each)
+ *   int    segment count, then each segment: int index, cells
+ *   int    CRC32 of the body
+ * </pre>
+ * Tape segments are numbered from the first cell of the initial ribbon, which never moves. A full checkpoint holds
+ * every segment; a delta only the segments which changed since the previous checkpoint, the tape of a delta being the
+ * tape of the previous checkpoint, grown to the new size with empty cells, and updated with the segments of the delta.
+ * An incomplete or corrupted record (eg. the JVM stopped while writing it) ends the file: the machine is restored from
+ * the last complete checkpoint.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Checkpoints {
+
+    static final int MAGIC = 0x50434D54;
+
+    static final int VERSION = 1;
+
+    static final int SEGMENT_SIZE = 4096;
+
+    static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+
+    static final byte FULL = 0;
+
+    static final byte DELTA = 1;
+
+    /**
+     * Restores the last complete checkpoint of the file into the given machine, which must be
+     * {@link MachineState#READY} and run the checkpointed definition.
+     *
+     * @throws IOException if the file can not be read, is not a valid checkpoint file of a supported version, or has
+     *                     been written for another definition
+     */
+    public static void restore(Path path, CompiledTuringMachine machine) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            restore(buffer, machine);
+        } catch (RuntimeException e) {
+            // negative sizes, invalid ids...
+            throw new IOException(format("Invalid checkpoint file %s", path), e);
+        }
+    }
+
+    private static void restore(ByteBuffer buffer, CompiledTuringMachine machine) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a checkpoint file");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(format("Unsupported checkpoint file version %d", version));
+        }
+        final int segmentSize = buffer.getInt();
+        final CompiledDefinition definition = machine.getDefinition();
+        if (buffer.getLong() != definition.fingerprint()) {
+            throw new IOException("Checkpoint of another definition");
+        }
+
+        final Checkpoint checkpoint = new Checkpoint();
+        final CRC32 crc = new CRC32();
+        while (buffer.remaining() >= Integer.BYTES) {
+            final int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() < length + Integer.BYTES) {
+                break;
+            }
+            final ByteBuffer body = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            body.limit(length);
+            crc.reset();
+            crc.update(body.duplicate());
+            buffer.position(buffer.position() + length);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            checkpoint.apply(body, segmentSize, definition);
+        }
+
+        if (checkpoint.cells == null) {
+            throw new IOException("No complete checkpoint");
+        }
+        machine.restore(checkpoint.state, checkpoint.transitions, checkpoint.machineState, checkpoint.foreignSymbols,
+                checkpoint.cells, checkpoint.origin, checkpoint.position);
+    }
+
+    /**
+     * Configuration rebuilt from the records read so far
+     */
+    private static class Checkpoint {
+        private long transitions;
+        private int state;
+        private MachineState machineState;
+        private int origin;
+        private int position;
+        private List<String> foreignSymbols;
+        private int[] cells;
+
+        void apply(ByteBuffer body, int segmentSize, CompiledDefinition definition) throws IOException {
+            final byte kind = body.get();
+            if (kind != FULL && (kind != DELTA || cells == null)) {
+                throw new IOException(format("Unexpected record kind %d", kind));
+            }
+            final int cellBytes = body.get();
+            if (cellBytes != 1 && cellBytes != Integer.BYTES) {
+                throw new IOException(format("Invalid cell size %d", cellBytes));
+            }
+
+            transitions = body.getLong();
+            state = checkId(body.getInt(), definition.getStateCount());
+            machineState = MachineState.values()[checkId(body.getInt(), MachineState.values().length)];
+
+            final int newOrigin = body.getInt();
+            final int size = body.getInt();
+            position = checkId(body.getInt(), size);
+            checkId(newOrigin, size);
+
+            final int foreignCount = body.getInt();
+            foreignSymbols = new ArrayList<>(foreignCount);
+            for (int i = 0; i < foreignCount; i++) {
+                final byte[] bytes = new byte[body.getInt()];
+                body.get(bytes);
+                foreignSymbols.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            final int symbolCount = definition.getSymbolCount() + foreignCount;
+
+            // the tape only grows: the previous cells keep their place relative to the origin
+            if (kind == FULL) {
+                cells = new int[size];
+            } else if (size != cells.length || newOrigin != origin) {
+                if (size < cells.length || newOrigin < origin || size - newOrigin < cells.length - origin) {
+                    throw new IOException("Checkpoint tape shrunk");
+                }
+                final int[] grown = new int[size];
+                System.arraycopy(cells, 0, grown, newOrigin - origin, cells.length);
+                cells = grown;
+            }
+            origin = newOrigin;
+
+            final int segments = body.getInt();
+            for (int i = 0; i < segments; i++) {
+                final long start = (long) body.getInt() * segmentSize;
+                final int from = (int) Math.max(start, -origin);
+                final int to = (int) Math.min(start + segmentSize, size - origin);
+                if (from >= to) {
+                    throw new IOException(format("Segment %d out of the tape", start / segmentSize));
+                }
+                for (int c = from; c < to; c++) {
+                    cells[c + origin] = checkId(cellBytes == 1 ? Byte.toUnsignedInt(body.get()) : body.getInt(), symbolCount);
+                }
+            }
+        }
+    }
+
+    private static int checkId(int id, int count) throws IOException {
+        if (id < 0 || id >= count) {
+            throw new IOException(format("Invalid id %d, should be less than %d", id, count));
+        }
+        return id;
+    }
+}
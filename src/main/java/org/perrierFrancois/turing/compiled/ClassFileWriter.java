@@ -0,0 +1,309 @@
+package org.perrierFrancois.turing.compiled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer, just what {@link ProgramGenerator} needs: one final class implementing one interface, with
+ * a default constructor and methods whose code is built with a {@link Code}.<br/>
+ * Classes are written in the Java 5 format (version 49), which the JVM still verifies by type inference: no stack map
+ * frame has to be computed.
+ */
+class ClassFileWriter {
+
+    private static final int VERSION = 49;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int IALOAD = 0x2e;
+    static final int ISTORE = 0x36;
+    static final int IASTORE = 0x4f;
+    static final int ISUB = 0x64;
+    static final int IDIV = 0x6c;
+    static final int IINC = 0x84;
+    static final int IFLE = 0x9e;
+    static final int IFGT = 0x9d;
+    static final int IF_ICMPEQ = 0x9f;
+    static final int IF_ICMPGE = 0xa2;
+    static final int GOTO_W = 0xc8;
+    static final int TABLESWITCH = 0xaa;
+    static final int IRETURN = 0xac;
+    static final int RETURN = 0xb1;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKEINTERFACE = 0xb9;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    static final int MAX_CODE_LENGTH = 65535;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private final DataOutputStream methodsOut = new DataOutputStream(methods);
+    private int methodCount;
+
+    private final String name;
+    private final int thisClass;
+    private final int superClass;
+    private final int interfaceClass;
+
+    /**
+     * @param name          internal name of the class, eg. <code>a/b/C</code>
+     * @param interfaceName internal name of the implemented interface
+     */
+    ClassFileWriter(String name, String interfaceName) {
+        this.name = name;
+        thisClass = classConstant(name);
+        superClass = classConstant("java/lang/Object");
+        interfaceClass = classConstant(interfaceName);
+
+        final Code constructor = new Code();
+        constructor.op(ALOAD).u1(0);
+        constructor.op(INVOKESPECIAL).u2(methodConstant("java/lang/Object", "<init>", "()V", false));
+        constructor.op(RETURN);
+        addMethod("<init>", "()V", constructor, 1, 1);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int integerConstant(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(CONSTANT_INTEGER);
+            out.writeInt(value);
+        });
+    }
+
+    int methodConstant(String owner, String name, String descriptor, boolean isInterface) {
+        final int ownerIndex = classConstant(owner);
+        final int nameIndex = utf8(name);
+        final int descriptorIndex = utf8(descriptor);
+        final int nameAndType = constant("T" + name + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return constant("M" + owner + "." + name + descriptor, out -> {
+            out.writeByte(isInterface ? CONSTANT_INTERFACE_METHODREF : CONSTANT_METHODREF);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    void addMethod(String name, String descriptor, Code code, int maxStack, int maxLocals) {
+        final byte[] bytes = code.toByteArray();
+        if (bytes.length > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Method " + name + " too large: " + bytes.length + " bytes");
+        }
+
+        final int nameIndex = utf8(name);
+        final int descriptorIndex = utf8(descriptor);
+        final int codeIndex = utf8("Code");
+        try {
+            methodsOut.writeShort(ACC_PUBLIC);
+            methodsOut.writeShort(nameIndex);
+            methodsOut.writeShort(descriptorIndex);
+            methodsOut.writeShort(1);
+            methodsOut.writeShort(codeIndex);
+            methodsOut.writeInt(12 + bytes.length);
+            methodsOut.writeShort(maxStack);
+            methodsOut.writeShort(maxLocals);
+            methodsOut.writeInt(bytes.length);
+            methodsOut.write(bytes);
+            methodsOut.writeShort(0);
+            methodsOut.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            out.writeShort(0);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private int classConstant(String name) {
+        final int nameIndex = utf8(name);
+        return constant("C" + name, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    private int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    private int constant(String key, ConstantWriter writer) {
+        final Integer existing = poolIndex.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            writer.write(poolOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        poolIndex.put(key, poolCount);
+        return poolCount++;
+    }
+
+    private interface ConstantWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    static class Label {
+        private int pc = -1;
+    }
+
+    /**
+     * Bytecode of a method. Jumps are all emitted with 32 bits offsets (<code>goto_w</code>, <code>tableswitch</code>),
+     * except conditional branches which must target labels less than 32KB away.
+     */
+    static class Code {
+        private byte[] bytes = new byte[256];
+        private int length;
+        private final List<int[]> fixups = new ArrayList<>();
+        private final List<Label> fixupLabels = new ArrayList<>();
+
+        int pc() {
+            return length;
+        }
+
+        Code op(int opcode) {
+            return u1(opcode);
+        }
+
+        Code u1(int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+            return this;
+        }
+
+        Code u2(int value) {
+            return u1(value >>> 8).u1(value);
+        }
+
+        Code u4(int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        void mark(Label label) {
+            label.pc = length;
+        }
+
+        /**
+         * Emits a jump instruction targeting the given label.
+         */
+        void jump(int opcode, Label label) {
+            final int instruction = length;
+            op(opcode);
+            offset(instruction, label, opcode == GOTO_W);
+        }
+
+        void tableSwitch(int low, Label defaultLabel, Label[] labels) {
+            final int instruction = length;
+            op(TABLESWITCH);
+            while (length % 4 != 0) {
+                u1(0);
+            }
+            offset(instruction, defaultLabel, true);
+            u4(low);
+            u4(low + labels.length - 1);
+            for (Label label : labels) {
+                offset(instruction, label, true);
+            }
+        }
+
+        private void offset(int instruction, Label label, boolean wide) {
+            fixups.add(new int[]{instruction, length, wide ? 1 : 0});
+            fixupLabels.add(label);
+            if (wide) {
+                u4(0);
+            } else {
+                u2(0);
+            }
+        }
+
+        byte[] toByteArray() {
+            for (int i = 0; i < fixups.size(); i++) {
+                final int[] fixup = fixups.get(i);
+                final Label label = fixupLabels.get(i);
+                if (label.pc < 0) {
+                    throw new IllegalStateException("Unbound label");
+                }
+                final int offset = label.pc - fixup[0];
+                if (fixup[2] == 1) {
+                    bytes[fixup[1]] = (byte) (offset >>> 24);
+                    bytes[fixup[1] + 1] = (byte) (offset >>> 16);
+                    bytes[fixup[1] + 2] = (byte) (offset >>> 8);
+                    bytes[fixup[1] + 3] = (byte) offset;
+                } else {
+                    if (offset != (short) offset) {
+                        throw new IllegalArgumentException("Branch offset too large: " + offset);
+                    }
+                    bytes[fixup[1]] = (byte) (offset >>> 8);
+                    bytes[fixup[1] + 1] = (byte) offset;
+                }
+            }
+            final byte[] result = new byte[length];
+            System.arraycopy(bytes, 0, result, 0, length);
+            return result;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                final byte[] grown = new byte[Math.max(2 * bytes.length, length + extra)];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+        }
+    }
+}
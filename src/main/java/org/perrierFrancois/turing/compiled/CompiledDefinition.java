@@ -0,0 +1,329 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.ActionSink;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+
+/**
+ * Immutable, integer indexed form of a {@link TuringMachineDefinition}.<br/>
+ * States and symbols are interned into dense ids (the empty symbol is always <code>0</code>), and the action table is
+ * flattened into a <code>long[]</code> indexed by <code>state * symbolCount + symbol</code>.<br/>
+ * Each entry packs the symbol to write, the move and the next state (see {@link #writeSymbol(long)},
+ * {@link #move(long)} and {@link #nextState(long)}), or is {@link #NO_ACTION}.<br/>
+ * Scan chains and skip loops are detected at compile time (see {@link ScanFusion}), so that the machines can run them
+ * as bulk head moves.<br/>
+ * Instances are immutable: a single compiled definition can be shared by any number of
+ * {@link CompiledTuringMachine}s, running on any thread.
+ */
+public final class CompiledDefinition {
+
+    public static final long NO_ACTION = -1L;
+
+    public static final int EMPTY_SYMBOL_ID = 0;
+
+    static final int DONT_MOVE = 0;
+    static final int LEFT = 1;
+    static final int RIGHT = 2;
+
+    private final String[] states;
+    private final String[] symbols;
+    private final Map<String, Integer> stateIds;
+    private final Map<String, Integer> symbolIds;
+
+    final int initialState;
+    final boolean[] finalStates;
+    final int symbolCount;
+    final long[] actions;
+    final ScanFusion fusion;
+
+    private CompiledDefinition(String[] states, String[] symbols, Map<String, Integer> stateIds, Map<String, Integer> symbolIds,
+                               int initialState, boolean[] finalStates, long[] actions) {
+        this.states = states;
+        this.symbols = symbols;
+        this.stateIds = stateIds;
+        this.symbolIds = symbolIds;
+        this.initialState = initialState;
+        this.finalStates = finalStates;
+        this.symbolCount = this.symbols.length;
+        this.actions = actions;
+        this.fusion = ScanFusion.analyze(this);
+    }
+
+    public static CompiledDefinition compile(TuringMachineDefinition definition) {
+        final Builder builder = builder().initialState(definition.getInitialState());
+        definition.getFinalStates().forEach(builder::finalState);
+        for (Action action : definition.getActions()) {
+            builder.action(action.getInState(), action.getWhenReading(), action.getWrite(), action.getMove(), action.getToState());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds a definition from its raw tables, eg. read by {@link DefinitionFiles}
+     */
+    static CompiledDefinition of(String[] states, String[] symbols, int initialState, boolean[] finalStates, long[] actions) {
+        return new CompiledDefinition(states, symbols, index(states), index(symbols), initialState, finalStates, actions);
+    }
+
+    /**
+     * @return a builder receiving the actions one by one, eg. from a generator
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    static long pack(int write, Move move, int next) {
+        return ((long) next << 32) | ((long) write << 2) | move.ordinal();
+    }
+
+    public static int nextState(long action) {
+        return (int) (action >>> 32);
+    }
+
+    public static int writeSymbol(long action) {
+        return (int) action >>> 2;
+    }
+
+    public static int move(long action) {
+        return (int) action & 3;
+    }
+
+    public static Move toMove(int move) {
+        return Move.values()[move];
+    }
+
+    /**
+     * @return the packed action for the given state and symbol, or {@link #NO_ACTION}
+     */
+    public long action(int state, int symbol) {
+        if (symbol >= symbolCount) {
+            return NO_ACTION;
+        }
+        return actions[state * symbolCount + symbol];
+    }
+
+    public int getStateCount() {
+        return states.length;
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * @return the number of states starting a scan chain or a skip loop, which are run as macro-instructions
+     */
+    public int getFusedStates() {
+        return fusion.getFusedStates();
+    }
+
+    public boolean isFinal(int state) {
+        return finalStates[state];
+    }
+
+    public String stateName(int state) {
+        return states[state];
+    }
+
+    public String symbolName(int symbol) {
+        return symbols[symbol];
+    }
+
+    /**
+     * @return the id of the given state, or <code>-1</code> if it does not appear in the definition
+     */
+    public int stateId(String state) {
+        return stateIds.getOrDefault(state, -1);
+    }
+
+    /**
+     * @return the id of the given symbol, or <code>-1</code> if it does not appear in the definition
+     */
+    public int symbolId(String symbol) {
+        return symbolIds.getOrDefault(symbol, -1);
+    }
+
+    /**
+     * @return a 64 bits hash of the names, initial and final states and action table: two definitions with the same
+     * fingerprint can be considered the same machine
+     */
+    public long fingerprint() {
+        long hash = mix(states.length, symbolCount);
+        for (String state : states) {
+            hash = mix(hash, state.hashCode());
+        }
+        for (String symbol : symbols) {
+            hash = mix(hash, symbol.hashCode());
+        }
+        hash = mix(hash, initialState);
+        for (int state = 0; state < finalStates.length; state++) {
+            if (finalStates[state]) {
+                hash = mix(hash, state);
+            }
+        }
+        for (long action : actions) {
+            hash = mix(hash, action);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long z = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static Map<String, Integer> index(String[] values) {
+        final Map<String, Integer> index = new HashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            index.put(values[i], i);
+        }
+        return index;
+    }
+
+    /**
+     * Compiles a definition from streamed actions: states and symbols are interned as they come, and each action is
+     * only kept as a packed entry until {@link #build()}.<br/>
+     * The initial and final states should be given first, so that ids are the same as with
+     * {@link #compile(TuringMachineDefinition)}.
+     */
+    public static final class Builder implements ActionSink {
+        private final Interner states = new Interner();
+        private final Interner symbols = new Interner();
+        private String initialState;
+        private final List<String> finalStates = new ArrayList<>();
+
+        /**
+         * <code>(state << 32) | symbol</code> of each action, and the packed action
+         */
+        private long[] keys = new long[64];
+        private long[] entries = new long[64];
+        private int size;
+
+        private Builder() {
+            symbols.intern(EMPTY_SYMBOL);
+        }
+
+        public Builder initialState(String initialState) {
+            states.intern(initialState);
+            this.initialState = initialState;
+            return this;
+        }
+
+        public Builder finalState(String finalState) {
+            states.intern(finalState);
+            finalStates.add(finalState);
+            return this;
+        }
+
+        /**
+         * Interns a state before the actions: states get consecutive ids in the order they are first given, eg. to
+         * keep the most visited ones together.
+         */
+        public Builder state(String state) {
+            states.intern(state);
+            return this;
+        }
+
+        @Override
+        public void action(String inState, String whenReading, String write, Move move, String toState) {
+            final int in = states.intern(inState);
+            final int next = states.intern(toState);
+            final int read = symbols.intern(whenReading);
+            final int written = symbols.intern(write);
+
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                entries = Arrays.copyOf(entries, 2 * size);
+            }
+            keys[size] = ((long) in << 32) | read;
+            entries[size] = pack(written, move, next);
+            size++;
+        }
+
+        public CompiledDefinition build() {
+            if (initialState == null) {
+                throw new IllegalStateException("No initial state");
+            }
+
+            final int symbolCount = symbols.size();
+            final long[] actions = new long[Math.multiplyExact(states.size(), symbolCount)];
+            Arrays.fill(actions, NO_ACTION);
+            for (int i = 0; i < size; i++) {
+                final int state = (int) (keys[i] >>> 32);
+                final int symbol = (int) keys[i];
+                final int index = state * symbolCount + symbol;
+                if (actions[index] != NO_ACTION) {
+                    throw new IllegalStateException(format("Duplicate action for state %s when reading '%s'",
+                            states.values.get(state), symbols.values.get(symbol)));
+                }
+                actions[index] = entries[i];
+            }
+
+            final boolean[] finals = new boolean[states.size()];
+            finalStates.forEach(s -> finals[states.id(s)] = true);
+
+            // the builder may still receive actions, the definition gets its own indexes
+            return new CompiledDefinition(states.values.toArray(new String[0]), symbols.values.toArray(new String[0]),
+                    new HashMap<>(states.ids), new HashMap<>(symbols.ids), states.id(initialState), finals, actions);
+        }
+    }
+
+    private static class Interner {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        /**
+         * the two last interned values: generators emit the same names over and over for consecutive actions
+         */
+        private String recent0;
+        private String recent1;
+        private int recentId0;
+        private int recentId1;
+
+        int intern(String value) {
+            if (value == recent0) {
+                return recentId0;
+            }
+            if (value == recent1) {
+                return recentId1;
+            }
+
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                values.add(value);
+                ids.put(value, id);
+            }
+
+            recent1 = recent0;
+            recentId1 = recentId0;
+            recent0 = value;
+            recentId0 = id;
+            return id;
+        }
+
+        int id(String value) {
+            return ids.get(value);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
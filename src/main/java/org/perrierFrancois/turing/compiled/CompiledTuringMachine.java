@@ -0,0 +1,579 @@
+package org.perrierFrancois.turing.compiled;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.CharSymbols;
+import org.perrierFrancois.turing.LoopDetector;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.TuringMachineEngine;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.metrics.ExecutionMetrics;
+import org.perrierFrancois.turing.tape.ArrayTape;
+import org.perrierFrancois.turing.tape.SymbolTape;
+import org.perrierFrancois.turing.tape.SymbolTapeFactory;
+import org.perrierFrancois.turing.trace.TraceRecorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.*;
+
+/**
+ * Drop-in replacement for {@link TuringMachine} running on a {@link CompiledDefinition}.<br/>
+ * Behaves exactly like {@link TuringMachine} (same transitions, machine states and tape contents), but a step is a
+ * single array lookup on an {@link ArrayTape} (or any {@link SymbolTapeFactory} provided tape): no hashing and no allocation besides amortized tape growth.<br/>
+ * {@link #run(long)} also executes the scan chains and skip loops of the definition (see {@link ScanFusion}) as bulk
+ * head moves, counting the steps they replace.
+ */
+public class CompiledTuringMachine implements TuringMachineEngine {
+
+    // config
+    @Getter
+    private final CompiledDefinition definition;
+
+    private final long[] actions;
+
+    private final int symbolCount;
+
+    private final boolean[] finalStates;
+
+    private final ScanFusion fusion;
+
+    private final SymbolTapeFactory tapeFactory;
+
+    private final IntFunction<String> symbolNames = this::symbolName;
+
+    // runtime
+    /**
+     * Transitions counter (purely informal)
+     */
+    @Getter
+    long transitions;
+
+    @Getter
+    MachineState machineState;
+
+    @Getter
+    SymbolTape tape;
+
+    int state;
+
+    /**
+     * Opt-in, see {@link #enableLoopDetection()}
+     */
+    @Getter
+    LoopDetector loopDetector;
+
+    /**
+     * Opt-in, see {@link #enableTracing(TraceRecorder)}
+     */
+    @Getter
+    TraceRecorder traceRecorder;
+
+    /**
+     * Opt-in, see {@link #enableMetrics(ExecutionMetrics)}
+     */
+    @Getter
+    ExecutionMetrics metrics;
+
+    /**
+     * transitions to run before the next metrics sample of an observed run, see {@link ExecutionMetrics#nextSample()}
+     */
+    private int sampleCountdown;
+
+    /**
+     * Symbols read from the initial ribbon which do not appear in the definition. They get ids starting at
+     * <code>symbolCount</code>, so that reading them leads to {@link MachineState#ILLEGAL_STATE} like in {@link TuringMachine}.
+     */
+    private final List<String> foreignSymbols = new ArrayList<>();
+
+    /**
+     * Tape of the previous run, reloaded by the next initialization when it supports it (see
+     * {@link SymbolTape#reload(int[], int)})
+     */
+    private SymbolTape recycledTape;
+
+    /**
+     * symbol ids of the ribbon being loaded
+     */
+    private int[] ribbonSymbols = new int[16];
+
+    public CompiledTuringMachine(TuringMachineDefinition definition) {
+        this(CompiledDefinition.compile(definition));
+    }
+
+    public CompiledTuringMachine(CompiledDefinition definition) {
+        this(definition, ArrayTape::new);
+    }
+
+    /**
+     * @param tapeFactory builds the tape on {@link #initialize(List)}, eg. <code>RunLengthTape::new</code> for
+     *                    definitions writing long uniform runs
+     */
+    public CompiledTuringMachine(CompiledDefinition definition, SymbolTapeFactory tapeFactory) {
+        this.definition = definition;
+        this.tapeFactory = tapeFactory;
+        this.actions = definition.actions;
+        this.symbolCount = definition.symbolCount;
+        this.finalStates = definition.finalStates;
+        this.fusion = definition.fusion;
+
+        reset();
+    }
+
+    /**
+     * Makes the following runs end in {@link MachineState#LOOPING} as soon as the machine is proven to never halt.<br/>
+     * Must be called before {@link #initialize(List)}. Runs then go step by step: no scan fusion nor generated code.
+     */
+    public void enableLoopDetection() {
+        assertState(MachineState.READY);
+        this.loopDetector = new LoopDetector();
+    }
+
+    /**
+     * Records the transitions of the following run with the given recorder, which is started by
+     * {@link #initialize(List)}; the caller closes it once the run is over.<br/>
+     * Must be called before {@link #initialize(List)}. Runs then go step by step: no scan fusion nor generated code.
+     */
+    public void enableTracing(TraceRecorder recorder) {
+        assertState(MachineState.READY);
+        this.traceRecorder = recorder;
+    }
+
+    /**
+     * Counts the transitions of the following runs into the given metrics, which must only be used by this machine
+     * while it runs (see {@link ExecutionMetrics#merge(ExecutionMetrics)} to aggregate several machines).<br/>
+     * Must be called before {@link #initialize(List)}. Scan fusion is kept, fused macro-instructions being counted in
+     * bulk, or sampled like the other transitions (see {@link ExecutionMetrics#getSampleInterval()}); subclasses running
+     * generated code or cached blocks fall back to this implementation.
+     */
+    public void enableMetrics(ExecutionMetrics metrics) {
+        assertState(MachineState.READY);
+        if (metrics.getDefinition() != definition) {
+            throw new IllegalArgumentException("Metrics of another definition");
+        }
+        this.metrics = metrics;
+        this.sampleCountdown = 0;
+    }
+
+    /**
+     * @return the loop the machine has been found in, if it is {@link MachineState#LOOPING}
+     */
+    public Optional<LoopDetector.Loop> getLoop() {
+        return Optional.ofNullable(loopDetector).map(LoopDetector::getLoop);
+    }
+
+    /**
+     * Makes the machine {@link MachineState#READY} again. The storage of the current tape may be reused by the next
+     * initialization: a tape obtained with {@link #getTape()} must not be used afterwards.
+     */
+    @Override
+    public void reset() {
+        this.transitions = 0;
+        this.state = definition.initialState;
+        if (tape != null) {
+            this.recycledTape = tape;
+        }
+        this.tape = null;
+        this.foreignSymbols.clear();
+        this.machineState = MachineState.READY;
+    }
+
+    @Override
+    public void initialize(List<String> ribbon) {
+        assertState(MachineState.READY);
+        final int[] symbols = ribbonSymbols(ribbon.size());
+        for (int i = 0; i < ribbon.size(); i++) {
+            symbols[i] = symbolId(ribbon.get(i));
+        }
+        start(symbols, ribbon.size());
+    }
+
+    /**
+     * Same as {@link #initialize(List)}, each character being a symbol (see {@link CharSymbols}). Once the machine has
+     * run, further resets and initializations with ASCII ribbons allocate nothing on {@link ArrayTape}s.
+     */
+    @Override
+    public void initialize(CharSequence ribbon) {
+        assertState(MachineState.READY);
+        final int[] symbols = ribbonSymbols(ribbon.length());
+        for (int i = 0; i < ribbon.length(); i++) {
+            symbols[i] = symbolId(CharSymbols.symbol(ribbon.charAt(i)));
+        }
+        start(symbols, ribbon.length());
+    }
+
+    /**
+     * Same as {@link #initialize(List)}, with the ids of the symbols in the {@link CompiledDefinition}.
+     */
+    public void initialize(int[] ribbon) {
+        assertState(MachineState.READY);
+        for (int symbol : ribbon) {
+            if (symbol < 0 || symbol >= symbolCount) {
+                throw new IllegalArgumentException(format("Unknown symbol id %d", symbol));
+            }
+        }
+        start(ribbon, ribbon.length);
+    }
+
+    private int[] ribbonSymbols(int length) {
+        if (ribbonSymbols.length < length) {
+            ribbonSymbols = new int[Math.max(length, 2 * ribbonSymbols.length)];
+        }
+        return ribbonSymbols;
+    }
+
+    private void start(int[] symbols, int length) {
+        final SymbolTape recycled = this.recycledTape;
+        this.recycledTape = null;
+        if (recycled != null && recycled.reload(symbols, length)) {
+            this.tape = recycled;
+        } else {
+            this.tape = tapeFactory.create(symbolNames, symbols.length == length ? symbols : Arrays.copyOf(symbols, length));
+        }
+        this.machineState = MachineState.RUNNING;
+
+        if (loopDetector != null) {
+            loopDetector.start(Arrays.copyOf(symbols, length), state);
+        }
+        if (traceRecorder != null) {
+            traceRecorder.begin(Arrays.copyOf(symbols, length), foreignSymbols);
+        }
+    }
+
+    @Override
+    public void nextStep() {
+        assertState(MachineState.RUNNING);
+        run(1);
+    }
+
+    @Override
+    public RunResult run(long maxSteps) {
+        assertStarted();
+        if (machineState != MachineState.RUNNING) {
+            return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, 0);
+        }
+        if (loopDetector != null || traceRecorder != null) {
+            return runObserved(maxSteps);
+        }
+
+        final ExecutionMetrics metrics = this.metrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
+        // only read for the metrics: the int views of very large tapes throw, see MappedTape
+        final int origin = metrics != null ? tape.getOrigin() : 0;
+        final int size = metrics != null ? tape.size() : 0;
+
+        final long steps = metrics == null || metrics.getSampleInterval() == 1
+                ? runFused(maxSteps, maxSteps, metrics)
+                : runSampled(maxSteps);
+        this.transitions += steps;
+
+        final RunResult result = RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, steps);
+        if (metrics != null) {
+            reportMetrics(result, start, origin, size);
+        }
+        return result;
+    }
+
+    /**
+     * Runs at full speed by stretches of about {@link ExecutionMetrics#nextSample()} transitions, only counting the
+     * first transition of each stretch, weighted by the length of the stretch.
+     */
+    private long runSampled(long maxSteps) {
+        long steps = 0;
+        while (steps < maxSteps && machineState == MachineState.RUNNING) {
+            final int symbol = tape.read();
+            final int transition = symbol < symbolCount && actions[state * symbolCount + symbol] != NO_ACTION
+                    ? state * symbolCount + symbol
+                    : -1;
+            final int displacement = tape.getPosition() - tape.getOrigin();
+
+            final long stretch = runFused(Math.min(metrics.nextSample(), maxSteps - steps), maxSteps - steps, null);
+            if (transition >= 0) {
+                metrics.sample(transition, displacement, stretch);
+            }
+            steps += stretch;
+        }
+        return steps;
+    }
+
+    /**
+     * @param limit    number of transitions after which the run stops at the end of the current macro-instruction,
+     *                 at most <code>maxSteps</code>
+     * @param maxSteps number of transitions never exceeded
+     * @param metrics  counting every transition, or <code>null</code>
+     * @return the number of transitions run
+     */
+    private long runFused(long limit, long maxSteps, ExecutionMetrics metrics) {
+        final SymbolTape tape = this.tape;
+        final long[] actions = this.actions;
+        final int symbolCount = this.symbolCount;
+        final boolean[] finalStates = this.finalStates;
+        final byte[] macros = fusion.kinds;
+        // macro-instructions assume every cell holds a symbol of the definition
+        final boolean fused = foreignSymbols.isEmpty();
+        // head position relative to the first cell of the initial ribbon, only tracked for the metrics
+        int displacement = metrics != null ? tape.getPosition() - tape.getOrigin() : 0;
+        int state = this.state;
+        long steps = 0;
+
+        while (steps < limit) {
+            final int symbol = tape.read();
+
+            if (fused && macros[state] != ScanFusion.NONE) {
+                if (macros[state] == ScanFusion.SCAN) {
+                    final int length = fusion.scanLengths[state];
+                    if (maxSteps - steps >= length) {
+                        if (metrics != null) {
+                            metrics.scan(state, length, displacement, fusion.right[state]);
+                            displacement += fusion.right[state] ? length : -length;
+                        }
+                        tape.move(fusion.right[state], length);
+                        state = fusion.scanTargets[state];
+                        steps += length;
+                        if (finalStates[state]) {
+                            this.machineState = MachineState.ACCEPTED;
+                            break;
+                        }
+                        continue;
+                    }
+                } else if (symbol < Long.SIZE && (fusion.skipMasks[state] & 1L << symbol) != 0) {
+                    final long moves = tape.skip(symbol, fusion.right[state], maxSteps - steps);
+                    if (metrics != null) {
+                        metrics.skip(state * symbolCount + symbol, displacement, moves, fusion.right[state]);
+                        displacement += (int) (fusion.right[state] ? moves : -moves);
+                    }
+                    steps += moves;
+                    continue;
+                }
+            }
+
+            final long action = symbol < symbolCount ? actions[state * symbolCount + symbol] : NO_ACTION;
+
+            if (action == NO_ACTION) {
+                this.machineState = MachineState.ILLEGAL_STATE;
+                break;
+            }
+
+            tape.write(writeSymbol(action));
+            final int move = move(action);
+            if (move == LEFT) {
+                tape.moveLeft();
+            } else if (move == RIGHT) {
+                tape.moveRight();
+            }
+            if (metrics != null) {
+                metrics.step(state * symbolCount + symbol, displacement);
+                displacement += move == LEFT ? -1 : move == RIGHT ? 1 : 0;
+            }
+
+            state = nextState(action);
+            steps++;
+
+            if (finalStates[state]) {
+                this.machineState = MachineState.ACCEPTED;
+                break;
+            }
+        }
+
+        this.state = state;
+        return steps;
+    }
+
+    /**
+     * @return whether every transition has to be reported, to the loop detector, the trace recorder or the metrics
+     */
+    boolean isObserved() {
+        return loopDetector != null || traceRecorder != null || metrics != null;
+    }
+
+    private void reportMetrics(RunResult result, long start, int origin, int size) {
+        final int leftGrowth = tape.getOrigin() - origin;
+        metrics.runCompleted(result, System.nanoTime() - start, leftGrowth, tape.size() - size - leftGrowth);
+    }
+
+    private RunResult runObserved(long maxSteps) {
+        final long start = metrics != null ? System.nanoTime() : 0;
+        final int origin = tape.getOrigin();
+        final int size = tape.size();
+        // head position relative to the first cell of the initial ribbon
+        int displacement = tape.getPosition() - origin;
+        long steps = 0;
+
+        while (steps < maxSteps) {
+            final int symbol = tape.read();
+            final long action = symbol < symbolCount ? actions[state * symbolCount + symbol] : NO_ACTION;
+
+            if (action == NO_ACTION) {
+                this.machineState = MachineState.ILLEGAL_STATE;
+                break;
+            }
+            if (traceRecorder != null) {
+                traceRecorder.step(transitions + steps, state, displacement, symbol, action);
+            }
+            if (metrics != null) {
+                if (sampleCountdown == 0) {
+                    sampleCountdown = metrics.nextSample();
+                    metrics.sample(state * symbolCount + symbol, displacement, sampleCountdown);
+                }
+                sampleCountdown--;
+            }
+
+            tape.write(writeSymbol(action));
+            final int move = move(action);
+            if (move == LEFT) {
+                tape.moveLeft();
+                displacement--;
+            } else if (move == RIGHT) {
+                tape.moveRight();
+                displacement++;
+            }
+
+            state = nextState(action);
+            steps++;
+
+            if (finalStates[state]) {
+                this.machineState = MachineState.ACCEPTED;
+                break;
+            }
+            if (loopDetector != null && loopDetector.step(writeSymbol(action), move == LEFT ? -1 : move == RIGHT ? 1 : 0, state)) {
+                this.machineState = MachineState.LOOPING;
+                break;
+            }
+        }
+
+        this.transitions += steps;
+
+        final RunResult result = RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, steps);
+        if (metrics != null) {
+            reportMetrics(result, start, origin, size);
+        }
+        return result;
+    }
+
+    @Override
+    public RunResult runUntil(Predicate<? super TuringMachineEngine> condition, long maxSteps) {
+        assertStarted();
+        final long start = transitions;
+
+        while (machineState == MachineState.RUNNING && transitions - start < maxSteps) {
+            if (condition.test(this)) {
+                return RunResult.of(machineState, StopReason.CONDITION_MET, transitions, transitions - start);
+            }
+            run(1);
+        }
+
+        return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, transitions - start);
+    }
+
+    @Override
+    public String getInternalState() {
+        return definition.stateName(state);
+    }
+
+    /**
+     * @return the id of the current internal state in the {@link CompiledDefinition}
+     */
+    public int getInternalStateId() {
+        return state;
+    }
+
+    public String symbolName(int symbol) {
+        return symbol < symbolCount ? definition.symbolName(symbol) : foreignSymbols.get(symbol - symbolCount);
+    }
+
+    /**
+     * @return whether the initial ribbon holds symbols which do not appear in the definition
+     */
+    boolean hasForeignSymbols() {
+        return !foreignSymbols.isEmpty();
+    }
+
+    /**
+     * @return the names of the symbols with ids starting at <code>symbolCount</code>, see {@link #hasForeignSymbols()}
+     */
+    List<String> getForeignSymbols() {
+        return foreignSymbols;
+    }
+
+    /**
+     * Puts the machine back in a previously captured configuration, see {@link Checkpoints}.<br/>
+     * The machine must be {@link MachineState#READY}; loop detection and tracing can not be resumed.
+     *
+     * @param cells    symbol ids of the whole tape, from its leftmost cell
+     * @param origin   position of the first cell of the initial ribbon in <code>cells</code>
+     * @param position head position in <code>cells</code>
+     */
+    void restore(int state, long transitions, MachineState machineState, List<String> foreignSymbols, int[] cells,
+                 int origin, int position) {
+        assertState(MachineState.READY);
+        if (loopDetector != null || traceRecorder != null) {
+            throw new IllegalStateException("Loop detection and tracing can not be resumed from a checkpoint");
+        }
+        this.foreignSymbols.addAll(foreignSymbols);
+
+        // build the tape from the initial ribbon part, then prepend the cells added on the left
+        final SymbolTape tape = tapeFactory.create(symbolNames, Arrays.copyOfRange(cells, origin, cells.length));
+        tape.move(false, origin);
+        for (int i = 0; i < origin; i++) {
+            tape.write(cells[i]);
+            tape.moveRight();
+        }
+        if (position < origin) {
+            tape.move(false, origin - position);
+        } else {
+            tape.move(true, position - origin);
+        }
+
+        this.tape = tape;
+        this.state = state;
+        this.transitions = transitions;
+        this.machineState = machineState;
+    }
+
+    private int symbolId(String symbol) {
+        final int id = definition.symbolId(symbol);
+        if (id >= 0) {
+            return id;
+        }
+
+        int foreign = foreignSymbols.indexOf(symbol);
+        if (foreign < 0) {
+            foreignSymbols.add(symbol);
+            foreign = foreignSymbols.size() - 1;
+        }
+        return symbolCount + foreign;
+    }
+
+    @Override
+    public String toString() {
+        String result = "Machine state:  " + machineState.name() + lineSeparator() +
+                "Internal state: " + getInternalState() + lineSeparator();
+
+        if (tape != null) {
+            result += lineSeparator() + tape.toString();
+        }
+
+        return result;
+    }
+
+    private void assertState(MachineState expectedMachineState) {
+        if (this.machineState != expectedMachineState) {
+            throw new IllegalStateException(format("Machine should be in state %s for this operation", expectedMachineState));
+        }
+    }
+
+    void assertStarted() {
+        if (this.machineState == MachineState.READY) {
+            throw new IllegalStateException("Machine should be initialized for this operation");
+        }
+    }
+}
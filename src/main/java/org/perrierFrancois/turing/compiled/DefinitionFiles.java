@@ -0,0 +1,209 @@
+package org.perrierFrancois.turing.compiled;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.EMPTY_SYMBOL_ID;
+
+/**
+ * Binary files holding a {@link CompiledDefinition}, so that large generated definitions are generated once and then
+ * loaded at startup.<br/>
+ * Format (little endian):
+ * <pre>
+ * int    magic ("TMCD")
+ * int    version
+ * int    state count, symbol count, initial state id, final state count
+ * int[]  final state ids
+ * string state names, then symbol names (int byte length + UTF-8 bytes each)
+ * pad    to a multiple of 8 bytes
+ * long[] action table (state count * symbol count entries, packed as in {@link CompiledDefinition})
+ * </pre>
+ * Files are read through a memory mapping, the action table being copied in bulk: loading allocates no per action
+ * object, and is mostly bound by the page cache.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DefinitionFiles {
+
+    static final int MAGIC = 0x44434D54;
+
+    static final int VERSION = 1;
+
+    public static void write(CompiledDefinition definition, Path path) throws IOException {
+        final int stateCount = definition.getStateCount();
+        final int symbolCount = definition.getSymbolCount();
+
+        final byte[][] states = new byte[stateCount][];
+        final byte[][] symbols = new byte[symbolCount][];
+        int finalCount = 0;
+        long size = 6 * Integer.BYTES;
+        for (int state = 0; state < stateCount; state++) {
+            states[state] = definition.stateName(state).getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + states[state].length;
+            if (definition.isFinal(state)) {
+                finalCount++;
+            }
+        }
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            symbols[symbol] = definition.symbolName(symbol).getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + symbols[symbol].length;
+        }
+        size += (long) finalCount * Integer.BYTES;
+        final long tableOffset = align(size);
+        size = tableOffset + (long) definition.actions.length * Long.BYTES;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(stateCount);
+            buffer.putInt(symbolCount);
+            buffer.putInt(definition.getInitialState());
+            buffer.putInt(finalCount);
+            for (int state = 0; state < stateCount; state++) {
+                if (definition.isFinal(state)) {
+                    buffer.putInt(state);
+                }
+            }
+            for (byte[] name : states) {
+                buffer.putInt(name.length).put(name);
+            }
+            for (byte[] name : symbols) {
+                buffer.putInt(name.length).put(name);
+            }
+
+            buffer.position((int) tableOffset);
+            buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(definition.actions);
+            buffer.force();
+        }
+    }
+
+    /**
+     * @throws IOException if the file can not be read, or is not a valid definition file of a supported version
+     */
+    public static CompiledDefinition read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return read(buffer);
+        } catch (RuntimeException e) {
+            // truncated file, negative sizes...
+            throw new IOException(format("Invalid definition file %s", path), e);
+        }
+    }
+
+    private static CompiledDefinition read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a definition file");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(format("Unsupported definition file version %d", version));
+        }
+
+        final int stateCount = buffer.getInt();
+        final int symbolCount = buffer.getInt();
+        final int initialState = buffer.getInt();
+        final int finalCount = buffer.getInt();
+
+        // every count is checked against the bytes left before allocating: a corrupted header must not exhaust the heap
+        checkCount(stateCount, "state");
+        checkCount(symbolCount, "symbol");
+        checkCount(finalCount, "final state");
+        // the final state ids, then a length per name at least
+        checkRemaining(buffer, ((long) finalCount + stateCount + symbolCount) * Integer.BYTES);
+        final boolean[] finalStates = new boolean[stateCount];
+        for (int i = 0; i < finalCount; i++) {
+            finalStates[checkId(buffer.getInt(), stateCount)] = true;
+        }
+        final String[] states = readStrings(buffer, stateCount);
+        final String[] symbols = readStrings(buffer, symbolCount);
+        checkId(initialState, stateCount);
+        if (symbolCount == 0 || !EMPTY_SYMBOL.equals(symbols[EMPTY_SYMBOL_ID])) {
+            throw new IOException(format("The symbol %d should be the empty symbol", EMPTY_SYMBOL_ID));
+        }
+        checkDistinct(states, "state");
+        checkDistinct(symbols, "symbol");
+
+        final long tableOffset = align(buffer.position());
+        if (tableOffset > buffer.limit()) {
+            throw new IOException("Truncated definition file");
+        }
+        buffer.position((int) tableOffset);
+        checkRemaining(buffer, (long) stateCount * symbolCount * Long.BYTES);
+        final long[] actions = new long[stateCount * symbolCount];
+        buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(actions);
+
+        for (long action : actions) {
+            if (action != CompiledDefinition.NO_ACTION) {
+                checkId(CompiledDefinition.nextState(action), stateCount);
+                checkId(CompiledDefinition.writeSymbol(action), symbolCount);
+                checkId(CompiledDefinition.move(action), CompiledDefinition.RIGHT + 1);
+            }
+        }
+
+        return CompiledDefinition.of(states, symbols, initialState, finalStates, actions);
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, int count) throws IOException {
+        // a length per string at least
+        checkRemaining(buffer, (long) count * Integer.BYTES);
+        final String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            final int length = buffer.getInt();
+            checkCount(length, "string byte");
+            checkRemaining(buffer, length);
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static void checkCount(int count, String what) throws IOException {
+        if (count < 0) {
+            throw new IOException(format("Invalid %s count %d", what, count));
+        }
+    }
+
+    private static void checkRemaining(ByteBuffer buffer, long bytes) throws IOException {
+        if (bytes > buffer.remaining()) {
+            throw new IOException(format("Truncated definition file: %d bytes expected, %d left", bytes, buffer.remaining()));
+        }
+    }
+
+    private static void checkDistinct(String[] names, String what) throws IOException {
+        final Set<String> distinct = new HashSet<>();
+        for (String name : names) {
+            if (!distinct.add(name)) {
+                throw new IOException(format("Duplicate %s name '%s'", what, name));
+            }
+        }
+    }
+
+    private static int checkId(int id, int count) throws IOException {
+        if (id < 0 || id >= count) {
+            throw new IOException(format("Invalid id %d, should be less than %d", id, count));
+        }
+        return id;
+    }
+
+    private static long align(long offset) {
+        return (offset + Long.BYTES - 1) & -Long.BYTES;
+    }
+}
@@ -0,0 +1,41 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.tape.SymbolTape;
+
+/**
+ * Definition compiled to JVM bytecode by {@link ProgramGenerator}. Implementations are stateless, so a single instance
+ * can be shared by any number of machines.
+ */
+public interface GeneratedProgram {
+
+    /**
+     * Index of the internal state in the registers
+     */
+    int STATE = 0;
+
+    /**
+     * Index of the outcome ({@link #RUNNING}, {@link #ACCEPTED} or {@link #ILLEGAL}) in the registers
+     */
+    int OUTCOME = 1;
+
+    /**
+     * Index of the remaining budget in the registers, used internally by the generated code
+     */
+    int REMAINING = 2;
+
+    int REGISTER_COUNT = 3;
+
+    int RUNNING = 0;
+    int ACCEPTED = 1;
+    int ILLEGAL = 2;
+
+    /**
+     * Runs the machine from the internal state stored in <code>registers[STATE]</code>, for at most
+     * <code>maxSteps</code> transitions. On return, <code>registers</code> hold the internal state and the outcome.
+     *
+     * @param registers array of {@link #REGISTER_COUNT} elements
+     *
+     * @return the number of transitions performed
+     */
+    int execute(SymbolTape tape, int[] registers, int maxSteps);
+}
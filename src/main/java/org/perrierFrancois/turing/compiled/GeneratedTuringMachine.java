@@ -0,0 +1,86 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+/**
+ * {@link CompiledTuringMachine} running the bytecode generated for its definition by {@link ProgramGenerator} instead
+ * of interpreting the action table.<br/>
+ * Generation costs much more than compilation, and large definitions need a long JIT warm-up (every group of states
+ * is a method of its own), so this backend only pays off on definitions which are run for a long time: see
+ * {@link #forDefinition(CompiledDefinition, long)}.
+ */
+public class GeneratedTuringMachine extends CompiledTuringMachine {
+
+    /**
+     * Minimum number of expected transitions for {@link #forDefinition(CompiledDefinition, long)} to pick the generated
+     * backend
+     */
+    public static final long GENERATION_THRESHOLD = 100_000_000L;
+
+    private final GeneratedProgram program;
+
+    private final int[] registers = new int[GeneratedProgram.REGISTER_COUNT];
+
+    public GeneratedTuringMachine(TuringMachineDefinition definition) {
+        this(CompiledDefinition.compile(definition));
+    }
+
+    public GeneratedTuringMachine(CompiledDefinition definition) {
+        this(definition, ProgramGenerator.generate(definition));
+    }
+
+    /**
+     * @param program program generated for the given definition, shared between machines
+     */
+    public GeneratedTuringMachine(CompiledDefinition definition, GeneratedProgram program) {
+        super(definition);
+        this.program = program;
+    }
+
+    /**
+     * Picks the backend of a definition: the generated one if the definition is expected to run for at least
+     * {@link #GENERATION_THRESHOLD} transitions (across all its runs) and fits in a generated class, the table driven
+     * one otherwise.
+     */
+    public static CompiledTuringMachine forDefinition(CompiledDefinition definition, long expectedTransitions) {
+        if (expectedTransitions < GENERATION_THRESHOLD) {
+            return new CompiledTuringMachine(definition);
+        }
+        return ProgramGenerator.tryGenerate(definition)
+                .<CompiledTuringMachine>map(program -> new GeneratedTuringMachine(definition, program))
+                .orElseGet(() -> new CompiledTuringMachine(definition));
+    }
+
+    public GeneratedProgram getProgram() {
+        return program;
+    }
+
+    @Override
+    public RunResult run(long maxSteps) {
+        assertStarted();
+        if (isObserved()) {
+            // observers need every transition
+            return super.run(maxSteps);
+        }
+        final long start = transitions;
+
+        registers[GeneratedProgram.STATE] = state;
+        registers[GeneratedProgram.OUTCOME] = GeneratedProgram.RUNNING;
+        while (machineState == MachineState.RUNNING && transitions - start < maxSteps) {
+            final int budget = (int) Math.min(maxSteps - (transitions - start), Integer.MAX_VALUE);
+            transitions += program.execute(tape, registers, budget);
+            state = registers[GeneratedProgram.STATE];
+
+            if (registers[GeneratedProgram.OUTCOME] == GeneratedProgram.ACCEPTED) {
+                machineState = MachineState.ACCEPTED;
+            } else if (registers[GeneratedProgram.OUTCOME] == GeneratedProgram.ILLEGAL) {
+                machineState = MachineState.ILLEGAL_STATE;
+            }
+        }
+
+        return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, transitions - start);
+    }
+}
@@ -0,0 +1,353 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.*;
+
+/**
+ * Runs many ribbons against a single {@link CompiledDefinition} in lock-step, eg. all the inputs of an adder.<br/>
+ * Ribbons are loaded by chunks of {@link #getLanes()} machines, held in structure-of-arrays form: the internal state,
+ * the head and the tape window of each lane, the windows of all the lanes sharing a single <code>int[]</code>. Each
+ * pass then moves every running lane by one transition, or one macro-instruction (see {@link ScanFusion}). The lanes
+ * being independent, the table lookups of a pass do not wait on each other and the processor overlaps them, where a
+ * single machine waits on its previous step at every step. Finished lanes are swapped out of the list of running ones,
+ * so passes only visit the lanes still running.<br/>
+ * Lanes are advanced one at a time: the library targets Java 11, which has no vector API to gather the transitions of
+ * several lanes at once. The structure-of-arrays layout is the one such gathers need, so that a vectorized pass can
+ * replace the scalar one without changing how lanes are loaded and finished.<br/>
+ * The window of a lane holds <code>margin</code> cells on each side of the longest ribbon of the chunk. A lane whose
+ * head leaves its window, or whose ribbon holds symbols which do not appear in the definition, is handed over to a
+ * {@link CompiledTuringMachine}: results are the ones of a {@link CompiledTuringMachine} run whatever the ribbons.<br/>
+ * A runner is not thread safe: see {@link BatchRunner} to spread the runs over several threads.
+ */
+public class LockStepRunner {
+
+    public static final int DEFAULT_LANES = 1024;
+
+    public static final int DEFAULT_MARGIN = 16;
+
+    private static final int MAX_NAMED_SYMBOLS = 8;
+
+    private final CompiledDefinition definition;
+
+    private final int lanes;
+
+    private final int margin;
+
+    private final long maxSteps;
+
+    /**
+     * finishes the lanes which can not run in lock-step, and exposes the configuration of the others to the result
+     * functions
+     */
+    private final CompiledTuringMachine machine;
+
+    // lanes of the current chunk
+    private int width;
+
+    /**
+     * tape window of each lane, <code>width</code> cells from <code>lane * width</code>
+     */
+    private int[] cells = new int[0];
+
+    private final int[] states;
+
+    /**
+     * head position of each lane in its window
+     */
+    private final int[] heads;
+
+    /**
+     * leftmost and rightmost cells of each window visited by the head or holding the ribbon
+     */
+    private final int[] lowest;
+    private final int[] highest;
+
+    private final long[] transitions;
+
+    private final MachineState[] machineStates;
+
+    /**
+     * lanes whose ribbon holds symbols which do not appear in the definition, or whose head left the window
+     */
+    private final boolean[] foreign;
+    private final boolean[] spilled;
+
+    /**
+     * indexes of the running lanes
+     */
+    private final int[] active;
+
+    /**
+     * last instance of the name of each symbol met in the ribbons, ribbons usually sharing the instances of their
+     * symbols: small alphabets are then resolved by comparing references rather than through a hash lookup
+     */
+    private final String[] symbolNames;
+
+    /**
+     * Builds a runner with {@link #DEFAULT_LANES} lanes, and no step budget.
+     */
+    public LockStepRunner(CompiledDefinition definition) {
+        this(definition, DEFAULT_LANES, DEFAULT_MARGIN, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param lanes    number of machines run together
+     * @param margin   empty cells on each side of the ribbons in the tape windows
+     * @param maxSteps step budget of each run (see {@link CompiledTuringMachine#run(long)})
+     */
+    public LockStepRunner(CompiledDefinition definition, int lanes, int margin, long maxSteps) {
+        if (lanes < 1 || margin < 0) {
+            throw new IllegalArgumentException(format("Invalid lanes (%d) or margin (%d)", lanes, margin));
+        }
+        this.definition = definition;
+        this.lanes = lanes;
+        this.margin = margin;
+        this.maxSteps = maxSteps;
+        this.machine = new CompiledTuringMachine(definition);
+        this.states = new int[lanes];
+        this.heads = new int[lanes];
+        this.lowest = new int[lanes];
+        this.highest = new int[lanes];
+        this.transitions = new long[lanes];
+        this.machineStates = new MachineState[lanes];
+        this.foreign = new boolean[lanes];
+        this.spilled = new boolean[lanes];
+        this.active = new int[lanes];
+        this.symbolNames = new String[definition.symbolCount <= MAX_NAMED_SYMBOLS ? definition.symbolCount : 0];
+    }
+
+    public CompiledDefinition getDefinition() {
+        return definition;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * @return the results of each run, in input order
+     */
+    public List<RunResult> runAll(Stream<? extends List<String>> ribbons) {
+        return run(ribbons, lane -> RunResult.of(machineStates[lane], StopReason.BUDGET_EXHAUSTED,
+                transitions[lane], transitions[lane]));
+    }
+
+    /**
+     * Runs each ribbon, then maps the machine to a result.
+     *
+     * @param result called with a machine in the final configuration of each run; the machine (and its tape) must not
+     *               be retained, as it is reused for the next ribbon
+     * @return the results of each run, in input order
+     */
+    public <R> List<R> runAll(Stream<? extends List<String>> ribbons, Function<? super CompiledTuringMachine, ? extends R> result) {
+        return run(ribbons, lane -> result.apply(machineOf(lane)));
+    }
+
+    private <R> List<R> run(Stream<? extends List<String>> ribbons, IntFunction<? extends R> result) {
+        final List<R> results = new ArrayList<>();
+        final List<List<String>> chunk = new ArrayList<>(lanes);
+
+        final Iterator<? extends List<String>> iterator = ribbons.iterator();
+        while (iterator.hasNext()) {
+            chunk.clear();
+            while (chunk.size() < lanes && iterator.hasNext()) {
+                chunk.add(iterator.next());
+            }
+
+            load(chunk);
+            lockStep(chunk.size());
+            for (int lane = 0; lane < chunk.size(); lane++) {
+                if (foreign[lane] || spilled[lane]) {
+                    finish(lane, chunk.get(lane));
+                }
+                results.add(result.apply(lane));
+            }
+        }
+
+        return results;
+    }
+
+    private void load(List<List<String>> chunk) {
+        int longest = 1;
+        for (List<String> ribbon : chunk) {
+            longest = Math.max(longest, ribbon.size());
+        }
+        this.width = longest + 2 * margin;
+        if (cells.length < chunk.size() * width) {
+            cells = new int[lanes * width];
+        } else {
+            Arrays.fill(cells, 0, chunk.size() * width, EMPTY_SYMBOL_ID);
+        }
+
+        for (int lane = 0; lane < chunk.size(); lane++) {
+            final List<String> ribbon = chunk.get(lane);
+            boolean foreignSymbols = false;
+            for (int i = 0; i < ribbon.size(); i++) {
+                final int symbol = symbolId(ribbon.get(i));
+                foreignSymbols |= symbol < 0;
+                cells[lane * width + margin + i] = Math.max(symbol, EMPTY_SYMBOL_ID);
+            }
+            states[lane] = definition.getInitialState();
+            heads[lane] = margin;
+            lowest[lane] = margin;
+            highest[lane] = margin + Math.max(1, ribbon.size()) - 1;
+            transitions[lane] = 0;
+            machineStates[lane] = MachineState.RUNNING;
+            foreign[lane] = foreignSymbols;
+            spilled[lane] = false;
+        }
+    }
+
+    private int symbolId(String name) {
+        final String[] symbolNames = this.symbolNames;
+        for (int symbol = 0; symbol < symbolNames.length; symbol++) {
+            if (symbolNames[symbol] == name) {
+                return symbol;
+            }
+        }
+        final int symbol = definition.symbolId(name);
+        if (symbol >= 0 && symbol < symbolNames.length) {
+            symbolNames[symbol] = name;
+        }
+        return symbol;
+    }
+
+    private void lockStep(int count) {
+        final long[] actions = definition.actions;
+        final int symbolCount = definition.symbolCount;
+        final boolean[] finalStates = definition.finalStates;
+        final ScanFusion fusion = definition.fusion;
+        final int[] cells = this.cells;
+        final int[] states = this.states;
+        final int[] heads = this.heads;
+        final long[] transitions = this.transitions;
+        final int[] active = this.active;
+        final int width = this.width;
+        final long maxSteps = this.maxSteps;
+
+        int running = 0;
+        for (int lane = 0; lane < count; lane++) {
+            if (!foreign[lane]) {
+                active[running++] = lane;
+            }
+        }
+
+        while (running > 0) {
+            int i = 0;
+            while (i < running) {
+                final int lane = active[i];
+                final int state = states[lane];
+                final int head = heads[lane];
+                final long steps = transitions[lane];
+                final int base = lane * width;
+                final int symbol = cells[base + head];
+
+                if (steps >= maxSteps) {
+                    active[i] = active[--running];
+                    continue;
+                }
+
+                // one transition, or one macro-instruction as CompiledTuringMachine#run(long) executes them
+                final int moved;
+                final int next;
+                final byte macro = fusion.kinds[state];
+                if (macro == ScanFusion.SCAN && maxSteps - steps >= fusion.scanLengths[state]) {
+                    final int length = fusion.scanLengths[state];
+                    moved = fusion.right[state] ? head + length : head - length;
+                    next = fusion.scanTargets[state];
+                    transitions[lane] = steps + length;
+                } else if (macro == ScanFusion.SKIP && symbol < Long.SIZE && (fusion.skipMasks[state] & 1L << symbol) != 0) {
+                    // up to the end of the run, or of the window
+                    final int limit = (int) Math.min(fusion.right[state] ? width - head : head + 1, maxSteps - steps);
+                    final int direction = fusion.right[state] ? 1 : -1;
+                    int moves = 1;
+                    while (moves < limit && cells[base + head + moves * direction] == symbol) {
+                        moves++;
+                    }
+                    moved = head + moves * direction;
+                    next = state;
+                    transitions[lane] = steps + moves;
+                } else {
+                    final long action = actions[state * symbolCount + symbol];
+                    if (action == NO_ACTION) {
+                        machineStates[lane] = MachineState.ILLEGAL_STATE;
+                        active[i] = active[--running];
+                        continue;
+                    }
+                    cells[base + head] = writeSymbol(action);
+                    final int move = move(action);
+                    moved = move == LEFT ? head - 1 : move == RIGHT ? head + 1 : head;
+                    next = nextState(action);
+                    transitions[lane] = steps + 1;
+                }
+
+                heads[lane] = moved;
+                states[lane] = next;
+                if (moved < lowest[lane]) {
+                    lowest[lane] = moved;
+                } else if (moved > highest[lane]) {
+                    highest[lane] = moved;
+                }
+
+                if (finalStates[next]) {
+                    machineStates[lane] = MachineState.ACCEPTED;
+                    active[i] = active[--running];
+                } else if (moved < 0 || moved >= width) {
+                    spilled[lane] = true;
+                    active[i] = active[--running];
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the lane on the {@link #machine}, from its initial ribbon or from where its head left the window.
+     */
+    private void finish(int lane, List<String> ribbon) {
+        machine.reset();
+        if (foreign[lane]) {
+            machine.initialize(ribbon);
+        } else {
+            restore(lane);
+        }
+        machine.run(maxSteps - transitions[lane]);
+        machineStates[lane] = machine.getMachineState();
+        transitions[lane] = machine.getTransitions();
+    }
+
+    /**
+     * @return the {@link #machine} in the final configuration of the lane
+     */
+    private CompiledTuringMachine machineOf(int lane) {
+        if (!foreign[lane] && !spilled[lane]) {
+            machine.reset();
+            restore(lane);
+        }
+        return machine;
+    }
+
+    private void restore(int lane) {
+        // the visited cells, the head may be one cell past the window
+        final int[] visited = new int[highest[lane] - lowest[lane] + 1];
+        for (int i = 0; i < visited.length; i++) {
+            final int position = lowest[lane] + i;
+            visited[i] = position >= 0 && position < width ? cells[lane * width + position] : EMPTY_SYMBOL_ID;
+        }
+        machine.restore(states[lane], transitions[lane], machineStates[lane], List.of(), visited,
+                margin - lowest[lane], heads[lane] - lowest[lane]);
+    }
+}
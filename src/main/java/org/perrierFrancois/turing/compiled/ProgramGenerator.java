@@ -0,0 +1,387 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.compiled.ClassFileWriter.Code;
+import org.perrierFrancois.turing.compiled.ClassFileWriter.Label;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.perrierFrancois.turing.compiled.ClassFileWriter.*;
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.*;
+
+/**
+ * Generates a {@link GeneratedProgram} class specialized for a {@link CompiledDefinition}.<br/>
+ * Each internal state becomes a block of code which reads the current symbol, dispatches on it with a
+ * <code>tableswitch</code> and jumps directly to the block of the next state, so that the JIT sees the state machine
+ * as plain control flow. Actions which do not change the symbol under the head skip the write, and a state whose
+ * actions are the same whatever the symbol read skips the dispatch.<br/>
+ * The JIT does not compile methods larger than 8000 bytes (<code>-XX:HugeMethodLimit</code>), so states are split
+ * into groups of consecutive ids, each generated as its own method; a transition to a state of another group returns
+ * to a dispatch loop in {@link GeneratedProgram#execute}.
+ */
+public final class ProgramGenerator {
+
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    private static final String INTERFACE = "org/perrierFrancois/turing/compiled/GeneratedProgram";
+    private static final String TAPE = "org/perrierFrancois/turing/tape/SymbolTape";
+    private static final String EXECUTE_DESCRIPTOR = "(L" + TAPE + ";[II)I";
+    private static final String GROUP_DESCRIPTOR = "(L" + TAPE + ";[I)I";
+
+    /**
+     * Outcome of a group method when the next state belongs to another group
+     */
+    private static final int CONTINUE = 3;
+
+    /**
+     * Symbol to write of an action which does not change the symbol read
+     */
+    private static final int UNCHANGED = 0x3FFF_FFFF;
+
+    // locals of the generated methods
+    private static final int TAPE_LOCAL = 1;
+    private static final int REGISTERS_LOCAL = 2;
+    private static final int REMAINING_LOCAL = 3;
+    private static final int STATE_LOCAL = 4;
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final CompiledDefinition definition;
+    private final ClassFileWriter writer;
+
+    private final int read;
+    private final int write;
+    private final int moveLeft;
+    private final int moveRight;
+
+    private Code code;
+
+    private ProgramGenerator(CompiledDefinition definition, String className) {
+        this.definition = definition;
+        this.writer = new ClassFileWriter(className, INTERFACE);
+        this.read = writer.methodConstant(TAPE, "read", "()I", true);
+        this.write = writer.methodConstant(TAPE, "write", "(I)V", true);
+        this.moveLeft = writer.methodConstant(TAPE, "moveLeft", "()V", true);
+        this.moveRight = writer.methodConstant(TAPE, "moveRight", "()V", true);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the definition is too large to be generated
+     */
+    public static GeneratedProgram generate(CompiledDefinition definition) {
+        final String className = GeneratedProgram.class.getName() + "$" + COUNTER.incrementAndGet();
+        final byte[] bytes = new ProgramGenerator(definition, className.replace('.', '/')).generateClass();
+
+        try {
+            return (GeneratedProgram) new ProgramClassLoader()
+                    .define(className, bytes)
+                    .getConstructor()
+                    .newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot instantiate generated program", e);
+        }
+    }
+
+    /**
+     * @return the generated program, or nothing if the definition is too large to be generated
+     */
+    public static Optional<GeneratedProgram> tryGenerate(CompiledDefinition definition) {
+        try {
+            return Optional.of(generate(definition));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] generateClass() {
+        final int stateCount = definition.getStateCount();
+
+        // find the largest group size for which every group method can be JIT compiled
+        int groupSize = stateCount;
+        List<Code> groups;
+        while ((groups = generateGroups(groupSize)) == null) {
+            if (groupSize == 1) {
+                throw new IllegalArgumentException("Definition too large for bytecode generation");
+            }
+            groupSize = (groupSize + 1) / 2;
+        }
+
+        for (int group = 0; group < groups.size(); group++) {
+            writer.addMethod("run" + group, GROUP_DESCRIPTOR, groups.get(group), 3, 5);
+        }
+        writer.addMethod("execute", EXECUTE_DESCRIPTOR, generateDispatcher(groupSize, groups.size()), 3, 4);
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * @return the code of each group method, or <code>null</code> if one of them is too large
+     */
+    private List<Code> generateGroups(int groupSize) {
+        final List<Code> groups = new ArrayList<>();
+        for (int first = 0; first < definition.getStateCount(); first += groupSize) {
+            code = new Code();
+            generateGroup(first, Math.min(first + groupSize, definition.getStateCount()));
+            if (code.pc() > HUGE_METHOD_LIMIT) {
+                return null;
+            }
+            groups.add(code);
+        }
+        return groups;
+    }
+
+    /**
+     * <pre>
+     * registers[REMAINING] = maxSteps;
+     * do {
+     *     outcome = run&lt;registers[STATE] / groupSize&gt;(tape, registers);
+     * } while (outcome == CONTINUE);
+     * return maxSteps - registers[REMAINING];
+     * </pre>
+     */
+    private Code generateDispatcher(int groupSize, int groupCount) {
+        code = new Code();
+        final Label loop = new Label();
+        final Label end = new Label();
+        final Label[] calls = new Label[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            calls[i] = new Label();
+        }
+
+        code.op(ALOAD).u1(REGISTERS_LOCAL);
+        push(GeneratedProgram.REMAINING);
+        load(REMAINING_LOCAL);
+        code.op(IASTORE);
+
+        code.mark(loop);
+        loadRegister(GeneratedProgram.STATE);
+        push(groupSize);
+        code.op(IDIV);
+        code.tableSwitch(0, calls[0], calls);
+
+        for (int group = 0; group < groupCount; group++) {
+            code.mark(calls[group]);
+            code.op(ALOAD).u1(0);
+            code.op(ALOAD).u1(TAPE_LOCAL);
+            code.op(ALOAD).u1(REGISTERS_LOCAL);
+            code.op(INVOKEVIRTUAL).u2(writer.methodConstant(writer.getName(), "run" + group, GROUP_DESCRIPTOR, false));
+            push(CONTINUE);
+            code.jump(IF_ICMPEQ, loop);
+            code.jump(GOTO_W, end);
+        }
+
+        code.mark(end);
+        load(REMAINING_LOCAL);
+        loadRegister(GeneratedProgram.REMAINING);
+        code.op(ISUB);
+        code.op(IRETURN);
+        return code;
+    }
+
+    /**
+     * Generates the method running the states of ids <code>[first, end)</code>.
+     */
+    private void generateGroup(int first, int end) {
+        final Label[] states = new Label[end - first];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new Label();
+        }
+        final Exits exits = new Exits();
+        final Label unknownState = new Label();
+
+        // entry: load the budget and dispatch on the current state
+        loadRegister(GeneratedProgram.REMAINING);
+        store(REMAINING_LOCAL);
+        loadRegister(GeneratedProgram.STATE);
+        push(first);
+        code.op(ISUB);
+        code.tableSwitch(0, unknownState, states);
+
+        for (int state = first; state < end; state++) {
+            generateState(state, first, states, exits);
+        }
+
+        code.mark(unknownState);
+        loadRegister(GeneratedProgram.STATE);
+        code.jump(GOTO_W, exits.illegal);
+
+        generateExit(exits.budgetExhausted, GeneratedProgram.RUNNING);
+        generateExit(exits.illegal, GeneratedProgram.ILLEGAL);
+        generateExit(exits.accepted, GeneratedProgram.ACCEPTED);
+        generateExit(exits.otherGroup, CONTINUE);
+    }
+
+    private void generateState(int state, int first, Label[] states, Exits exits) {
+        final int symbolCount = definition.getSymbolCount();
+
+        code.mark(states[state - first]);
+
+        // stop if the budget is exhausted
+        final Label run = new Label();
+        load(REMAINING_LOCAL);
+        code.jump(IFGT, run);
+        push(state);
+        code.jump(GOTO_W, exits.budgetExhausted);
+        code.mark(run);
+
+        // group the symbols by body
+        final List<Long> bodies = new ArrayList<>();
+        final Label[] dispatch = new Label[symbolCount];
+        final List<Label> bodyLabels = new ArrayList<>();
+        final Label undefined = new Label();
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            final long body = body(definition.action(state, symbol), symbol);
+            if (body == NO_ACTION) {
+                dispatch[symbol] = undefined;
+                continue;
+            }
+            int index = bodies.indexOf(body);
+            if (index < 0) {
+                bodies.add(body);
+                bodyLabels.add(new Label());
+                index = bodies.size() - 1;
+            }
+            dispatch[symbol] = bodyLabels.get(index);
+        }
+
+        code.op(ALOAD).u1(TAPE_LOCAL);
+        code.op(INVOKEINTERFACE).u2(read).u1(1).u1(0);
+        if (bodies.size() == 1 && dispatch[0] != undefined && allSame(dispatch)) {
+            // same action whatever the symbol, as long as it belongs to the definition
+            push(symbolCount);
+            code.jump(IF_ICMPGE, undefined);
+        } else {
+            code.tableSwitch(0, undefined, dispatch);
+        }
+
+        for (int i = 0; i < bodies.size(); i++) {
+            code.mark(bodyLabels.get(i));
+            generateBody(bodies.get(i), first, states, exits);
+        }
+
+        code.mark(undefined);
+        push(state);
+        code.jump(GOTO_W, exits.illegal);
+    }
+
+    /**
+     * @return the action, with its symbol to write replaced by {@link #UNCHANGED} if it is the symbol read
+     */
+    private static long body(long action, int symbol) {
+        if (action == NO_ACTION || writeSymbol(action) != symbol) {
+            return action;
+        }
+        return action | ((long) UNCHANGED << 2);
+    }
+
+    private void generateBody(long body, int first, Label[] states, Exits exits) {
+        final int symbol = writeSymbol(body);
+        if (symbol != UNCHANGED) {
+            code.op(ALOAD).u1(TAPE_LOCAL);
+            push(symbol);
+            code.op(INVOKEINTERFACE).u2(write).u1(2).u1(0);
+        }
+
+        final int move = move(body);
+        if (move == LEFT) {
+            code.op(ALOAD).u1(TAPE_LOCAL);
+            code.op(INVOKEINTERFACE).u2(moveLeft).u1(1).u1(0);
+        } else if (move == RIGHT) {
+            code.op(ALOAD).u1(TAPE_LOCAL);
+            code.op(INVOKEINTERFACE).u2(moveRight).u1(1).u1(0);
+        }
+
+        code.op(IINC).u1(REMAINING_LOCAL).u1(-1);
+
+        final int next = nextState(body);
+        if (definition.isFinal(next)) {
+            push(next);
+            code.jump(GOTO_W, exits.accepted);
+        } else if (next >= first && next < first + states.length) {
+            code.jump(GOTO_W, states[next - first]);
+        } else {
+            push(next);
+            code.jump(GOTO_W, exits.otherGroup);
+        }
+    }
+
+    /**
+     * Expects the internal state on the stack, stores it, the budget and the outcome in the registers, then returns
+     * the outcome.
+     */
+    private void generateExit(Label label, int outcome) {
+        code.mark(label);
+        store(STATE_LOCAL);
+        storeRegister(GeneratedProgram.STATE, STATE_LOCAL);
+        storeRegister(GeneratedProgram.REMAINING, REMAINING_LOCAL);
+        code.op(ALOAD).u1(REGISTERS_LOCAL);
+        push(GeneratedProgram.OUTCOME);
+        push(outcome);
+        code.op(IASTORE);
+        push(outcome);
+        code.op(IRETURN);
+    }
+
+    private void loadRegister(int register) {
+        code.op(ALOAD).u1(REGISTERS_LOCAL);
+        push(register);
+        code.op(IALOAD);
+    }
+
+    private void storeRegister(int register, int local) {
+        code.op(ALOAD).u1(REGISTERS_LOCAL);
+        push(register);
+        load(local);
+        code.op(IASTORE);
+    }
+
+    private void load(int local) {
+        code.op(ILOAD).u1(local);
+    }
+
+    private void store(int local) {
+        code.op(ISTORE).u1(local);
+    }
+
+    private void push(int value) {
+        if (value >= -1 && value <= 5) {
+            code.op(ICONST_0 + value);
+        } else if (value == (byte) value) {
+            code.op(BIPUSH).u1(value);
+        } else if (value == (short) value) {
+            code.op(SIPUSH).u2(value);
+        } else {
+            code.op(LDC_W).u2(writer.integerConstant(value));
+        }
+    }
+
+    private static boolean allSame(Label[] labels) {
+        for (Label label : labels) {
+            if (label != labels[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Exits {
+        private final Label budgetExhausted = new Label();
+        private final Label illegal = new Label();
+        private final Label accepted = new Label();
+        private final Label otherGroup = new Label();
+    }
+
+    private static final class ProgramClassLoader extends ClassLoader {
+
+        private ProgramClassLoader() {
+            super(GeneratedProgram.class.getClassLoader());
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.perrierFrancois.turing.compiled;
+
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.*;
+
+/**
+ * Macro-instructions detected on a {@link CompiledDefinition}, which {@link CompiledTuringMachine#run(long)} executes as
+ * bulk head moves instead of step by step:
+ * <ul>
+ * <li>{@link #SCAN}: a chain of states which each move one cell in the same direction whatever they read, without
+ * writing anything (eg. what {@link org.perrierFrancois.turing.generators.TuringMachineDefinitionGeneratorSupport} emits
+ * to move by a fixed number of cells). Running the chain from its first state moves the head by
+ * {@link #scanLength(int)} cells and lands on {@link #scanTarget(int)}</li>
+ * <li>{@link #SKIP}: a state which loops on itself, moving in a fixed direction without writing, while it reads some
+ * symbols (eg. "go to the end of the number"). The head moves over whole runs of these symbols at once</li>
+ * </ul>
+ * Both preserve the logical transitions count: a macro-instruction counts as the number of steps it replaces.
+ */
+final class ScanFusion {
+
+    static final byte NONE = 0;
+    static final byte SCAN = 1;
+    static final byte SKIP = 2;
+
+    /**
+     * skip loops are only detected for the symbols fitting in a <code>long</code> mask
+     */
+    private static final int MAX_SKIP_SYMBOL = 64;
+
+    final byte[] kinds;
+
+    /**
+     * move direction of the macro-instruction of each state, <code>true</code> for {@link CompiledDefinition#RIGHT}
+     */
+    final boolean[] right;
+
+    final int[] scanLengths;
+
+    final int[] scanTargets;
+
+    /**
+     * bit <code>s</code> is set if the state loops on itself when reading symbol <code>s</code>
+     */
+    final long[] skipMasks;
+
+    private int fusedStates;
+
+    private ScanFusion(int stateCount) {
+        this.kinds = new byte[stateCount];
+        this.right = new boolean[stateCount];
+        this.scanLengths = new int[stateCount];
+        this.scanTargets = new int[stateCount];
+        this.skipMasks = new long[stateCount];
+    }
+
+    static ScanFusion analyze(CompiledDefinition definition) {
+        final int stateCount = definition.getStateCount();
+        final ScanFusion fusion = new ScanFusion(stateCount);
+
+        // direction of the states moving by one cell whatever they read, DONT_MOVE otherwise
+        final int[] uniform = new int[stateCount];
+        final int[] next = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            uniform[state] = uniformMove(definition, state);
+            if (uniform[state] != DONT_MOVE) {
+                next[state] = nextState(definition.actions[state * definition.symbolCount]);
+            }
+        }
+
+        final int[] lengths = new int[stateCount];
+        final int[] targets = new int[stateCount];
+        final boolean[] visiting = new boolean[stateCount];
+        final int[] path = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            chain(state, uniform, next, definition.finalStates, lengths, targets, visiting, path);
+        }
+
+        for (int state = 0; state < stateCount; state++) {
+            if (definition.isFinal(state)) {
+                continue;
+            }
+            if (lengths[state] > 1) {
+                fusion.kinds[state] = SCAN;
+                fusion.right[state] = uniform[state] == RIGHT;
+                fusion.scanLengths[state] = lengths[state];
+                fusion.scanTargets[state] = targets[state];
+                fusion.fusedStates++;
+            } else if (detectSkip(definition, state, fusion)) {
+                fusion.fusedStates++;
+            }
+        }
+
+        return fusion;
+    }
+
+    /**
+     * @return the number of states starting a macro-instruction
+     */
+    int getFusedStates() {
+        return fusedStates;
+    }
+
+    int scanLength(int state) {
+        return scanLengths[state];
+    }
+
+    int scanTarget(int state) {
+        return scanTargets[state];
+    }
+
+    /**
+     * Computes the length and target of the chain starting at <code>state</code>, and of all the states it goes
+     * through.<br/>
+     * A chain continues through the states that are neither final nor moving the other way. Chains may share a tail,
+     * so lengths are memoized, and a cycle of uniform states (an endless scan) is cut where it closes.
+     */
+    private static void chain(int state, int[] uniform, int[] next, boolean[] finalStates,
+                              int[] lengths, int[] targets, boolean[] visiting, int[] path) {
+        int length = 0;
+        int current = state;
+        while (lengths[current] == 0 && uniform[current] != DONT_MOVE && !visiting[current]) {
+            visiting[current] = true;
+            path[length++] = current;
+            final int following = next[current];
+            if (finalStates[following] || uniform[following] != uniform[current]) {
+                break;
+            }
+            current = following;
+        }
+
+        for (int i = length - 1; i >= 0; i--) {
+            final int s = path[i];
+            final int following = next[s];
+            final boolean continues = !finalStates[following] && uniform[following] == uniform[s] && lengths[following] != 0;
+            lengths[s] = continues ? 1 + lengths[following] : 1;
+            targets[s] = continues ? targets[following] : following;
+            visiting[s] = false;
+        }
+    }
+
+    /**
+     * @return the move of a state which moves without writing to the same next state whatever it reads
+     */
+    private static int uniformMove(CompiledDefinition definition, int state) {
+        final int symbolCount = definition.symbolCount;
+        final long first = definition.actions[state * symbolCount];
+        if (first == NO_ACTION || move(first) == DONT_MOVE) {
+            return DONT_MOVE;
+        }
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            final long action = definition.actions[state * symbolCount + symbol];
+            if (action == NO_ACTION || writeSymbol(action) != symbol
+                    || move(action) != move(first) || nextState(action) != nextState(first)) {
+                return DONT_MOVE;
+            }
+        }
+        return move(first);
+    }
+
+    private static boolean detectSkip(CompiledDefinition definition, int state, ScanFusion fusion) {
+        final int symbols = Math.min(definition.symbolCount, MAX_SKIP_SYMBOL);
+        long mask = 0;
+        int direction = DONT_MOVE;
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            final long action = definition.actions[state * definition.symbolCount + symbol];
+            if (action == NO_ACTION || nextState(action) != state || writeSymbol(action) != symbol || move(action) == DONT_MOVE) {
+                continue;
+            }
+            if (direction != DONT_MOVE && move(action) != direction) {
+                // loops in both directions, depending on the symbol: not a scan
+                return false;
+            }
+            direction = move(action);
+            mask |= 1L << symbol;
+        }
+        if (mask != 0) {
+            fusion.kinds[state] = SKIP;
+            fusion.right[state] = direction == RIGHT;
+            fusion.skipMasks[state] = mask;
+        }
+        return mask != 0;
+    }
+}
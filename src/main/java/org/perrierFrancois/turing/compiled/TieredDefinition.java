@@ -0,0 +1,209 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link TuringMachineDefinition} run by {@link TieredTuringMachine}s, with the profile they share, which decides
+ * when the definition moves to a faster {@link Tier}.<br/>
+ * Definitions start {@link Tier#INTERPRETED}: machines are {@link TuringMachine}s, which are cheap to build. They
+ * report the transitions they perform and, while interpreted, how many times each state is visited. Once all the
+ * machines of the definition performed <code>compileThreshold</code> transitions, the definition is compiled (see
+ * {@link CompiledDefinition}, which also fuses the scan chains and skip loops), the states being numbered by
+ * decreasing visit count: the rows of the hottest states are contiguous in the action table, and share the same
+ * methods of a generated program. Past <code>generateThreshold</code> transitions, its program is generated (see
+ * {@link ProgramGenerator}), unless it is too large.<br/>
+ * Compilation and generation run on the given executor, without pausing the machines, which switch to the new tier at
+ * their next safe point (see {@link TieredTuringMachine}). A task rejected by the executor is submitted again at a
+ * following report; a failed one leaves the definition in its current tier (see {@link #getFailure()}).<br/>
+ * Instances are thread safe: machines of the same definition can run on any number of threads.
+ */
+public final class TieredDefinition {
+
+    public enum Tier {
+        INTERPRETED,
+        COMPILED,
+        GENERATED
+    }
+
+    public static final long DEFAULT_COMPILE_THRESHOLD = 100_000L;
+
+    public static final long DEFAULT_GENERATE_THRESHOLD = GeneratedTuringMachine.GENERATION_THRESHOLD;
+
+    private final TuringMachineDefinition definition;
+
+    private final long compileThreshold;
+
+    private final long generateThreshold;
+
+    private final Executor compiler;
+
+    private final LongAdder transitions = new LongAdder();
+
+    /**
+     * visits of each state by interpreted machines
+     */
+    private final Map<String, LongAdder> stateVisits = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean compiling = new AtomicBoolean();
+
+    private final AtomicBoolean generating = new AtomicBoolean();
+
+    private volatile CompiledDefinition compiled;
+
+    private volatile GeneratedProgram program;
+
+    private volatile Throwable failure;
+
+    /**
+     * Compiles with the default thresholds, on the common fork join pool.
+     */
+    public TieredDefinition(TuringMachineDefinition definition) {
+        this(definition, DEFAULT_COMPILE_THRESHOLD, DEFAULT_GENERATE_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param compileThreshold  transitions after which the definition is compiled
+     * @param generateThreshold transitions after which the program of the definition is generated, once it is compiled
+     * @param compiler          runs the compilations and generations
+     */
+    public TieredDefinition(TuringMachineDefinition definition, long compileThreshold, long generateThreshold, Executor compiler) {
+        if (compileThreshold < 0 || generateThreshold < compileThreshold) {
+            throw new IllegalArgumentException(format("Invalid compile (%d) or generate (%d) threshold",
+                    compileThreshold, generateThreshold));
+        }
+        this.definition = definition;
+        this.compileThreshold = compileThreshold;
+        this.generateThreshold = generateThreshold;
+        this.compiler = compiler;
+    }
+
+    public TieredTuringMachine newMachine() {
+        return new TieredTuringMachine(this);
+    }
+
+    public TuringMachineDefinition getDefinition() {
+        return definition;
+    }
+
+    public Tier getTier() {
+        if (program != null) {
+            return Tier.GENERATED;
+        }
+        return compiled != null ? Tier.COMPILED : Tier.INTERPRETED;
+    }
+
+    /**
+     * @return the compiled definition, once the definition is {@link Tier#COMPILED}
+     */
+    public Optional<CompiledDefinition> getCompiledDefinition() {
+        return Optional.ofNullable(compiled);
+    }
+
+    /**
+     * @return the transitions reported by the machines so far
+     */
+    public long getTransitions() {
+        return transitions.sum();
+    }
+
+    /**
+     * @return the visits of each state reported by the interpreted machines so far
+     */
+    public Map<String, Long> getStateVisits() {
+        final Map<String, Long> visits = new HashMap<>();
+        stateVisits.forEach((state, count) -> visits.put(state, count.sum()));
+        return visits;
+    }
+
+    /**
+     * @return why the compilation or generation failed, if it did
+     */
+    public Optional<Throwable> getFailure() {
+        return Optional.ofNullable(failure);
+    }
+
+    /**
+     * @return the generated program, if the definition is {@link Tier#GENERATED}
+     */
+    GeneratedProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * Adds the transitions and state visits of a machine to the profile, then starts the compilation or generation
+     * of the definition if it crossed a threshold.
+     *
+     * @param visits visits of each state since the previous report, or an empty map
+     */
+    void report(long steps, Map<String, long[]> visits) {
+        transitions.add(steps);
+        visits.forEach((state, count) -> stateVisits.computeIfAbsent(state, s -> new LongAdder()).add(count[0]));
+
+        final long total = transitions.sum();
+        if (total >= compileThreshold && compiling.compareAndSet(false, true)) {
+            submit(this::compile, compiling);
+        } else if (total >= generateThreshold && compiled != null && generating.compareAndSet(false, true)) {
+            submit(this::generate, generating);
+        }
+    }
+
+    /**
+     * @param started flag of the task, cleared if the executor rejects it so that a following report submits it again
+     */
+    private void submit(Runnable task, AtomicBoolean started) {
+        try {
+            compiler.execute(task);
+        } catch (RejectedExecutionException e) {
+            // saturated or shut down executor: the machines keep their tier
+            started.set(false);
+        }
+    }
+
+    private void compile() {
+        try {
+            final CompiledDefinition.Builder builder = CompiledDefinition.builder().initialState(definition.getInitialState());
+            final Map<String, Long> visits = getStateVisits();
+            visits.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                    .forEach(visited -> builder.state(visited.getKey()));
+            definition.getFinalStates().forEach(builder::finalState);
+            for (Action action : definition.getActions()) {
+                builder.action(action.getInState(), action.getWhenReading(), action.getWrite(), action.getMove(), action.getToState());
+            }
+            this.compiled = builder.build();
+        } catch (RuntimeException e) {
+            // compiling stays set: the definition would fail again
+            this.failure = e;
+            return;
+        }
+
+        // the threshold may have been crossed during the compilation
+        if (transitions.sum() >= generateThreshold && generating.compareAndSet(false, true)) {
+            generate();
+        }
+    }
+
+    private void generate() {
+        try {
+            ProgramGenerator.tryGenerate(compiled).ifPresent(generated -> this.program = generated);
+        } catch (RuntimeException | LinkageError e) {
+            // generating stays set, the definition keeps running compiled
+            this.failure = e;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.TuringMachineEngine;
+import org.perrierFrancois.turing.compiled.TieredDefinition.Tier;
+import org.perrierFrancois.turing.tape.SymbolTape;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+
+/**
+ * Machine of a {@link TieredDefinition}, running on the engine of the current tier of the definition: a
+ * {@link TuringMachine} while interpreted, then a {@link CompiledTuringMachine} or a {@link GeneratedTuringMachine}.<br/>
+ * Runs are cut into slices, between which are the safe points: the machine reports its transitions to the definition,
+ * and moves its configuration (tape, internal state and transitions) to the engine of a faster tier if the definition
+ * got one in the meantime. Resets and initializations are safe points too. The tiers behave the same, so a switch does
+ * not show, but for the speed.<br/>
+ * Loop detection, tracing and metrics are not available: use the engines directly.
+ */
+public class TieredTuringMachine implements TuringMachineEngine {
+
+    /**
+     * steps between two safe points of an interpreted machine
+     */
+    static final long INTERPRETED_SLICE = 1 << 12;
+
+    /**
+     * steps between two safe points of a compiled machine
+     */
+    static final long COMPILED_SLICE = 1 << 22;
+
+    private final TieredDefinition definition;
+
+    private Tier tier;
+
+    private TuringMachineEngine engine;
+
+    /**
+     * visits of each state since the last report, while interpreted
+     */
+    private final Map<String, long[]> visits = new HashMap<>();
+
+    private final Predicate<TuringMachineEngine> profiler = machine -> {
+        visits.computeIfAbsent(machine.getInternalState(), s -> new long[1])[0]++;
+        return false;
+    };
+
+    /**
+     * transitions of the current run already reported to the definition
+     */
+    private long reported;
+
+    public TieredTuringMachine(TieredDefinition definition) {
+        this.definition = definition;
+        this.tier = definition.getTier();
+        this.engine = newEngine(tier);
+    }
+
+    public TieredDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return the tier of the engine currently running the machine, which may lag behind the one of the definition until
+     * the next safe point
+     */
+    public Tier getTier() {
+        return tier;
+    }
+
+    @Override
+    public void reset() {
+        report();
+        engine.reset();
+        reported = 0;
+        promote();
+    }
+
+    @Override
+    public void initialize(List<String> ribbon) {
+        promote();
+        engine.initialize(ribbon);
+    }
+
+    @Override
+    public void initialize(CharSequence ribbon) {
+        promote();
+        engine.initialize(ribbon);
+    }
+
+    @Override
+    public void nextStep() {
+        if (getMachineState() != MachineState.RUNNING) {
+            throw new IllegalStateException(format("Machine should be in state %s for this operation", MachineState.RUNNING));
+        }
+        run(1);
+    }
+
+    @Override
+    public RunResult run(long maxSteps) {
+        assertStarted();
+        final long start = getTransitions();
+
+        while (getMachineState() == MachineState.RUNNING && getTransitions() - start < maxSteps) {
+            final long remaining = maxSteps - (getTransitions() - start);
+            if (tier == Tier.INTERPRETED) {
+                engine.runUntil(profiler, Math.min(remaining, INTERPRETED_SLICE));
+            } else {
+                engine.run(Math.min(remaining, COMPILED_SLICE));
+            }
+            safePoint();
+        }
+
+        return RunResult.of(getMachineState(), StopReason.BUDGET_EXHAUSTED, getTransitions(), getTransitions() - start);
+    }
+
+    @Override
+    public RunResult runUntil(Predicate<? super TuringMachineEngine> condition, long maxSteps) {
+        assertStarted();
+        final long start = getTransitions();
+
+        while (getMachineState() == MachineState.RUNNING && getTransitions() - start < maxSteps) {
+            if (condition.test(this)) {
+                return RunResult.of(getMachineState(), StopReason.CONDITION_MET, getTransitions(), getTransitions() - start);
+            }
+            run(1);
+        }
+
+        return RunResult.of(getMachineState(), StopReason.BUDGET_EXHAUSTED, getTransitions(), getTransitions() - start);
+    }
+
+    @Override
+    public MachineState getMachineState() {
+        return engine.getMachineState();
+    }
+
+    @Override
+    public String getInternalState() {
+        return engine.getInternalState();
+    }
+
+    @Override
+    public long getTransitions() {
+        return engine.getTransitions();
+    }
+
+    /**
+     * @return the symbols of the tape, from its leftmost cell
+     */
+    public List<String> getSymbols() {
+        if (engine instanceof TuringMachine) {
+            final TuringMachine.Tape tape = ((TuringMachine) engine).getTape();
+            return tape == null ? Collections.emptyList() : tape.getSymbols();
+        }
+        final SymbolTape tape = ((CompiledTuringMachine) engine).getTape();
+        return tape == null ? Collections.emptyList() : tape.getSymbols();
+    }
+
+    private void safePoint() {
+        if (getTransitions() - reported >= INTERPRETED_SLICE || getMachineState() != MachineState.RUNNING) {
+            report();
+        }
+        promote();
+    }
+
+    private void report() {
+        final long transitions = getTransitions();
+        if (transitions > reported || !visits.isEmpty()) {
+            definition.report(transitions - reported, visits);
+            reported = transitions;
+            visits.clear();
+        }
+    }
+
+    /**
+     * Moves to the tier of the definition, if it is faster and the machine is not over.
+     */
+    private void promote() {
+        final Tier target = definition.getTier();
+        if (target.compareTo(tier) <= 0) {
+            return;
+        }
+        final MachineState machineState = getMachineState();
+        if (machineState == MachineState.READY) {
+            engine = newEngine(target);
+        } else if (machineState == MachineState.RUNNING) {
+            engine = transfer(target);
+        } else {
+            return;
+        }
+        tier = target;
+    }
+
+    private TuringMachineEngine newEngine(Tier tier) {
+        switch (tier) {
+            case INTERPRETED:
+                return new TuringMachine(definition.getDefinition());
+            case COMPILED:
+                return new CompiledTuringMachine(definition.getCompiledDefinition().orElseThrow());
+            default:
+                return new GeneratedTuringMachine(definition.getCompiledDefinition().orElseThrow(), definition.getProgram());
+        }
+    }
+
+    /**
+     * @return a machine of the given tier, in the configuration of the current one
+     */
+    private CompiledTuringMachine transfer(Tier target) {
+        final CompiledTuringMachine machine = (CompiledTuringMachine) newEngine(target);
+        final CompiledDefinition compiled = machine.getDefinition();
+
+        final int[] cells;
+        final int origin;
+        final int position;
+        final List<String> foreignSymbols;
+        if (engine instanceof TuringMachine) {
+            final TuringMachine.Tape tape = ((TuringMachine) engine).getTape();
+            final List<String> symbols = tape.getSymbols();
+            foreignSymbols = new ArrayList<>();
+            cells = new int[symbols.size()];
+            for (int i = 0; i < cells.length; i++) {
+                final String symbol = symbols.get(i);
+                final int id = compiled.symbolId(symbol);
+                if (id >= 0) {
+                    cells[i] = id;
+                } else {
+                    if (!foreignSymbols.contains(symbol)) {
+                        foreignSymbols.add(symbol);
+                    }
+                    cells[i] = compiled.getSymbolCount() + foreignSymbols.indexOf(symbol);
+                }
+            }
+            origin = tape.getOrigin();
+            position = tape.getPosition();
+        } else {
+            final CompiledTuringMachine current = (CompiledTuringMachine) engine;
+            final SymbolTape tape = current.getTape();
+            cells = new int[tape.size()];
+            tape.copySymbols(0, cells, 0, cells.length);
+            origin = tape.getOrigin();
+            position = tape.getPosition();
+            foreignSymbols = current.getForeignSymbols();
+        }
+
+        machine.restore(compiled.stateId(getInternalState()), getTransitions(), getMachineState(), foreignSymbols,
+                cells, origin, position);
+        return machine;
+    }
+
+    private void assertStarted() {
+        if (getMachineState() == MachineState.READY) {
+            throw new IllegalStateException("Machine should be initialized for this operation");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return engine.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package org.perrierFrancois.turing.definition;
+
+import java.util.List;
+
+/**
+ * Receives the actions of a definition one by one, as they are generated.<br/>
+ * Lets generators feed a consumer (eg. {@link org.perrierFrancois.turing.compiled.CompiledDefinition.Builder}) directly,
+ * without materializing a list of {@link Action} objects.
+ */
+@FunctionalInterface
+public interface ActionSink {
+
+    void action(String inState, String whenReading, String write, Move move, String toState);
+
+    /**
+     * @return a sink adding {@link Action}s to the given list
+     */
+    static ActionSink into(List<Action> actions) {
+        return (inState, whenReading, write, move, toState) -> actions.add(
+                Action.builder()
+                        .inState(inState)
+                        .whenReading(whenReading)
+                        .write(write)
+                        .move(move)
+                        .toState(toState)
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package org.perrierFrancois.turing.definition;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * {@link Action} of a k tapes machine: the machine reads one symbol under each head, then writes one symbol and moves
+ * each head independently. The lists hold one element per tape, in the order of the tapes.
+ */
+@Data
+@Builder
+public class MultiTapeAction {
+
+    private String inState;
+
+    private List<String> whenReading;
+
+    private List<String> write;
+
+    private List<Move> moves;
+
+    private String toState;
+
+    /**
+     * @return the single tape action as a one tape action
+     */
+    public static MultiTapeAction of(Action action) {
+        return MultiTapeAction.builder()
+                .inState(action.getInState())
+                .whenReading(List.of(action.getWhenReading()))
+                .write(List.of(action.getWrite()))
+                .moves(List.of(action.getMove()))
+                .toState(action.getToState())
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package org.perrierFrancois.turing.definition;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link TuringMachineDefinition} of a machine with <code>tapes</code> tapes, see {@link MultiTapeAction}.
+ */
+@Data
+@Builder
+public class MultiTapeDefinition {
+
+    private int tapes;
+
+    private String initialState;
+
+    @Singular
+    private Set<String> finalStates;
+
+    @Singular
+    private List<MultiTapeAction> actions;
+
+    /**
+     * @return the single tape definition as a one tape definition
+     */
+    public static MultiTapeDefinition of(TuringMachineDefinition definition) {
+        return MultiTapeDefinition.builder()
+                .tapes(1)
+                .initialState(definition.getInitialState())
+                .finalStates(definition.getFinalStates())
+                .actions(definition.getActions().stream().map(MultiTapeAction::of).collect(toList()))
+                .build();
+    }
+}
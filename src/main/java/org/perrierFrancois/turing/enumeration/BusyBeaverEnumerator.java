@@ -0,0 +1,193 @@
+package org.perrierFrancois.turing.enumeration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static org.perrierFrancois.turing.enumeration.PackedTables.UNDEFINED;
+
+/**
+ * Enumerates the <code>states</code> states, <code>symbols</code> symbols machines in tree normal form: tables start
+ * fully undefined, and each time a run reaches an undefined transition, the machine is counted as halting, then the
+ * transition gets every possible definition in turn, each resulting table being run again.<br/>
+ * This only generates the transitions a machine actually uses, and prunes isomorphic tables: a new transition may only
+ * go to the states already reached plus the next unused one, and write the symbols already written plus the next
+ * unused one; the first transition is fixed to <code>1RB</code>, which removes the left/right mirror of each machine.<br/>
+ * Tables are <code>int[]</code> (see {@link PackedTables}) defined and undefined in place while walking the tree, and
+ * run by a {@link SmallMachineExecutor} per thread: below the first levels, whose subtrees are spread over a
+ * {@link ForkJoinPool}, the enumeration allocates nothing. Machines reaching the step or space limit are
+ * written to {@link EnumerationOptions#getSurvivors()} as they are found.
+ */
+public class BusyBeaverEnumerator {
+
+    /**
+     * Subtrees of tables with fewer defined transitions are explored by their own task
+     */
+    private static final int SPLIT_DEFINED = 3;
+
+    private final EnumerationOptions options;
+
+    private final int states;
+
+    private final int symbols;
+
+    private final ForkJoinPool pool;
+
+    private final ThreadLocal<SmallMachineExecutor> executors;
+
+    public BusyBeaverEnumerator(EnumerationOptions options) {
+        this(options, ForkJoinPool.commonPool());
+    }
+
+    public BusyBeaverEnumerator(EnumerationOptions options, ForkJoinPool pool) {
+        this.states = options.getStates();
+        this.symbols = options.getSymbols();
+        if (states < 1 || states > PackedTables.MAX_STATES || symbols < 2 || symbols > PackedTables.MAX_SYMBOLS) {
+            throw new IllegalArgumentException(format("Can not enumerate %d states, %d symbols machines", states, symbols));
+        }
+        this.options = options;
+        this.pool = pool;
+        this.executors = ThreadLocal.withInitial(() -> new SmallMachineExecutor(options.getMaxSpace()));
+    }
+
+    public EnumerationResult enumerate() throws IOException {
+        final int[] table = new int[states * symbols];
+        Arrays.fill(table, UNDEFINED);
+
+        try (Writer survivors = options.getSurvivors() == null ? Writer.nullWriter()
+                : Files.newBufferedWriter(options.getSurvivors(), StandardCharsets.UTF_8)) {
+            final Enumeration enumeration = new Enumeration(survivors);
+            // the machine halting on its first step, then the tree below 1RB
+            enumeration.halting(table, 1, 1);
+            if (states > 1) {
+                table[0] = PackedTables.pack(1, true, 1);
+                pool.invoke(new Subtree(enumeration, table, 1, 1, 1));
+            }
+
+            return new EnumerationResult(enumeration.tables.sum() + 1, enumeration.halting.sum(), enumeration.survivors.sum(),
+                    enumeration.maxSteps, enumeration.maxStepsTable, enumeration.maxOnes, enumeration.maxOnesTable);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * State shared by the tasks of an {@link #enumerate()} call
+     */
+    private final class Enumeration {
+        final Writer survivorWriter;
+        final LongAdder tables = new LongAdder();
+        final LongAdder halting = new LongAdder();
+        final LongAdder survivors = new LongAdder();
+
+        volatile long maxSteps;
+        String maxStepsTable;
+        volatile long maxOnes;
+        String maxOnesTable;
+
+        Enumeration(Writer survivorWriter) {
+            this.survivorWriter = survivorWriter;
+        }
+
+        void halting(int[] table, long steps, int ones) {
+            halting.increment();
+            if (steps > maxSteps || ones > maxOnes) {
+                record(table, steps, ones);
+            }
+        }
+
+        private synchronized void record(int[] table, long steps, int ones) {
+            if (steps > maxSteps) {
+                maxSteps = steps;
+                maxStepsTable = PackedTables.format(table, symbols);
+            }
+            if (ones > maxOnes) {
+                maxOnes = ones;
+                maxOnesTable = PackedTables.format(table, symbols);
+            }
+        }
+
+        void survivor(int[] table) {
+            survivors.increment();
+            final String line = PackedTables.format(table, symbols) + System.lineSeparator();
+            try {
+                synchronized (survivorWriter) {
+                    survivorWriter.write(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Explores the tables below <code>table</code>, which has <code>defined</code> transitions using the states up to
+     * <code>maxState</code> and the symbols up to <code>maxSymbol</code>
+     */
+    private final class Subtree extends RecursiveAction {
+        private final Enumeration enumeration;
+        private final int[] table;
+        private final int defined;
+        private final int maxState;
+        private final int maxSymbol;
+
+        Subtree(Enumeration enumeration, int[] table, int defined, int maxState, int maxSymbol) {
+            this.enumeration = enumeration;
+            this.table = table;
+            this.defined = defined;
+            this.maxState = maxState;
+            this.maxSymbol = maxSymbol;
+        }
+
+        @Override
+        protected void compute() {
+            explore(enumeration, executors.get(), table, defined, maxState, maxSymbol);
+        }
+    }
+
+    private void explore(Enumeration enumeration, SmallMachineExecutor executor, int[] table, int defined,
+                         int maxState, int maxSymbol) {
+        enumeration.tables.increment();
+        final SmallMachineExecutor.Status status = executor.run(table, symbols, options.getMaxSteps());
+        if (status != SmallMachineExecutor.Status.HALTED) {
+            enumeration.survivor(table);
+            return;
+        }
+
+        enumeration.halting(table, executor.getSteps() + 1, executor.getHaltingOnes());
+        if (defined == table.length - 1) {
+            // defining the last transition leaves no way to halt
+            return;
+        }
+
+        final int index = executor.getHaltState() * symbols + executor.getHaltSymbol();
+        final List<Subtree> forks = defined < SPLIT_DEFINED ? new ArrayList<>() : null;
+        for (int next = 0; next <= Math.min(maxState + 1, states - 1); next++) {
+            for (int write = 0; write <= Math.min(maxSymbol + 1, symbols - 1); write++) {
+                for (int right = 0; right <= 1; right++) {
+                    table[index] = PackedTables.pack(write, right == 1, next);
+                    if (forks != null) {
+                        forks.add(new Subtree(enumeration, table.clone(), defined + 1, Math.max(maxState, next), Math.max(maxSymbol, write)));
+                    } else {
+                        explore(enumeration, executor, table, defined + 1, Math.max(maxState, next), Math.max(maxSymbol, write));
+                    }
+                }
+            }
+        }
+        table[index] = UNDEFINED;
+
+        if (forks != null) {
+            ForkJoinTask.invokeAll(forks);
+        }
+    }
+}
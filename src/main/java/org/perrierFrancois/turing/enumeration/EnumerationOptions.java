@@ -0,0 +1,36 @@
+package org.perrierFrancois.turing.enumeration;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * Machines enumerated by a {@link BusyBeaverEnumerator}, and the limits deciding which of them survive.
+ */
+@Value
+@Builder
+public class EnumerationOptions {
+
+    int states;
+
+    int symbols;
+
+    /**
+     * Machines still running after <code>maxSteps</code> steps survive
+     */
+    @Builder.Default
+    long maxSteps = 10_000;
+
+    /**
+     * Machines leaving a tape of <code>maxSpace</code> cells, centered on the initial cell, survive
+     */
+    @Builder.Default
+    int maxSpace = 1 << 12;
+
+    /**
+     * File receiving the surviving tables, one per line in the {@link PackedTables#format(int[], int)} format;
+     * <code>null</code> to only count them
+     */
+    Path survivors;
+}
@@ -0,0 +1,38 @@
+package org.perrierFrancois.turing.enumeration;
+
+import lombok.Value;
+
+/**
+ * Outcome of a {@link BusyBeaverEnumerator#enumerate()} call. Tables are in the {@link PackedTables#format(int[], int)}
+ * format.
+ */
+@Value
+public class EnumerationResult {
+
+    /**
+     * Tables run, including the partial tables branched on
+     */
+    long tables;
+
+    /**
+     * Halting machines, one per halting transition
+     */
+    long halting;
+
+    /**
+     * Machines which reached the step or space limit
+     */
+    long survivors;
+
+    /**
+     * Most steps (including the halting step) performed by a halting machine, and one of the machines performing them
+     */
+    long maxSteps;
+    String maxStepsTable;
+
+    /**
+     * Most non empty cells left by a halting machine, and one of the machines leaving them
+     */
+    long maxOnes;
+    String maxOnesTable;
+}
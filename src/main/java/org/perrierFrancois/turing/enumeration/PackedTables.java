@@ -0,0 +1,125 @@
+package org.perrierFrancois.turing.enumeration;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+
+/**
+ * Transition tables of small machines, as <code>int[states * symbols]</code> arrays indexed by
+ * <code>state * symbols + symbol</code>, each entry packed as <code>(next << 8) | (write << 1) | right</code>, or
+ * {@link #UNDEFINED}.<br/>
+ * States are named <code>A</code>, <code>B</code>... and symbols <code>0</code>, <code>1</code>..., <code>0</code> being
+ * the empty symbol. Reaching an undefined transition halts the machine, which counts as a last step.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PackedTables {
+
+    public static final int UNDEFINED = -1;
+
+    public static final int MAX_STATES = 26;
+
+    public static final int MAX_SYMBOLS = 10;
+
+    public static int pack(int write, boolean right, int next) {
+        return next << 8 | write << 1 | (right ? 1 : 0);
+    }
+
+    public static int nextState(int transition) {
+        return transition >>> 8;
+    }
+
+    public static int writeSymbol(int transition) {
+        return (transition & 0xFF) >>> 1;
+    }
+
+    public static boolean right(int transition) {
+        return (transition & 1) != 0;
+    }
+
+    /**
+     * @return the table in the usual text format of busy beaver searches, eg. <code>1RB1LB_1LA---</code>: for each
+     * state, the <code>(write, move, next)</code> triple of each read symbol, undefined transitions being
+     * <code>---</code>
+     */
+    public static String format(int[] table, int symbols) {
+        final StringBuilder result = new StringBuilder(table.length * 3 + table.length / symbols);
+        for (int i = 0; i < table.length; i++) {
+            if (i > 0 && i % symbols == 0) {
+                result.append('_');
+            }
+            final int transition = table[i];
+            if (transition == UNDEFINED) {
+                result.append("---");
+            } else {
+                result.append(writeSymbol(transition))
+                        .append(right(transition) ? 'R' : 'L')
+                        .append(stateName(nextState(transition)));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Parses the {@link #format(int[], int)} text format.
+     *
+     * @throws IllegalArgumentException if the text is not a valid table
+     */
+    public static int[] parse(String text, int symbols) {
+        final String[] states = text.split("_");
+        final int[] table = new int[states.length * symbols];
+        for (int state = 0; state < states.length; state++) {
+            if (states[state].length() != 3 * symbols) {
+                throw new IllegalArgumentException(String.format("Invalid table %s: expected %d transitions per state", text, symbols));
+            }
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                final String transition = states[state].substring(3 * symbol, 3 * symbol + 3);
+                if (transition.equals("---")) {
+                    table[state * symbols + symbol] = UNDEFINED;
+                    continue;
+                }
+                final int write = transition.charAt(0) - '0';
+                final int next = transition.charAt(2) - 'A';
+                if (write < 0 || write >= symbols || "LR".indexOf(transition.charAt(1)) < 0 || next < 0 || next >= states.length) {
+                    throw new IllegalArgumentException(String.format("Invalid transition %s in table %s", transition, text));
+                }
+                table[state * symbols + symbol] = pack(write, transition.charAt(1) == 'R', next);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return a definition running like the table, for {@link org.perrierFrancois.turing.TuringMachine} and the other
+     * engines: undefined transitions have no action, so that the halting machine ends in
+     * {@link org.perrierFrancois.turing.MachineState#ILLEGAL_STATE}, before performing the last step
+     */
+    public static TuringMachineDefinition toDefinition(int[] table, int symbols) {
+        final TuringMachineDefinition.TuringMachineDefinitionBuilder definition = TuringMachineDefinition.builder()
+                .initialState(stateName(0));
+        for (int i = 0; i < table.length; i++) {
+            final int transition = table[i];
+            if (transition != UNDEFINED) {
+                definition.action(Action.builder()
+                        .inState(stateName(i / symbols))
+                        .whenReading(symbolName(i % symbols))
+                        .write(symbolName(writeSymbol(transition)))
+                        .move(right(transition) ? Move.RIGHT : Move.LEFT)
+                        .toState(stateName(nextState(transition)))
+                        .build());
+            }
+        }
+        return definition.build();
+    }
+
+    public static String stateName(int state) {
+        return String.valueOf((char) ('A' + state));
+    }
+
+    public static String symbolName(int symbol) {
+        return symbol == 0 ? EMPTY_SYMBOL : String.valueOf(symbol);
+    }
+}
@@ -0,0 +1,109 @@
+package org.perrierFrancois.turing.enumeration;
+
+import lombok.Getter;
+
+import static org.perrierFrancois.turing.enumeration.PackedTables.UNDEFINED;
+
+/**
+ * Runs {@link PackedTables packed tables} from an empty tape, reusing its tape between runs: a run allocates
+ * nothing.<br/>
+ * The tape holds <code>maxSpace</code> cells, the head starting in the middle; only the cells visited by the previous
+ * run are cleared.
+ */
+public final class SmallMachineExecutor {
+
+    public enum Status {
+        /**
+         * The machine reached an undefined transition, see {@link #getHaltState()} and {@link #getHaltSymbol()}
+         */
+        HALTED,
+        STEP_LIMIT,
+        SPACE_LIMIT
+    }
+
+    private final byte[] tape;
+
+    /**
+     * cells visited by the last run
+     */
+    private int low;
+    private int high;
+
+    private int position;
+
+    /**
+     * Steps performed by the last run, not counting the halting step
+     */
+    @Getter
+    private long steps;
+
+    @Getter
+    private int haltState;
+
+    @Getter
+    private int haltSymbol;
+
+    public SmallMachineExecutor(int maxSpace) {
+        this.tape = new byte[maxSpace];
+        this.low = 0;
+        this.high = maxSpace - 1;
+    }
+
+    public Status run(int[] table, int symbols, long maxSteps) {
+        final byte[] tape = this.tape;
+        for (int i = low; i <= high; i++) {
+            tape[i] = 0;
+        }
+
+        int position = tape.length / 2;
+        int low = position;
+        int high = position;
+        int state = 0;
+        long steps = 0;
+        Status status = Status.HALTED;
+        while (true) {
+            final int symbol = tape[position];
+            final int transition = table[state * symbols + symbol];
+            if (transition == UNDEFINED) {
+                this.haltState = state;
+                this.haltSymbol = symbol;
+                break;
+            }
+            if (steps == maxSteps) {
+                status = Status.STEP_LIMIT;
+                break;
+            }
+
+            tape[position] = (byte) PackedTables.writeSymbol(transition);
+            position += PackedTables.right(transition) ? 1 : -1;
+            steps++;
+            if (position < 0 || position == tape.length) {
+                status = Status.SPACE_LIMIT;
+                position -= PackedTables.right(transition) ? 1 : -1;
+                break;
+            }
+            low = Math.min(low, position);
+            high = Math.max(high, position);
+            state = PackedTables.nextState(transition);
+        }
+
+        this.low = low;
+        this.high = high;
+        this.position = position;
+        this.steps = steps;
+        return status;
+    }
+
+    /**
+     * @return the number of non empty cells after the last run, the halting step writing a non empty symbol
+     */
+    public int getHaltingOnes() {
+        int ones = tape[position] == 0 ? 1 : 0;
+        for (int i = low; i <= high; i++) {
+            if (tape[i] != 0) {
+                ones++;
+            }
+        }
+        return ones;
+    }
+}
@@ -2,7 +2,9 @@ package org.perrierFrancois.turing.generators;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
 import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.ActionSink;
 import org.perrierFrancois.turing.definition.Move;
 import org.perrierFrancois.turing.definition.TuringMachineDefinition;
 
@@ -23,6 +25,9 @@ public class BinaryAdderDefinitionGenerator extends TuringMachineDefinitionGener
     public static final String ONE = "1";
     private static final List<String> SYMBOLS = Arrays.asList(ZERO, ONE);
 
+    private static final String INITIAL_STATE = "moveToLeftOperandDigit0_0";
+    private static final String FINAL_STATE = "end";
+
     private final int bits;
 
     /**
@@ -46,7 +51,30 @@ public class BinaryAdderDefinitionGenerator extends TuringMachineDefinitionGener
      * @return the built machine definitions
      */
     public static TuringMachineDefinition buildDefinition(int bits) {
-        return new BinaryAdderDefinitionGenerator(bits).doBuildDefinition();
+        final List<Action> actions = new ArrayList<>();
+        new BinaryAdderDefinitionGenerator(bits).generate(ActionSink.into(actions));
+
+        return TuringMachineDefinition.builder()
+                .initialState(INITIAL_STATE)
+                .finalState(FINAL_STATE)
+                .actions(actions)
+                .build();
+    }
+
+    /**
+     * Same definition as {@link #buildDefinition(int)}, streamed straight into a {@link CompiledDefinition}: no
+     * {@link Action} is ever built, which keeps very wide adders cheap to generate.
+     *
+     * @param bits bit size of the operands
+     * @return the compiled machine definition
+     */
+    public static CompiledDefinition compileDefinition(int bits) {
+        final CompiledDefinition.Builder builder = CompiledDefinition.builder()
+                .initialState(INITIAL_STATE)
+                .finalState(FINAL_STATE);
+        new BinaryAdderDefinitionGenerator(bits).generate(builder);
+
+        return builder.build();
     }
 
     @Override
@@ -54,8 +82,7 @@ public class BinaryAdderDefinitionGenerator extends TuringMachineDefinitionGener
         return SYMBOLS;
     }
 
-    private TuringMachineDefinition doBuildDefinition() {
-        final List<Action> actions = new ArrayList<>();
+    private void generate(ActionSink actions) {
         moveN(actions, i -> "moveToLeftOperandDigit0_" + i, Move.RIGHT, bits - 1, "addDigits0_0");
 
         for (int b = 0; b < bits; b++) {
@@ -63,7 +90,7 @@ public class BinaryAdderDefinitionGenerator extends TuringMachineDefinitionGener
             String nextState;
             Move lastAdderMove;
             if (b == bits - 1) {
-                nextState = "end";
+                nextState = FINAL_STATE;
                 lastAdderMove = Move.DONT_MOVE;
             } else {
                 nextState = "moveToLeftOperandDigit" + (b + 1) + "_0";
@@ -76,15 +103,9 @@ public class BinaryAdderDefinitionGenerator extends TuringMachineDefinitionGener
                 moveN(actions, i -> "moveToLeftOperandDigit" + (finalB + 1) + "_" + i, Move.LEFT, 2 * bits, "addDigits" + (b + 1) + "_0");
             }
         }
-
-        return TuringMachineDefinition.builder()
-                .initialState("moveToLeftOperandDigit0_0")
-                .finalState("end")
-                .actions(actions)
-                .build();
     }
 
-    private void fullAdder(List<Action> actions,
+    private void fullAdder(ActionSink actions,
                            @SuppressWarnings("SameParameterValue") Move directionToSecondOperand, int offsetToSecondOperand,
                            @SuppressWarnings("SameParameterValue") Move directionToResult, int offsetToResult,
                            IntFunction<String> stateNameTemplate, boolean handleEmptyCarry, Move lastMove, String nextState) {
@@ -0,0 +1,66 @@
+package org.perrierFrancois.turing.generators;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.ActionSink;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+import static org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator.ONE;
+import static org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator.ZERO;
+
+/**
+ * Binary counter Machine Definition generator
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BinaryCounterDefinitionGenerator extends TuringMachineDefinitionGeneratorSupport {
+
+    private static final List<String> SYMBOLS = Arrays.asList(ZERO, ONE);
+
+    /**
+     * Builds a Machine definition which never halts: starting on an empty tape, it increments forever a binary number
+     * written at the left of the initial position, eg. after 6 increments:<br/>
+     * <pre>
+     * |1|1|0| |
+     *      ^
+     * </pre>
+     * The number grows towards the left, and the head sweeps back and forth over it, which makes it a convenient
+     * long-running workload.
+     *
+     * @return the built machine definitions
+     */
+    public static TuringMachineDefinition buildDefinition() {
+        return new BinaryCounterDefinitionGenerator().doBuildDefinition();
+    }
+
+    @Override
+    protected List<String> symbols() {
+        return SYMBOLS;
+    }
+
+    private TuringMachineDefinition doBuildDefinition() {
+        final List<Action> actions = new ArrayList<>();
+        final ActionSink sink = ActionSink.into(actions);
+
+        // propagate the carry to the left
+        ifSymbolWriteAndMove(sink, "increment", ONE, ZERO, Move.LEFT, "increment");
+        ifSymbolWriteAndMove(sink, "increment", ZERO, ONE, Move.RIGHT, "rewind");
+        ifSymbolWriteAndMove(sink, "increment", EMPTY_SYMBOL, ONE, Move.RIGHT, "rewind");
+
+        // go back to the least significant digit
+        ifSymbolMove(sink, "rewind", ZERO, Move.RIGHT, "rewind");
+        ifSymbolMove(sink, "rewind", ONE, Move.RIGHT, "rewind");
+        ifSymbolMove(sink, "rewind", EMPTY_SYMBOL, Move.LEFT, "increment");
+
+        return TuringMachineDefinition.builder()
+                .initialState("increment")
+                .actions(actions)
+                .build();
+    }
+}
@@ -1,6 +1,6 @@
 package org.perrierFrancois.turing.generators;
 
-import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.ActionSink;
 import org.perrierFrancois.turing.definition.Move;
 
 import java.util.List;
@@ -8,76 +8,44 @@ import java.util.function.IntFunction;
 
 import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
 
+/**
+ * Helpers emitting common groups of actions to an {@link ActionSink}.<br/>
+ * State names are computed once per state: templates are only applied once for each index, and the resulting names are
+ * shared by the actions of all the symbols.
+ */
 public abstract class TuringMachineDefinitionGeneratorSupport {
 
     protected abstract List<String> symbols();
 
-    protected void moveN(List<Action> actions, IntFunction<String> inStateTemplate, Move direction, int offset, String toState) {
+    protected void moveN(ActionSink actions, IntFunction<String> inStateTemplate, Move direction, int offset, String toState) {
+        String cur = offset > 0 ? inStateTemplate.apply(0) : null;
         for (int i = 0; i < offset; i++) {
-            String cur = inStateTemplate.apply(i);
-            String next = i == offset - 1 ? toState : inStateTemplate.apply(i + 1);
-            actions.add(
-                    Action.builder()
-                            .inState(cur)
-                            .whenReading(EMPTY_SYMBOL)
-                            .write(EMPTY_SYMBOL)
-                            .move(direction)
-                            .toState(next)
-                            .build()
-            );
-
-            symbols().forEach(s -> actions.add(
-                    Action.builder()
-                            .inState(cur)
-                            .whenReading(s)
-                            .write(s)
-                            .move(direction)
-                            .toState(next)
-                            .build()
-            ));
+            final String next = i == offset - 1 ? toState : inStateTemplate.apply(i + 1);
+            actions.action(cur, EMPTY_SYMBOL, EMPTY_SYMBOL, direction, next);
+            for (String s : symbols()) {
+                actions.action(cur, s, s, direction, next);
+            }
+            cur = next;
         }
     }
 
-    protected void ifSymbolMove(List<Action> actions, String inState, String symbol, Move move, String toState) {
+    protected void ifSymbolMove(ActionSink actions, String inState, String symbol, Move move, String toState) {
         ifSymbolWriteAndMove(actions, inState, symbol, symbol, move, toState);
     }
 
-    protected void ifSymbolWriteAndMove(List<Action> actions, String inState, String symbol, String writeSymbol, Move move, String toState) {
-        actions.add(
-                Action.builder()
-                        .inState(inState)
-                        .whenReading(symbol)
-                        .write(writeSymbol)
-                        .move(move)
-                        .toState(toState)
-                        .build()
-        );
+    protected void ifSymbolWriteAndMove(ActionSink actions, String inState, String symbol, String writeSymbol, Move move, String toState) {
+        actions.action(inState, symbol, writeSymbol, move, toState);
     }
 
 
-    protected void write(List<Action> actions, String inState, String symbol, String toState) {
+    protected void write(ActionSink actions, String inState, String symbol, String toState) {
         writeAndMove(actions, inState, symbol, Move.DONT_MOVE, toState);
     }
 
-    protected void writeAndMove(List<Action> actions, String inState, String symbol, Move move, String toState) {
-        actions.add(
-                Action.builder()
-                        .inState(inState)
-                        .whenReading(EMPTY_SYMBOL)
-                        .write(symbol)
-                        .move(move)
-                        .toState(toState)
-                        .build()
-        );
-
-        symbols().forEach(s -> actions.add(
-                Action.builder()
-                        .inState(inState)
-                        .whenReading(s)
-                        .write(symbol)
-                        .move(move)
-                        .toState(toState)
-                        .build()
-        ));
+    protected void writeAndMove(ActionSink actions, String inState, String symbol, Move move, String toState) {
+        actions.action(inState, EMPTY_SYMBOL, symbol, move, toState);
+        for (String s : symbols()) {
+            actions.action(inState, s, symbol, move, toState);
+        }
     }
 }
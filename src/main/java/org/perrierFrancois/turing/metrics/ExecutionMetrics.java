@@ -0,0 +1,367 @@
+package org.perrierFrancois.turing.metrics;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Execution counters of the machines running a {@link CompiledDefinition}, indexed by compiled ids:
+ * <ul>
+ * <li>transitions per <code>(state, symbol)</code>, and visits per state. The states of the scan chains fused by the
+ * machine (see {@link CompiledDefinition#getFusedStates()}) move whatever they read, so their transitions are counted
+ * per chain run, without the symbols: they are only part of the visits</li>
+ * <li>cells appended to the tape on each side</li>
+ * <li>histogram of the head displacement from the first cell of the initial ribbon, sampled at each transition, in
+ * power of two buckets (see {@link #bucket(int)})</li>
+ * <li>transitions and running time, giving the steps per second</li>
+ * </ul>
+ * The counters can be sampled (see {@link #ExecutionMetrics(CompiledDefinition, int)}): the machine then runs at full
+ * speed, fused macro-instructions included, and only counts one transition out of about {@link #getSampleInterval()},
+ * weighted by the number of transitions until the next sample, at random intervals so that the samples do not follow
+ * the period of the machine. Runs, steps, time and tape growth are always exact.<br/>
+ * Counters are plain primitive arrays, updated by a single thread: each machine gets its own instance (see
+ * {@link org.perrierFrancois.turing.compiled.CompiledTuringMachine#enableMetrics(ExecutionMetrics)}), and the
+ * instances of concurrent machines are {@link #merge(ExecutionMetrics) merged} when reporting. Reading the counters
+ * from another thread while the machine runs (eg. through JMX, see {@link MetricsMBeans}) gives approximate values.
+ */
+public class ExecutionMetrics {
+
+    /**
+     * buckets of the displacement histogram on each side: <code>0</code>, then <code>[2^(b-1), 2^b)</code>
+     */
+    public static final int BUCKETS = 33;
+
+    /**
+     * sample interval keeping the overhead of the metrics to a few percent of the running time
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 1024;
+
+    @Getter
+    private final CompiledDefinition definition;
+
+    private final int symbolCount;
+
+    @Getter
+    private final int sampleInterval;
+
+    /**
+     * xorshift generator of the sample intervals
+     */
+    private long random;
+
+    private final long[] transitions;
+
+    private final long[] displacements = new long[2 * BUCKETS];
+
+    /**
+     * fused scans started in each state, and the length of their chain
+     */
+    private final long[] scans;
+    private final int[] scanLengths;
+
+    @Getter
+    private long runs;
+
+    @Getter
+    private long steps;
+
+    @Getter
+    private long nanos;
+
+    @Getter
+    private long leftGrowth;
+
+    @Getter
+    private long rightGrowth;
+
+    private final List<MetricsListener> listeners = new ArrayList<>();
+
+    /**
+     * Counts every transition.
+     */
+    public ExecutionMetrics(CompiledDefinition definition) {
+        this(definition, 1);
+    }
+
+    /**
+     * @param sampleInterval average number of transitions between two samples, <code>1</code> to count every
+     *                       transition; see {@link #DEFAULT_SAMPLE_INTERVAL}
+     */
+    public ExecutionMetrics(CompiledDefinition definition, int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be positive");
+        }
+        this.definition = definition;
+        this.sampleInterval = sampleInterval;
+        this.random = ThreadLocalRandom.current().nextLong() | 1;
+        this.symbolCount = definition.getSymbolCount();
+        this.transitions = new long[definition.getStateCount() * symbolCount];
+        this.scans = new long[definition.getStateCount()];
+        this.scanLengths = new int[definition.getStateCount()];
+    }
+
+    /**
+     * Notifies the listener at the end of each {@link org.perrierFrancois.turing.TuringMachineEngine#run(long)} call,
+     * on the thread running the machine
+     */
+    public void addListener(MetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return the number of transitions to run until the next sample (see {@link #sample(int, int, long)}): always
+     * <code>1</code> when every transition is counted, drawn uniformly in <code>[1, 2 * sampleInterval)</code>
+     * otherwise
+     */
+    public int nextSample() {
+        if (sampleInterval == 1) {
+            return 1;
+        }
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return 1 + (int) (((random >>> 32) * (2L * sampleInterval - 1)) >>> 32);
+    }
+
+    /**
+     * Counts a transition.
+     *
+     * @param transition   <code>state * symbolCount + symbol</code>
+     * @param displacement head position relative to the first cell of the initial ribbon
+     */
+    public void step(int transition, int displacement) {
+        sample(transition, displacement, 1);
+    }
+
+    /**
+     * Counts a sampled transition, see {@link #step(int, int)}.
+     *
+     * @param weight number of transitions the sample stands for
+     */
+    public void sample(int transition, int displacement, long weight) {
+        transitions[transition] += weight;
+        final int bucket = bucket(displacement);
+        displacements[displacement < 0 ? BUCKETS + bucket : bucket] += weight;
+    }
+
+    /**
+     * Counts a skip loop run as a single move, when every transition is counted.
+     *
+     * @param moves number of transitions (and cells moved over)
+     * @param right direction of the moves
+     */
+    public void skip(int transition, int displacement, long moves, boolean right) {
+        transitions[transition] += moves;
+        countDisplacements(displacement, moves, right);
+    }
+
+    /**
+     * Counts a scan chain run as a single move, when every transition is counted.
+     *
+     * @param state  first state of the chain
+     * @param length number of transitions (and states) of the chain
+     * @param right  direction of the moves
+     */
+    public void scan(int state, int length, int displacement, boolean right) {
+        scans[state]++;
+        scanLengths[state] = length;
+        countDisplacements(displacement, length, right);
+    }
+
+    /**
+     * Counts a transition in each of the <code>count</code> cells starting at <code>first</code>
+     */
+    private void countDisplacements(long first, long count, boolean right) {
+        long position = first;
+        long remaining = count;
+        while (remaining > 0) {
+            // last position of the bucket in the direction of the moves
+            final long magnitude = Math.abs(position);
+            final int bucket = Long.SIZE - Long.numberOfLeadingZeros(magnitude);
+            final boolean away = position == 0 ? right : (position > 0) == right;
+            final long limit = away ? (1L << bucket) - 1 : bucket == 0 ? 0 : 1L << (bucket - 1);
+            final long cells = Math.min(remaining, Math.abs(limit - magnitude) + 1);
+
+            displacements[position < 0 ? BUCKETS + bucket : bucket] += cells;
+            position += right ? cells : -cells;
+            remaining -= cells;
+        }
+    }
+
+    /**
+     * Counts the end of a {@link org.perrierFrancois.turing.TuringMachineEngine#run(long)} call.
+     *
+     * @param leftGrowth  cells appended on the left during the call
+     * @param rightGrowth cells appended on the right during the call
+     */
+    public void runCompleted(RunResult result, long nanos, long leftGrowth, long rightGrowth) {
+        this.runs++;
+        this.steps += result.getSteps();
+        this.nanos += nanos;
+        this.leftGrowth += leftGrowth;
+        this.rightGrowth += rightGrowth;
+        for (MetricsListener listener : listeners) {
+            listener.runCompleted(this, result);
+        }
+    }
+
+    /**
+     * Adds the counters of <code>other</code>, which must count the same definition, to this instance.
+     */
+    public void merge(ExecutionMetrics other) {
+        if (other.definition != definition) {
+            throw new IllegalArgumentException("Metrics of another definition");
+        }
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] += other.transitions[i];
+        }
+        for (int i = 0; i < displacements.length; i++) {
+            displacements[i] += other.displacements[i];
+        }
+        for (int state = 0; state < scans.length; state++) {
+            scans[state] += other.scans[state];
+            scanLengths[state] = Math.max(scanLengths[state], other.scanLengths[state]);
+        }
+        runs += other.runs;
+        steps += other.steps;
+        nanos += other.nanos;
+        leftGrowth += other.leftGrowth;
+        rightGrowth += other.rightGrowth;
+    }
+
+    /**
+     * Resets all the counters, keeping the listeners.
+     */
+    public void clear() {
+        Arrays.fill(transitions, 0);
+        Arrays.fill(displacements, 0);
+        Arrays.fill(scans, 0);
+        Arrays.fill(scanLengths, 0);
+        runs = 0;
+        steps = 0;
+        nanos = 0;
+        leftGrowth = 0;
+        rightGrowth = 0;
+    }
+
+    public long transitions(int state, int symbol) {
+        return transitions[state * symbolCount + symbol];
+    }
+
+    /**
+     * @return the transitions of each <code>(state, symbol)</code>, indexed by state then symbol id
+     */
+    public long[][] transitions() {
+        final long[][] counts = new long[scans.length][];
+        for (int state = 0; state < counts.length; state++) {
+            counts[state] = Arrays.copyOfRange(transitions, state * symbolCount, (state + 1) * symbolCount);
+        }
+        return counts;
+    }
+
+    public long visits(int state) {
+        long visits = 0;
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            visits += transitions[state * symbolCount + symbol];
+        }
+        // the fused chains going through the state
+        for (int first = 0; first < scans.length; first++) {
+            int chained = first;
+            for (int i = 0; i < scanLengths[first] && scans[first] > 0; i++) {
+                if (chained == state) {
+                    visits += scans[first];
+                    break;
+                }
+                chained = CompiledDefinition.nextState(definition.action(chained, CompiledDefinition.EMPTY_SYMBOL_ID));
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * @return the visits of each state
+     */
+    public long[] visits() {
+        final long[] visits = new long[scans.length];
+        for (int state = 0; state < visits.length; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                visits[state] += transitions[state * symbolCount + symbol];
+            }
+        }
+        // walk the fused chains: their states go to the same next state whatever they read
+        for (int first = 0; first < scans.length; first++) {
+            int state = first;
+            for (int i = 0; i < scanLengths[first] && scans[first] > 0; i++) {
+                visits[state] += scans[first];
+                state = CompiledDefinition.nextState(definition.action(state, CompiledDefinition.EMPTY_SYMBOL_ID));
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * @return the number of transitions performed with the head in the given bucket of displacement, on the left
+     * (<code>left</code>) or on the right of the first cell of the initial ribbon
+     */
+    public long displacements(int bucket, boolean left) {
+        return displacements[left ? BUCKETS + bucket : bucket];
+    }
+
+    /**
+     * @return <code>0</code> for a null displacement, <code>b</code> for a displacement <code>d</code> such that
+     * <code>2^(b-1) <= |d| < 2^b</code>
+     */
+    public static int bucket(int displacement) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(Math.abs(displacement));
+    }
+
+    public double getStepsPerSecond() {
+        return nanos == 0 ? 0 : steps * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * @return the states with the most visits, most visited first
+     */
+    public List<String> hottestStates(int count) {
+        final int stateCount = definition.getStateCount();
+        final long[] visits = visits();
+        final Integer[] states = new Integer[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            states[state] = state;
+        }
+        Arrays.sort(states, (a, b) -> Long.compare(visits[b], visits[a]));
+
+        final List<String> hottest = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, stateCount) && visits[states[i]] > 0; i++) {
+            hottest.add(format("%s: %d", definition.stateName(states[i]), visits[states[i]]));
+        }
+        return hottest;
+    }
+
+    /**
+     * @return the <code>(state, symbol)</code> with the most transitions, most run first; the transitions of the fused
+     * scan chains are not included, as they do not depend on the symbols
+     */
+    public List<String> hottestTransitions(int count) {
+        final Integer[] indexes = new Integer[transitions.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, (a, b) -> Long.compare(transitions[b], transitions[a]));
+
+        final List<String> hottest = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, indexes.length) && transitions[indexes[i]] > 0; i++) {
+            hottest.add(format("%s %s: %d", definition.stateName(indexes[i] / symbolCount),
+                    definition.symbolName(indexes[i] % symbolCount), transitions[indexes[i]]));
+        }
+        return hottest;
+    }
+}
@@ -0,0 +1,47 @@
+package org.perrierFrancois.turing.metrics;
+
+/**
+ * JMX view of {@link ExecutionMetrics}, see {@link MetricsMBeans}.
+ */
+public interface ExecutionMetricsMXBean {
+
+    long getRuns();
+
+    long getSteps();
+
+    double getStepsPerSecond();
+
+    long getLeftGrowth();
+
+    long getRightGrowth();
+
+    /**
+     * @return visits per state id
+     */
+    long[] getStateVisits();
+
+    /**
+     * @return transitions per state id then symbol id, see {@link ExecutionMetrics#transitions()}
+     */
+    long[][] getTransitions();
+
+    /**
+     * @return displacement histogram on the left of the initial ribbon, see {@link ExecutionMetrics#bucket(int)}
+     */
+    long[] getLeftDisplacements();
+
+    /**
+     * @return displacement histogram on the right of the initial ribbon, see {@link ExecutionMetrics#bucket(int)}
+     */
+    long[] getRightDisplacements();
+
+    /**
+     * @return the ten most visited states, with their visit counts
+     */
+    String[] getHottestStates();
+
+    /**
+     * @return the ten <code>(state, symbol)</code> with the most transitions, with their counts
+     */
+    String[] getHottestTransitions();
+}
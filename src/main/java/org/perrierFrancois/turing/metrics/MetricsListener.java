@@ -0,0 +1,18 @@
+package org.perrierFrancois.turing.metrics;
+
+import org.perrierFrancois.turing.RunResult;
+
+/**
+ * Receives the {@link ExecutionMetrics} of a machine after each run call, see
+ * {@link ExecutionMetrics#addListener(MetricsListener)}.
+ */
+@FunctionalInterface
+public interface MetricsListener {
+
+    /**
+     * @param metrics counters of the machine, including the ended call; only valid during the notification, as the
+     *                machine keeps updating them
+     * @param result  result of the ended call
+     */
+    void runCompleted(ExecutionMetrics metrics, RunResult result);
+}
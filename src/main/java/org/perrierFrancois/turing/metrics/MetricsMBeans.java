@@ -0,0 +1,119 @@
+package org.perrierFrancois.turing.metrics;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * Publishes {@link ExecutionMetrics} on the platform MBean server, as
+ * <code>org.perrierFrancois.turing:type=ExecutionMetrics,name=...</code> beans.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class MetricsMBeans {
+
+    public static final String DOMAIN = "org.perrierFrancois.turing";
+
+    private static final int HOTTEST = 10;
+
+    /**
+     * @param metrics called on each attribute read, eg. to merge the metrics of several machines
+     * @return the name of the registered bean
+     * @throws IllegalArgumentException if a bean is already registered with this name
+     */
+    public static ObjectName register(String name, Supplier<ExecutionMetrics> metrics) {
+        try {
+            final ObjectName objectName = new ObjectName(format("%s:type=ExecutionMetrics,name=%s", DOMAIN, ObjectName.quote(name)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new View(metrics), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException(format("Can not register metrics %s", name), e);
+        }
+    }
+
+    public static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            throw new IllegalArgumentException(format("Can not unregister metrics %s", name), e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class View implements ExecutionMetricsMXBean {
+        private final Supplier<ExecutionMetrics> metrics;
+
+        @Override
+        public long getRuns() {
+            return metrics.get().getRuns();
+        }
+
+        @Override
+        public long getSteps() {
+            return metrics.get().getSteps();
+        }
+
+        @Override
+        public double getStepsPerSecond() {
+            return metrics.get().getStepsPerSecond();
+        }
+
+        @Override
+        public long getLeftGrowth() {
+            return metrics.get().getLeftGrowth();
+        }
+
+        @Override
+        public long getRightGrowth() {
+            return metrics.get().getRightGrowth();
+        }
+
+        @Override
+        public long[] getStateVisits() {
+            return metrics.get().visits();
+        }
+
+        @Override
+        public long[] getLeftDisplacements() {
+            return displacements(true);
+        }
+
+        @Override
+        public long[] getRightDisplacements() {
+            return displacements(false);
+        }
+
+        @Override
+        public String[] getHottestStates() {
+            final List<String> hottest = metrics.get().hottestStates(HOTTEST);
+            return hottest.toArray(new String[0]);
+        }
+
+        @Override
+        public long[][] getTransitions() {
+            return metrics.get().transitions();
+        }
+
+        @Override
+        public String[] getHottestTransitions() {
+            final List<String> hottest = metrics.get().hottestTransitions(HOTTEST);
+            return hottest.toArray(new String[0]);
+        }
+
+        private long[] displacements(boolean left) {
+            final ExecutionMetrics metrics = this.metrics.get();
+            final long[] histogram = new long[ExecutionMetrics.BUCKETS];
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                histogram[bucket] = metrics.displacements(bucket, left);
+            }
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package org.perrierFrancois.turing.multitape;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.TuringMachineEngine;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.MultiTapeAction;
+import org.perrierFrancois.turing.definition.MultiTapeDefinition;
+import org.perrierFrancois.turing.tape.ArrayTape;
+import org.perrierFrancois.turing.tape.SymbolTape;
+import org.perrierFrancois.turing.tape.SymbolTapeFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+
+/**
+ * Runs a {@link MultiTapeDefinition}: on each step, the machine reads the symbols under all its heads, writes a symbol
+ * and moves each head, then changes its internal state.<br/>
+ * Like {@link org.perrierFrancois.turing.compiled.CompiledTuringMachine}, states and symbols are interned into ids and
+ * a step is a single lookup, in a table indexed by <code>state</code> and the tuple of read symbols:
+ * <code>state * symbolCount^k + sum(read[t] * symbolCount^t)</code>.<br/>
+ * Reading a tuple without action, or a symbol which does not appear in the definition, leads to
+ * {@link MachineState#ILLEGAL_STATE}.
+ */
+public class MultiTapeTuringMachine implements TuringMachineEngine {
+
+    /**
+     * Upper bound on the size of the action table, in symbols to write (ie. entries times tapes)
+     */
+    public static final int MAX_TABLE_SIZE = 1 << 26;
+
+    private static final byte LEFT = -1;
+    private static final byte RIGHT = 1;
+
+    // config
+    @Getter
+    private final int tapeCount;
+
+    private final int initialState;
+
+    private final boolean[] finalStates;
+
+    private final List<String> stateNames = new ArrayList<>();
+
+    private final List<String> symbolNames = new ArrayList<>();
+
+    private final Map<String, Integer> stateIds = new HashMap<>();
+
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+
+    private final int symbolCount;
+
+    /**
+     * next state per <code>(state, read tuple)</code>, <code>-1</code> when there is no action
+     */
+    private final int[] nextStates;
+
+    /**
+     * <code>tapeCount</code> symbols to write and head moves per <code>(state, read tuple)</code>
+     */
+    private final int[] writes;
+    private final byte[] moves;
+
+    private final SymbolTapeFactory tapeFactory;
+
+    // runtime
+    /**
+     * Transitions counter (purely informal)
+     */
+    @Getter
+    private long transitions;
+
+    @Getter
+    private MachineState machineState;
+
+    private SymbolTape[] tapes;
+
+    private int state;
+
+    /**
+     * Symbols read from the initial ribbons which do not appear in the definition, with ids starting at
+     * <code>symbolCount</code>
+     */
+    private final List<String> foreignSymbols = new ArrayList<>();
+
+    public MultiTapeTuringMachine(MultiTapeDefinition definition) {
+        this(definition, ArrayTape::new);
+    }
+
+    /**
+     * @param tapeFactory builds each tape on initialization
+     * @throws IllegalArgumentException if an action does not have one element per tape, if several actions share the
+     *                                  same state and read tuple, or if the action table would exceed
+     *                                  {@link #MAX_TABLE_SIZE}
+     */
+    public MultiTapeTuringMachine(MultiTapeDefinition definition, SymbolTapeFactory tapeFactory) {
+        this.tapeCount = definition.getTapes();
+        this.tapeFactory = tapeFactory;
+        if (tapeCount < 1) {
+            throw new IllegalArgumentException(format("A machine needs at least one tape, got %d", tapeCount));
+        }
+
+        internSymbol(EMPTY_SYMBOL);
+        this.initialState = internState(definition.getInitialState());
+        for (MultiTapeAction action : definition.getActions()) {
+            if (action.getWhenReading().size() != tapeCount || action.getWrite().size() != tapeCount
+                    || action.getMoves().size() != tapeCount) {
+                throw new IllegalArgumentException(format("Action %s does not match the %d tapes of the machine", action, tapeCount));
+            }
+            internState(action.getInState());
+            internState(action.getToState());
+            action.getWhenReading().forEach(this::internSymbol);
+            action.getWrite().forEach(this::internSymbol);
+        }
+        definition.getFinalStates().forEach(this::internState);
+        this.symbolCount = symbolNames.size();
+
+        long tuples = 1;
+        for (int t = 0; t < tapeCount && tuples <= MAX_TABLE_SIZE; t++) {
+            tuples *= symbolCount;
+        }
+        if (tuples > MAX_TABLE_SIZE / stateNames.size() / tapeCount) {
+            throw new IllegalArgumentException(format("%d states reading %d symbols on %d tapes exceed the action table capacity",
+                    stateNames.size(), symbolCount, tapeCount));
+        }
+
+        this.finalStates = new boolean[stateNames.size()];
+        definition.getFinalStates().forEach(s -> finalStates[stateIds.get(s)] = true);
+
+        final int tableSize = (int) tuples * stateNames.size();
+        this.nextStates = new int[tableSize];
+        this.writes = new int[tableSize * tapeCount];
+        this.moves = new byte[tableSize * tapeCount];
+        Arrays.fill(nextStates, -1);
+        for (MultiTapeAction action : definition.getActions()) {
+            int index = stateIds.get(action.getInState());
+            for (int t = tapeCount - 1; t >= 0; t--) {
+                index = index * symbolCount + symbolIds.get(action.getWhenReading().get(t));
+            }
+            if (nextStates[index] >= 0) {
+                throw new IllegalArgumentException(format("Several actions in state %s when reading %s",
+                        action.getInState(), action.getWhenReading()));
+            }
+            nextStates[index] = stateIds.get(action.getToState());
+            for (int t = 0; t < tapeCount; t++) {
+                writes[index * tapeCount + t] = symbolIds.get(action.getWrite().get(t));
+                final Move move = action.getMoves().get(t);
+                moves[index * tapeCount + t] = move == Move.LEFT ? LEFT : move == Move.RIGHT ? RIGHT : 0;
+            }
+        }
+
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        this.transitions = 0;
+        this.state = initialState;
+        this.tapes = null;
+        this.foreignSymbols.clear();
+        this.machineState = MachineState.READY;
+    }
+
+    /**
+     * Puts the ribbon on the first tape, the other tapes start empty.
+     */
+    @Override
+    public void initialize(List<String> ribbon) {
+        final List<List<String>> ribbons = new ArrayList<>(Collections.nCopies(tapeCount, Collections.emptyList()));
+        ribbons.set(0, ribbon);
+        initializeTapes(ribbons);
+    }
+
+    /**
+     * @param ribbons initial ribbon of each tape; each head starts on the first cell of its ribbon
+     */
+    public void initializeTapes(List<List<String>> ribbons) {
+        assertState(MachineState.READY);
+        if (ribbons.size() != tapeCount) {
+            throw new IllegalArgumentException(format("Expected %d ribbons, got %d", tapeCount, ribbons.size()));
+        }
+
+        final SymbolTape[] tapes = new SymbolTape[tapeCount];
+        for (int t = 0; t < tapeCount; t++) {
+            final List<String> ribbon = ribbons.get(t);
+            final int[] symbols = new int[ribbon.size()];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = symbolId(ribbon.get(i));
+            }
+            tapes[t] = tapeFactory.create(this::symbolName, symbols);
+        }
+        this.tapes = tapes;
+        this.machineState = MachineState.RUNNING;
+    }
+
+    @Override
+    public void nextStep() {
+        assertState(MachineState.RUNNING);
+        step();
+    }
+
+    @Override
+    public RunResult run(long maxSteps) {
+        assertStarted();
+        final long start = transitions;
+
+        while (machineState == MachineState.RUNNING && transitions - start < maxSteps) {
+            step();
+        }
+
+        return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, transitions - start);
+    }
+
+    @Override
+    public RunResult runUntil(Predicate<? super TuringMachineEngine> condition, long maxSteps) {
+        assertStarted();
+        final long start = transitions;
+
+        while (machineState == MachineState.RUNNING && transitions - start < maxSteps) {
+            if (condition.test(this)) {
+                return RunResult.of(machineState, StopReason.CONDITION_MET, transitions, transitions - start);
+            }
+            step();
+        }
+
+        return RunResult.of(machineState, StopReason.BUDGET_EXHAUSTED, transitions, transitions - start);
+    }
+
+    private void step() {
+        final SymbolTape[] tapes = this.tapes;
+        final int tapeCount = this.tapeCount;
+
+        int index = state;
+        for (int t = tapeCount - 1; t >= 0; t--) {
+            final int symbol = tapes[t].read();
+            if (symbol >= symbolCount) {
+                machineState = MachineState.ILLEGAL_STATE;
+                return;
+            }
+            index = index * symbolCount + symbol;
+        }
+
+        final int next = nextStates[index];
+        if (next < 0) {
+            machineState = MachineState.ILLEGAL_STATE;
+            return;
+        }
+
+        final int base = index * tapeCount;
+        for (int t = 0; t < tapeCount; t++) {
+            final SymbolTape tape = tapes[t];
+            tape.write(writes[base + t]);
+            final byte move = moves[base + t];
+            if (move == LEFT) {
+                tape.moveLeft();
+            } else if (move == RIGHT) {
+                tape.moveRight();
+            }
+        }
+
+        state = next;
+        transitions++;
+        if (finalStates[next]) {
+            machineState = MachineState.ACCEPTED;
+        }
+    }
+
+    @Override
+    public String getInternalState() {
+        return stateNames.get(state);
+    }
+
+    /**
+     * @return the tape of the given index, <code>null</code> before initialization
+     */
+    public SymbolTape getTape(int tape) {
+        return tapes == null ? null : tapes[tape];
+    }
+
+    public String symbolName(int symbol) {
+        return symbol < symbolCount ? symbolNames.get(symbol) : foreignSymbols.get(symbol - symbolCount);
+    }
+
+    private int internState(String state) {
+        return stateIds.computeIfAbsent(state, s -> {
+            stateNames.add(s);
+            return stateNames.size() - 1;
+        });
+    }
+
+    private void internSymbol(String symbol) {
+        symbolIds.computeIfAbsent(symbol, s -> {
+            symbolNames.add(s);
+            return symbolNames.size() - 1;
+        });
+    }
+
+    private int symbolId(String symbol) {
+        final Integer id = symbolIds.get(symbol);
+        if (id != null) {
+            return id;
+        }
+
+        int foreign = foreignSymbols.indexOf(symbol);
+        if (foreign < 0) {
+            foreignSymbols.add(symbol);
+            foreign = foreignSymbols.size() - 1;
+        }
+        return symbolCount + foreign;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder("Machine state:  " + machineState.name() + lineSeparator() +
+                "Internal state: " + getInternalState() + lineSeparator());
+
+        if (tapes != null) {
+            for (SymbolTape tape : tapes) {
+                result.append(lineSeparator()).append(tape.toString());
+            }
+        }
+
+        return result.toString();
+    }
+
+    private void assertState(MachineState expectedMachineState) {
+        if (this.machineState != expectedMachineState) {
+            throw new IllegalStateException(format("Machine should be in state %s for this operation", expectedMachineState));
+        }
+    }
+
+    private void assertStarted() {
+        if (this.machineState == MachineState.READY) {
+            throw new IllegalStateException("Machine should be initialized for this operation");
+        }
+    }
+}
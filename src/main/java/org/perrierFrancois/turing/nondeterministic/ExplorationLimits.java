@@ -0,0 +1,34 @@
+package org.perrierFrancois.turing.nondeterministic;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Bounds of a {@link NondeterministicExplorer} run. The explorer checks them while expanding a level, so the limits
+ * may be exceeded by the configurations of a single expansion task.
+ */
+@Value
+@Builder
+public class ExplorationLimits {
+
+    public static final ExplorationLimits DEFAULT = ExplorationLimits.builder().build();
+
+    /**
+     * Maximum number of configurations of a single level
+     */
+    @Builder.Default
+    int maxFrontier = 1 << 20;
+
+    /**
+     * Maximum number of distinct configurations kept by the explorer (in the deduplication set), which bounds its
+     * memory: each configuration costs about a hundred bytes, tapes cells being shared between branches
+     */
+    @Builder.Default
+    long maxConfigurations = 1 << 22;
+
+    /**
+     * Maximum number of transitions of a branch
+     */
+    @Builder.Default
+    long maxDepth = Long.MAX_VALUE;
+}
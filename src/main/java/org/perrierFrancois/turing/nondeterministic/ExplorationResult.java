@@ -0,0 +1,67 @@
+package org.perrierFrancois.turing.nondeterministic;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link NondeterministicExplorer#explore(List, ExplorationLimits)} call.
+ */
+@Value
+public class ExplorationResult {
+
+    public enum Outcome {
+        /**
+         * A branch reached a final state
+         */
+        ACCEPTED,
+        /**
+         * Every branch halted without reaching a final state (no action for the read symbol), or looped back to an
+         * already explored configuration
+         */
+        REJECTED,
+        /**
+         * Stopped by {@link ExplorationLimits#getMaxFrontier()}
+         */
+        FRONTIER_LIMIT,
+        /**
+         * Stopped by {@link ExplorationLimits#getMaxConfigurations()}
+         */
+        CONFIGURATION_LIMIT,
+        /**
+         * Stopped by {@link ExplorationLimits#getMaxDepth()}
+         */
+        DEPTH_LIMIT
+    }
+
+    Outcome outcome;
+
+    /**
+     * Transitions of the accepting branch, or number of explored levels
+     */
+    long depth;
+
+    /**
+     * Distinct configurations explored
+     */
+    long configurations;
+
+    /**
+     * Final state of the accepting branch, <code>null</code> if not {@link Outcome#ACCEPTED}
+     */
+    String finalState;
+
+    /**
+     * Non empty part of the tape of the accepting branch, empty if not {@link Outcome#ACCEPTED}
+     */
+    List<String> tape;
+
+    /**
+     * Head position in {@link #tape}
+     */
+    int position;
+
+    public boolean isAccepted() {
+        return outcome == Outcome.ACCEPTED;
+    }
+}
@@ -0,0 +1,278 @@
+package org.perrierFrancois.turing.nondeterministic;
+
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+import static org.perrierFrancois.turing.nondeterministic.ExplorationResult.Outcome;
+
+/**
+ * Runs nondeterministic definitions, ie. definitions with several actions for the same <code>(state, symbol)</code>,
+ * which {@link org.perrierFrancois.turing.TuringMachine} rejects.<br/>
+ * The explorer expands the configurations (internal state and tape) breadth-first, one level per transition: each
+ * level is split over a {@link ForkJoinPool}, and the configurations of the next level are deduplicated in a
+ * concurrent set, so that branches joining (or looping back to) an explored configuration are only expanded once.
+ * Tapes are {@link PersistentTape}s, whose cells are shared between branches.<br/>
+ * The exploration stops as soon as a branch reaches a final state: being breadth-first, the accepting branch is one
+ * of the shortest. A definition without any accepting branch is {@link Outcome#REJECTED} once every reachable
+ * configuration has been explored, which may never happen when tapes keep growing: see {@link ExplorationLimits}.
+ */
+public class NondeterministicExplorer {
+
+    /**
+     * Configurations expanded by a single task
+     */
+    private static final int TASK_SIZE = 512;
+
+    private static final long[] NO_CHOICE = new long[0];
+
+    private final ForkJoinPool pool;
+
+    private final String[] stateNames;
+
+    private final int initialState;
+
+    private final boolean[] finalStates;
+
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+
+    private final String[] symbolNames;
+
+    private final int symbolCount;
+
+    /**
+     * actions per <code>state * symbolCount + symbol</code>, packed as <code>(next << 32) | (write << 2) | move</code>
+     */
+    private final long[][] choices;
+
+    public NondeterministicExplorer(TuringMachineDefinition definition) {
+        this(definition, ForkJoinPool.commonPool());
+    }
+
+    public NondeterministicExplorer(TuringMachineDefinition definition, ForkJoinPool pool) {
+        this.pool = pool;
+
+        final Map<String, Integer> stateIds = new HashMap<>();
+        stateIds.put(definition.getInitialState(), 0);
+        symbolIds.put(EMPTY_SYMBOL, 0);
+        for (Action action : definition.getActions()) {
+            stateIds.putIfAbsent(action.getInState(), stateIds.size());
+            stateIds.putIfAbsent(action.getToState(), stateIds.size());
+            symbolIds.putIfAbsent(action.getWhenReading(), symbolIds.size());
+            symbolIds.putIfAbsent(action.getWrite(), symbolIds.size());
+        }
+        definition.getFinalStates().forEach(s -> stateIds.putIfAbsent(s, stateIds.size()));
+
+        this.stateNames = new String[stateIds.size()];
+        stateIds.forEach((name, id) -> stateNames[id] = name);
+        this.symbolNames = new String[symbolIds.size()];
+        symbolIds.forEach((name, id) -> symbolNames[id] = name);
+        this.symbolCount = symbolNames.length;
+        this.initialState = 0;
+        this.finalStates = new boolean[stateNames.length];
+        definition.getFinalStates().forEach(s -> finalStates[stateIds.get(s)] = true);
+
+        this.choices = new long[stateNames.length * symbolCount][];
+        Arrays.fill(choices, NO_CHOICE);
+        for (Action action : definition.getActions()) {
+            final int index = stateIds.get(action.getInState()) * symbolCount + symbolIds.get(action.getWhenReading());
+            final long choice = (long) stateIds.get(action.getToState()) << 32
+                    | (long) symbolIds.get(action.getWrite()) << 2
+                    | action.getMove().ordinal();
+            if (Arrays.stream(choices[index]).noneMatch(c -> c == choice)) {
+                choices[index] = Arrays.copyOf(choices[index], choices[index].length + 1);
+                choices[index][choices[index].length - 1] = choice;
+            }
+        }
+    }
+
+    /**
+     * Explores the runs of the machine on the given ribbon.<br/>
+     * Symbols of the ribbon which do not appear in the definition halt the branches reading them.
+     */
+    public ExplorationResult explore(List<String> ribbon, ExplorationLimits limits) {
+        final List<String> foreignSymbols = new ArrayList<>();
+        final int[] symbols = new int[ribbon.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            final Integer id = symbolIds.get(ribbon.get(i));
+            if (id != null) {
+                symbols[i] = id;
+            } else {
+                if (!foreignSymbols.contains(ribbon.get(i))) {
+                    foreignSymbols.add(ribbon.get(i));
+                }
+                symbols[i] = symbolCount + foreignSymbols.indexOf(ribbon.get(i));
+            }
+        }
+
+        final Configuration initial = new Configuration(initialState, PersistentTape.of(symbols));
+        if (finalStates[initialState]) {
+            return accepted(initial, 0, 1, foreignSymbols);
+        }
+
+        final Exploration exploration = new Exploration(limits);
+        exploration.visited.add(initial);
+        exploration.configurations.increment();
+        Configuration[] frontier = {initial};
+
+        for (long depth = 0; ; depth++) {
+            if (frontier.length == 0) {
+                return result(Outcome.REJECTED, depth, exploration);
+            }
+            if (depth >= limits.getMaxDepth()) {
+                return result(Outcome.DEPTH_LIMIT, depth, exploration);
+            }
+
+            frontier = pool.invoke(new Expansion(exploration, frontier, 0, frontier.length))
+                    .toArray(new Configuration[0]);
+
+            final Configuration accepted = exploration.accepted.get();
+            if (accepted != null) {
+                return accepted(accepted, depth + 1, exploration.configurations.sum(), foreignSymbols);
+            }
+            if (exploration.configurations.sum() > limits.getMaxConfigurations()) {
+                return result(Outcome.CONFIGURATION_LIMIT, depth + 1, exploration);
+            }
+            if (frontier.length > limits.getMaxFrontier()) {
+                return result(Outcome.FRONTIER_LIMIT, depth + 1, exploration);
+            }
+        }
+    }
+
+    private ExplorationResult result(Outcome outcome, long depth, Exploration exploration) {
+        return new ExplorationResult(outcome, depth, exploration.configurations.sum(), null, List.of(), 0);
+    }
+
+    private ExplorationResult accepted(Configuration configuration, long depth, long configurations, List<String> foreignSymbols) {
+        final List<String> tape = new ArrayList<>();
+        for (int symbol : configuration.tape.toArray()) {
+            tape.add(symbol < symbolCount ? symbolNames[symbol] : foreignSymbols.get(symbol - symbolCount));
+        }
+        return new ExplorationResult(Outcome.ACCEPTED, depth, configurations, stateNames[configuration.state], tape,
+                configuration.tape.getPosition());
+    }
+
+    /**
+     * State shared by the expansion tasks of an {@link #explore(List, ExplorationLimits)} call
+     */
+    private static final class Exploration {
+        final ExplorationLimits limits;
+        final Set<Configuration> visited = ConcurrentHashMap.newKeySet();
+        final LongAdder configurations = new LongAdder();
+        final AtomicReference<Configuration> accepted = new AtomicReference<>();
+
+        Exploration(ExplorationLimits limits) {
+            this.limits = limits;
+        }
+
+        boolean stopped() {
+            return accepted.get() != null || configurations.sum() > limits.getMaxConfigurations();
+        }
+    }
+
+    /**
+     * Expands <code>frontier[from, to)</code>, returning the new configurations of the next level
+     */
+    private final class Expansion extends RecursiveTask<List<Configuration>> {
+        private final Exploration exploration;
+        private final Configuration[] frontier;
+        private final int from;
+        private final int to;
+
+        Expansion(Exploration exploration, Configuration[] frontier, int from, int to) {
+            this.exploration = exploration;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Configuration> compute() {
+            if (to - from > TASK_SIZE) {
+                final int middle = (from + to) >>> 1;
+                final Expansion right = new Expansion(exploration, frontier, middle, to);
+                right.fork();
+                final List<Configuration> next = new Expansion(exploration, frontier, from, middle).compute();
+                next.addAll(right.join());
+                return next;
+            }
+
+            final List<Configuration> next = new ArrayList<>();
+            long added = 0;
+            for (int i = from; i < to && !exploration.stopped(); i++) {
+                final Configuration configuration = frontier[i];
+                final int symbol = configuration.tape.read();
+                if (symbol >= symbolCount) {
+                    continue;
+                }
+                for (long choice : choices[configuration.state * symbolCount + symbol]) {
+                    final Configuration successor = new Configuration((int) (choice >>> 32), move(
+                            configuration.tape.write((int) choice >>> 2), (int) choice & 0b11));
+                    if (!exploration.visited.add(successor)) {
+                        continue;
+                    }
+                    added++;
+                    if (finalStates[successor.state]) {
+                        exploration.accepted.compareAndSet(null, successor);
+                        break;
+                    }
+                    next.add(successor);
+                }
+                if (added >= TASK_SIZE) {
+                    exploration.configurations.add(added);
+                    added = 0;
+                }
+            }
+            exploration.configurations.add(added);
+            return next;
+        }
+    }
+
+    private static PersistentTape move(PersistentTape tape, int move) {
+        if (move == Move.LEFT.ordinal()) {
+            return tape.moveLeft();
+        } else if (move == Move.RIGHT.ordinal()) {
+            return tape.moveRight();
+        }
+        return tape;
+    }
+
+    private static final class Configuration {
+        final int state;
+        final PersistentTape tape;
+        final int hash;
+
+        Configuration(int state, PersistentTape tape) {
+            this.state = state;
+            this.tape = tape;
+            this.hash = 31 * tape.hashCode() + state;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Configuration)) {
+                return false;
+            }
+            final Configuration other = (Configuration) o;
+            return state == other.state && hash == other.hash && tape.equals(other.tape);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
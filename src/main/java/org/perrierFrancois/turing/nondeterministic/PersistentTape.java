@@ -0,0 +1,153 @@
+package org.perrierFrancois.turing.nondeterministic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.EMPTY_SYMBOL_ID;
+
+/**
+ * Immutable tape of symbol ids: writing or moving returns a new tape, which shares all its cells but the one under
+ * the head with the original tape, so that the branches of a nondeterministic run cost <code>O(1)</code> memory per
+ * transition.<br/>
+ * The tape is a zipper: the symbol under the head, and the cells on each side as linked lists, nearest cell first.
+ * The lists never end with empty cells (moving past an end reads the empty symbol), so two tapes holding the same
+ * symbols around the head are {@link #equals(Object) equal} whatever the empty cells visited by the head; each list
+ * node caches its hash, making {@link #hashCode()} constant time.
+ */
+public final class PersistentTape {
+
+    private final Node left;
+
+    private final int symbol;
+
+    private final Node right;
+
+    private PersistentTape(Node left, int symbol, Node right) {
+        this.left = left;
+        this.symbol = symbol;
+        this.right = right;
+    }
+
+    /**
+     * @param ribbon symbol ids of the initial ribbon; the head starts on its first cell
+     */
+    public static PersistentTape of(int[] ribbon) {
+        Node right = null;
+        for (int i = ribbon.length - 1; i >= 1; i--) {
+            right = Node.push(ribbon[i], right);
+        }
+        return new PersistentTape(null, ribbon.length == 0 ? EMPTY_SYMBOL_ID : ribbon[0], right);
+    }
+
+    public int read() {
+        return symbol;
+    }
+
+    public PersistentTape write(int symbol) {
+        return symbol == this.symbol ? this : new PersistentTape(left, symbol, right);
+    }
+
+    public PersistentTape moveLeft() {
+        return new PersistentTape(Node.tail(left), Node.head(left), Node.push(symbol, right));
+    }
+
+    public PersistentTape moveRight() {
+        return new PersistentTape(Node.push(symbol, left), Node.head(right), Node.tail(right));
+    }
+
+    /**
+     * @return the symbol ids from the leftmost to the rightmost non empty cell, including the cell under the head
+     */
+    public int[] toArray() {
+        final int[] symbols = new int[getPosition() + 1 + Node.size(right)];
+        int i = getPosition();
+        symbols[i] = symbol;
+        for (Node node = left; node != null; node = node.next) {
+            symbols[--i] = node.symbol;
+        }
+        i = getPosition();
+        for (Node node = right; node != null; node = node.next) {
+            symbols[++i] = node.symbol;
+        }
+        return symbols;
+    }
+
+    /**
+     * @return the head position in {@link #toArray()}
+     */
+    public int getPosition() {
+        return Node.size(left);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentTape)) {
+            return false;
+        }
+        final PersistentTape other = (PersistentTape) o;
+        return symbol == other.symbol && Node.equals(left, other.left) && Node.equals(right, other.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * Node.hash(left) + symbol) * 31 + Node.hash(right);
+    }
+
+    @Override
+    public String toString() {
+        final List<String> cells = new ArrayList<>();
+        final int[] symbols = toArray();
+        for (int i = 0; i < symbols.length; i++) {
+            cells.add(i == getPosition() ? "[" + symbols[i] + "]" : String.valueOf(symbols[i]));
+        }
+        return String.join("|", cells);
+    }
+
+    private static final class Node {
+        final int symbol;
+        final Node next;
+        final int hash;
+        final int size;
+
+        private Node(int symbol, Node next) {
+            this.symbol = symbol;
+            this.next = next;
+            this.hash = 31 * hash(next) + symbol + 1;
+            this.size = size(next) + 1;
+        }
+
+        static Node push(int symbol, Node list) {
+            return list == null && symbol == EMPTY_SYMBOL_ID ? null : new Node(symbol, list);
+        }
+
+        static int head(Node list) {
+            return list == null ? EMPTY_SYMBOL_ID : list.symbol;
+        }
+
+        static Node tail(Node list) {
+            return list == null ? null : list.next;
+        }
+
+        static int hash(Node list) {
+            return list == null ? 0 : list.hash;
+        }
+
+        static int size(Node list) {
+            return list == null ? 0 : list.size;
+        }
+
+        static boolean equals(Node a, Node b) {
+            while (a != b) {
+                if (a == null || b == null || a.hash != b.hash || a.size != b.size || a.symbol != b.symbol) {
+                    return false;
+                }
+                a = a.next;
+                b = b.next;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.perrierFrancois.turing.service;
+
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compiled definitions by SHA-256 hash of their text (see {@link DefinitionText}), so that definitions submitted over
+ * and over are parsed and compiled once. The least recently used definitions are evicted past <code>maxEntries</code>.
+ * <br/>
+ * Definitions are compiled out of the lock: two threads missing the same text at once both compile it, the last one
+ * being kept.
+ */
+class DefinitionCache {
+
+    private final int maxEntries;
+
+    private final Map<String, CompiledDefinition> definitions;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    DefinitionCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.definitions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledDefinition> eldest) {
+                return size() > DefinitionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a valid definition
+     */
+    CompiledDefinition get(String text) {
+        final String hash = hash(text);
+        synchronized (definitions) {
+            final CompiledDefinition definition = definitions.get(hash);
+            if (definition != null) {
+                hits.increment();
+                return definition;
+            }
+        }
+
+        misses.increment();
+        final CompiledDefinition definition = DefinitionText.compile(text);
+        synchronized (definitions) {
+            definitions.put(hash, definition);
+        }
+        return definition;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    static String hash(String text) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM implements SHA-256
+            throw new IllegalStateException(e);
+        }
+        final StringBuilder hex = new StringBuilder(2 * digest.getDigestLength());
+        for (byte b : digest.digest(text.getBytes(StandardCharsets.UTF_8))) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
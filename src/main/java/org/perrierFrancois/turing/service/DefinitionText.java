@@ -0,0 +1,106 @@
+package org.perrierFrancois.turing.service;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.definition.Move;
+
+import static java.lang.String.format;
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+
+/**
+ * Text form of the definitions submitted to a {@link JobService}, one declaration per line:
+ * <pre>
+ * # binary increment
+ * initial right
+ * final done
+ * right 0 0 R right
+ * right 1 1 R right
+ * right _ _ L carry
+ * carry 1 0 L carry
+ * carry 0 1 N done
+ * carry _ 1 N done
+ * </pre>
+ * An action is the state, the symbol read, the symbol written, the move (<code>L</code>, <code>R</code> or
+ * <code>N</code>) and the next state, separated by whitespace; <code>_</code> is the empty symbol. Several final states
+ * can be declared on a line. Empty lines and lines starting with <code>#</code> are ignored.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DefinitionText {
+
+    public static final String EMPTY_TOKEN = "_";
+
+    /**
+     * Streams the actions into a {@link CompiledDefinition.Builder}: no intermediate definition is built.
+     *
+     * @throws IllegalArgumentException if the text is not a valid definition, with the offending line number
+     */
+    public static CompiledDefinition compile(String text) {
+        final CompiledDefinition.Builder builder = CompiledDefinition.builder();
+        boolean initial = false;
+
+        final String[] lines = text.split("\\R");
+        for (int line = 0; line < lines.length; line++) {
+            final String trimmed = lines[line].trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            final String[] tokens = trimmed.split("\\s+");
+            try {
+                switch (tokens[0]) {
+                    case "initial":
+                        expect(tokens, 2);
+                        builder.initialState(tokens[1]);
+                        initial = true;
+                        break;
+                    case "final":
+                        if (tokens.length < 2) {
+                            throw new IllegalArgumentException("No final state");
+                        }
+                        for (int i = 1; i < tokens.length; i++) {
+                            builder.finalState(tokens[i]);
+                        }
+                        break;
+                    default:
+                        expect(tokens, 5);
+                        builder.action(tokens[0], symbol(tokens[1]), symbol(tokens[2]), move(tokens[3]), tokens[4]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(format("Line %d: %s", line + 1, e.getMessage()), e);
+            }
+        }
+
+        if (!initial) {
+            throw new IllegalArgumentException("No initial state");
+        }
+        try {
+            return builder.build();
+        } catch (IllegalStateException e) {
+            // duplicate actions
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static void expect(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException(format("Expected %d tokens, got %d", count, tokens.length));
+        }
+    }
+
+    private static String symbol(String token) {
+        return EMPTY_TOKEN.equals(token) ? EMPTY_SYMBOL : token;
+    }
+
+    private static Move move(String token) {
+        switch (token) {
+            case "L":
+                return Move.LEFT;
+            case "R":
+                return Move.RIGHT;
+            case "N":
+                return Move.DONT_MOVE;
+            default:
+                throw new IllegalArgumentException(format("Invalid move %s, should be L, R or N", token));
+        }
+    }
+}
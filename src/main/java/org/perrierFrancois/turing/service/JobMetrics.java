@@ -0,0 +1,144 @@
+package org.perrierFrancois.turing.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+
+/**
+ * Counters of a {@link JobService}, updated by the threads running the jobs and read from any thread:
+ * <ul>
+ * <li>jobs waiting for their first slice, and jobs started but not completed</li>
+ * <li>submitted, rejected (see {@link JobServiceOptions#getMaxPendingJobs()}) and completed jobs</li>
+ * <li>percentiles of the latency, from submission to completion, over the last {@link #LATENCY_SAMPLES} jobs</li>
+ * <li>transitions, and transitions per second since the service started</li>
+ * </ul>
+ */
+public class JobMetrics {
+
+    public static final int LATENCY_SAMPLES = 4096;
+
+    private final long startNanos = System.nanoTime();
+
+    final AtomicInteger queued = new AtomicInteger();
+
+    final AtomicInteger running = new AtomicInteger();
+
+    final LongAdder submitted = new LongAdder();
+
+    final LongAdder rejected = new LongAdder();
+
+    final LongAdder completed = new LongAdder();
+
+    final LongAdder steps = new LongAdder();
+
+    /**
+     * ring buffer of the last latencies, guarded by itself
+     */
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+
+    private long latencyCount;
+
+    private final DefinitionCache cache;
+
+    JobMetrics(DefinitionCache cache) {
+        this.cache = cache;
+    }
+
+    void completed(long latencyNanos, long transitions) {
+        completed.increment();
+        steps.add(transitions);
+        synchronized (latencies) {
+            latencies[(int) (latencyCount++ % LATENCY_SAMPLES)] = latencyNanos;
+        }
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getSteps() {
+        return steps.sum();
+    }
+
+    public double getStepsPerSecond() {
+        return getSteps() * 1e9 / Math.max(1, System.nanoTime() - startNanos);
+    }
+
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     *
+     * @return the latency below which fall <code>percentile</code> percent of the last jobs, 0 if no job completed
+     */
+    public long getLatency(double percentile, TimeUnit unit) {
+        return unit.convert(latencyPercentiles(percentile)[0], TimeUnit.NANOSECONDS);
+    }
+
+    private long[] latencyPercentiles(double... percentiles) {
+        final long[] sorted;
+        synchronized (latencies) {
+            sorted = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_SAMPLES));
+        }
+        Arrays.sort(sorted);
+
+        final long[] values = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (percentiles[i] < 0 || percentiles[i] > 100) {
+                throw new IllegalArgumentException(format("Invalid percentile %f", percentiles[i]));
+            }
+            if (sorted.length > 0) {
+                // nearest rank
+                values[i] = sorted[Math.max(0, (int) Math.ceil(percentiles[i] / 100 * sorted.length) - 1)];
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return the metrics as <code>name value</code> lines
+     */
+    @Override
+    public String toString() {
+        final long[] latencies = latencyPercentiles(50, 90, 99);
+        return "jobs_queued " + getQueueDepth() + lineSeparator() +
+                "jobs_running " + getRunning() + lineSeparator() +
+                "jobs_submitted " + getSubmitted() + lineSeparator() +
+                "jobs_rejected " + getRejected() + lineSeparator() +
+                "jobs_completed " + getCompleted() + lineSeparator() +
+                format(Locale.ROOT, "latency_p50_ms %.3f", latencies[0] / 1e6) + lineSeparator() +
+                format(Locale.ROOT, "latency_p90_ms %.3f", latencies[1] / 1e6) + lineSeparator() +
+                format(Locale.ROOT, "latency_p99_ms %.3f", latencies[2] / 1e6) + lineSeparator() +
+                "steps " + getSteps() + lineSeparator() +
+                format(Locale.ROOT, "steps_per_second %.0f", getStepsPerSecond()) + lineSeparator() +
+                "definition_cache_hits " + getCacheHits() + lineSeparator() +
+                "definition_cache_misses " + getCacheMisses() + lineSeparator();
+    }
+}
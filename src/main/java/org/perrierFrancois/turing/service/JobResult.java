@@ -0,0 +1,59 @@
+package org.perrierFrancois.turing.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a job run by a {@link JobService}.
+ */
+@Value
+public class JobResult {
+
+    public enum Outcome {
+        /**
+         * The machine reached a final state
+         */
+        ACCEPTED,
+        /**
+         * No action is defined for the internal state and the symbol read
+         */
+        ILLEGAL_STATE,
+        /**
+         * Stopped by the step budget of the job
+         */
+        STEP_LIMIT,
+        /**
+         * Stopped by {@link JobServiceOptions#getMaxTime()}
+         */
+        TIME_LIMIT
+    }
+
+    long id;
+
+    Outcome outcome;
+
+    String internalState;
+
+    long transitions;
+
+    /**
+     * Symbols of the tape, from its leftmost cell
+     */
+    List<String> symbols;
+
+    /**
+     * Head position in {@link #getSymbols()}
+     */
+    int position;
+
+    /**
+     * Time between the submission and the first slice of the job
+     */
+    long queueNanos;
+
+    /**
+     * Time spent running the slices of the job
+     */
+    long runNanos;
+}
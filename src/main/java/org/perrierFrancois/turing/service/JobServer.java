@@ -0,0 +1,164 @@
+package org.perrierFrancois.turing.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.lang.System.lineSeparator;
+
+/**
+ * HTTP front end of a {@link JobService}, listening on the loopback interface only:
+ * <ul>
+ * <li><code>POST /jobs?ribbon=0110&amp;maxSteps=1000</code>, the body being the definition in the
+ * {@link DefinitionText} format, answers once the job is over with its result as <code>name value</code> lines; a
+ * space of the ribbon (<code>+</code> or <code>%20</code>) is an empty cell and the step budget is optional.
+ * Answers <code>400</code> to an invalid definition, <code>429</code> when too many jobs are pending,
+ * <code>500</code> if the job failed, and <code>503</code> once the service is closed</li>
+ * <li><code>GET /metrics</code> answers the {@link JobMetrics}</li>
+ * </ul>
+ * Requests are handled on a thread each (virtual when available), which waits for the job.
+ */
+public class JobServer implements Closeable {
+
+    private final JobService service;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private JobServer(JobService service, HttpServer server) {
+        this.service = service;
+        this.server = server;
+        this.executor = Threads.newPerTaskExecutor("turing-http");
+        server.createContext("/jobs", this::submit);
+        server.createContext("/metrics", this::metrics);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * @param port <code>0</code> for any free port, see {@link #getPort()}
+     */
+    public static JobServer start(JobService service, int port) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        final JobServer jobServer = new JobServer(service, server);
+        server.start();
+        return jobServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST");
+                return;
+            }
+            final Map<String, String> parameters = parameters(exchange.getRequestURI().getRawQuery());
+            final String definition = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            final JobResult result;
+            try {
+                final String ribbon = parameters.getOrDefault("ribbon", "");
+                result = parameters.containsKey("maxSteps")
+                        ? service.submit(definition, ribbon, Long.parseLong(parameters.get("maxSteps"))).get()
+                        : service.submit(definition, ribbon).get();
+            } catch (IllegalArgumentException e) {
+                // invalid definition or budget
+                respond(exchange, 400, e.getMessage());
+                return;
+            } catch (RejectedExecutionException e) {
+                if (!service.isClosed()) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                }
+                respond(exchange, service.isClosed() ? 503 : 429, e.getMessage());
+                return;
+            } catch (CancellationException e) {
+                respond(exchange, 503, e.getMessage());
+                return;
+            } catch (ExecutionException e) {
+                // the job itself failed
+                respond(exchange, 500, String.valueOf(e.getCause()));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Interrupted");
+                return;
+            }
+
+            respond(exchange, 200, format(result));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        try {
+            respond(exchange, 200, service.getMetrics().toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String format(JobResult result) {
+        final StringBuilder tape = new StringBuilder();
+        for (String symbol : result.getSymbols()) {
+            tape.append(symbol.isEmpty() ? DefinitionText.EMPTY_TOKEN : symbol);
+        }
+        return "id " + result.getId() + lineSeparator() +
+                "outcome " + result.getOutcome() + lineSeparator() +
+                "state " + result.getInternalState() + lineSeparator() +
+                "transitions " + result.getTransitions() + lineSeparator() +
+                "tape " + tape + lineSeparator() +
+                "position " + result.getPosition() + lineSeparator() +
+                "queue_us " + result.getQueueNanos() / 1000 + lineSeparator() +
+                "run_us " + result.getRunNanos() / 1000 + lineSeparator();
+    }
+
+    private static Map<String, String> parameters(String query) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            final int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] bytes = (body == null ? "" : body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Stops the server, without closing the service.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,221 @@
+package org.perrierFrancois.turing.service;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.tape.SymbolTape;
+
+import java.io.Closeable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * Runs jobs, ie. a definition in the {@link DefinitionText} format and a ribbon (see
+ * {@link org.perrierFrancois.turing.CharSymbols}), on {@link CompiledTuringMachine}s.<br/>
+ * Definitions are compiled once per distinct text (see {@link DefinitionCache}). Each job runs on a thread of its own,
+ * a virtual one when the runtime has them, until it halts or exhausts its step or time budget
+ * (see {@link JobServiceOptions}); the time budget runs from the first slice of the job, waiting for the following
+ * slices included.<br/>
+ * Admission is bounded: once {@link JobServiceOptions#getMaxPendingJobs()} jobs are queued or running, submissions
+ * are rejected, so that callers back off instead of piling up work. Jobs run by slices of
+ * {@link JobServiceOptions#getSliceSteps()} transitions, at most {@link JobServiceOptions#getParallelism()} at a time,
+ * and a job waits behind the already waiting ones before each slice: long jobs are time sliced with the others rather
+ * than holding a processor, so a short job only waits for a slice of each running job.
+ */
+public class JobService implements Closeable {
+
+    private final JobServiceOptions options;
+
+    private final DefinitionCache cache;
+
+    @Getter
+    private final JobMetrics metrics;
+
+    private final ExecutorService executor;
+
+    /**
+     * one permit per job running a slice, fair so that permits go to the jobs in the order they asked for them
+     */
+    private final Semaphore slices;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public JobService() {
+        this(JobServiceOptions.DEFAULT);
+    }
+
+    public JobService(JobServiceOptions options) {
+        if (options.getParallelism() < 1 || options.getMaxPendingJobs() < 1 || options.getSliceSteps() < 1) {
+            throw new IllegalArgumentException(format("Invalid parallelism (%d), max pending jobs (%d) or slice (%d)",
+                    options.getParallelism(), options.getMaxPendingJobs(), options.getSliceSteps()));
+        }
+        this.options = options;
+        this.cache = new DefinitionCache(options.getCacheSize());
+        this.metrics = new JobMetrics(cache);
+        this.executor = Threads.newPerTaskExecutor("turing-job");
+        this.slices = new Semaphore(options.getParallelism(), true);
+    }
+
+    /**
+     * @return whether jobs run on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return Threads.hasVirtualThreads();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Runs the ribbon on the definition, with the step budget of the options.
+     */
+    public CompletableFuture<JobResult> submit(String definition, CharSequence ribbon) {
+        return submit(definition, ribbon, options.getMaxSteps());
+    }
+
+    /**
+     * @param maxSteps step budget of the job, capped by {@link JobServiceOptions#getMaxSteps()}
+     *
+     * @return the result, completed once the job is over; cancelled if the service is closed before
+     *
+     * @throws IllegalArgumentException   if the definition is not valid
+     * @throws RejectedExecutionException if the service is closed or has {@link JobServiceOptions#getMaxPendingJobs()}
+     *                                    jobs pending
+     */
+    public CompletableFuture<JobResult> submit(String definition, CharSequence ribbon, long maxSteps) {
+        final long submitted = System.nanoTime();
+        metrics.submitted.increment();
+        if (closed) {
+            metrics.rejected.increment();
+            throw new RejectedExecutionException("Job service closed");
+        }
+        if (pending.incrementAndGet() > options.getMaxPendingJobs()) {
+            pending.decrementAndGet();
+            metrics.rejected.increment();
+            throw new RejectedExecutionException(format("%d jobs pending", options.getMaxPendingJobs()));
+        }
+
+        // once admitted, so that rejected jobs cost no compilation
+        final CompiledDefinition compiled;
+        try {
+            compiled = cache.get(definition);
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+        final String symbols = ribbon.toString();
+
+        final CompletableFuture<JobResult> result = new CompletableFuture<>();
+        final long id = ids.incrementAndGet();
+        metrics.queued.incrementAndGet();
+        try {
+            executor.execute(() -> run(id, compiled, symbols, Math.min(maxSteps, options.getMaxSteps()), submitted, result));
+        } catch (RejectedExecutionException e) {
+            // closed meanwhile
+            metrics.queued.decrementAndGet();
+            pending.decrementAndGet();
+            metrics.rejected.increment();
+            throw e;
+        }
+        return result;
+    }
+
+    private void run(long id, CompiledDefinition definition, String ribbon, long maxSteps, long submitted,
+                     CompletableFuture<JobResult> result) {
+        final long maxNanos = options.getMaxTime().toNanos();
+        boolean running = false;
+        long started = 0;
+        long runNanos = 0;
+        JobResult jobResult = null;
+        Throwable failure = null;
+
+        try {
+            final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+            machine.initialize(ribbon);
+
+            JobResult.Outcome outcome = null;
+            while (outcome == null) {
+                slices.acquire();
+                final long start = System.nanoTime();
+                try {
+                    if (!running) {
+                        running = true;
+                        started = start;
+                        metrics.queued.decrementAndGet();
+                        metrics.running.incrementAndGet();
+                    }
+                    // past the deadline while waiting for this slice
+                    if (start - started < maxNanos) {
+                        machine.run(Math.min(options.getSliceSteps(), maxSteps - machine.getTransitions()));
+                    }
+                } finally {
+                    runNanos += System.nanoTime() - start;
+                    slices.release();
+                }
+
+                if (machine.getMachineState() == MachineState.ACCEPTED) {
+                    outcome = JobResult.Outcome.ACCEPTED;
+                } else if (machine.getMachineState() != MachineState.RUNNING) {
+                    outcome = JobResult.Outcome.ILLEGAL_STATE;
+                } else if (machine.getTransitions() >= maxSteps) {
+                    outcome = JobResult.Outcome.STEP_LIMIT;
+                } else if (System.nanoTime() - started >= maxNanos) {
+                    outcome = JobResult.Outcome.TIME_LIMIT;
+                }
+            }
+
+            final SymbolTape tape = machine.getTape();
+            jobResult = new JobResult(id, outcome, machine.getInternalState(), machine.getTransitions(),
+                    tape.getSymbols(), tape.getPosition(), started - submitted, runNanos);
+            metrics.completed(System.nanoTime() - submitted, machine.getTransitions());
+        } catch (InterruptedException e) {
+            // closed
+            Thread.currentThread().interrupt();
+            failure = new CancellationException("Job service closed");
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            if (running) {
+                metrics.running.decrementAndGet();
+            } else {
+                metrics.queued.decrementAndGet();
+            }
+            pending.decrementAndGet();
+        }
+
+        // once the counters are up to date, for the callers reading them as soon as their job completes
+        if (jobResult != null) {
+            result.complete(jobResult);
+        } else {
+            result.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Rejects the following submissions and cancels the pending jobs.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
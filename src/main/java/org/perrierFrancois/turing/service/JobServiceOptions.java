@@ -0,0 +1,54 @@
+package org.perrierFrancois.turing.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Capacity and budgets of a {@link JobService}.
+ */
+@Value
+@Builder
+public class JobServiceOptions {
+
+    public static final JobServiceOptions DEFAULT = JobServiceOptions.builder().build();
+
+    /**
+     * Maximum number of jobs running a slice at the same time
+     */
+    @Builder.Default
+    int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of admitted jobs, queued or running, beyond which submissions are rejected
+     */
+    @Builder.Default
+    int maxPendingJobs = 1024;
+
+    /**
+     * Maximum number of transitions of a job, whatever the job asks for
+     */
+    @Builder.Default
+    long maxSteps = 100_000_000L;
+
+    /**
+     * Maximum time between the first slice of a job and its end, the slices of the other jobs included: the longer jobs
+     * wait for slices, the fewer transitions they run before being stopped
+     */
+    @Builder.Default
+    Duration maxTime = Duration.ofSeconds(10);
+
+    /**
+     * Transitions run by a job before letting the next waiting job run: the longer, the less scheduling overhead, the
+     * shorter, the less latency added to short jobs by long ones
+     */
+    @Builder.Default
+    long sliceSteps = 1 << 18;
+
+    /**
+     * Maximum number of compiled definitions kept, see {@link DefinitionCache}
+     */
+    @Builder.Default
+    int cacheSize = 256;
+}
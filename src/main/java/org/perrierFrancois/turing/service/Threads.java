@@ -0,0 +1,51 @@
+package org.perrierFrancois.turing.service;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors starting a thread per task: virtual threads when the runtime has them (Java 21 and later), looked up by
+ * reflection as the library targets Java 11, and cached daemon platform threads otherwise.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Threads {
+
+    private static final ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+
+    static boolean hasVirtualThreads() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    static ExecutorService newPerTaskExecutor(String name) {
+        if (VIRTUAL_THREADS != null) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, VIRTUAL_THREADS);
+            } catch (ReflectiveOperationException e) {
+                // fall back to platform threads
+            }
+        }
+
+        final AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            final Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // before Java 21, or preview features disabled
+            return null;
+        }
+    }
+}
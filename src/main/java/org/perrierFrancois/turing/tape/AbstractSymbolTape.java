@@ -0,0 +1,80 @@
+package org.perrierFrancois.turing.tape;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Views shared by {@link SymbolTape} implementations: symbol names are resolved lazily, only when the tape is read back.
+ */
+public abstract class AbstractSymbolTape implements SymbolTape {
+
+    private final IntFunction<String> symbolNames;
+
+    protected AbstractSymbolTape(IntFunction<String> symbolNames) {
+        this.symbolNames = symbolNames;
+    }
+
+    @Override
+    public String symbolName(int symbol) {
+        return symbolNames.apply(symbol);
+    }
+
+    @Override
+    public List<String> getSymbols() {
+        return stream().collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<String> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return symbolName(symbolAt(next++));
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        final List<String> symbols = getSymbols();
+
+        final int maxSymbolSize = Math.max(1, symbols.stream()
+                .mapToInt(String::length)
+                .max().orElse(0));
+
+        final String format = "%" + maxSymbolSize + "s";
+
+        final String tape = symbols.stream()
+                .map(symbol -> format(format, symbol))
+                .collect(joining("|", "|", "|"));
+
+        final String marker = format("%" + (getPosition() * (maxSymbolSize + 1) + 2) + "s", "^");
+
+        return tape + lineSeparator() + marker;
+    }
+}
@@ -0,0 +1,213 @@
+package org.perrierFrancois.turing.tape;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.EMPTY_SYMBOL_ID;
+
+/**
+ * {@link SymbolTape} backed by a single <code>int[]</code>.<br/>
+ * The used cells are the <code>[first, end)</code> range of the array; it grows in both directions by doubling its
+ * capacity, so moving past an end is amortized O(1) and never allocates a per cell object.
+ */
+public class ArrayTape extends AbstractSymbolTape {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * maximum number of empty cells appended by a single {@link #skip(int, boolean, long)} past an end of the tape
+     */
+    private static final int MAX_EMPTY_SKIP = 1 << 16;
+
+    private int[] cells;
+
+    /**
+     * array index of the leftmost cell
+     */
+    private int first;
+
+    /**
+     * array index following the rightmost cell
+     */
+    private int end;
+
+    /**
+     * array index of the head
+     */
+    private int head;
+
+    /**
+     * array index of the first cell of the initial ribbon
+     */
+    private int origin;
+
+    public ArrayTape(IntFunction<String> symbolNames, int[] initialState) {
+        super(symbolNames);
+        final int length = Math.max(1, initialState.length);
+        this.cells = new int[Math.max(MIN_CAPACITY, 2 * length)];
+        this.first = (cells.length - length) / 2;
+        this.end = first + length;
+        this.head = first;
+        this.origin = first;
+        System.arraycopy(initialState, 0, cells, first, initialState.length);
+    }
+
+    /**
+     * Keeps the array when it can hold the ribbon, only clearing the cells used by the previous run.
+     */
+    @Override
+    public boolean reload(int[] ribbon, int length) {
+        final int cellCount = Math.max(1, length);
+        if (cells.length < Math.max(MIN_CAPACITY, 2 * cellCount)) {
+            cells = new int[Math.max(MIN_CAPACITY, 2 * cellCount)];
+        } else {
+            Arrays.fill(cells, first, end, EMPTY_SYMBOL_ID);
+        }
+        this.first = (cells.length - cellCount) / 2;
+        this.end = first + cellCount;
+        this.head = first;
+        this.origin = first;
+        System.arraycopy(ribbon, 0, cells, first, length);
+        return true;
+    }
+
+    @Override
+    public int read() {
+        return cells[head];
+    }
+
+    @Override
+    public void write(int symbol) {
+        cells[head] = symbol;
+    }
+
+    @Override
+    public void moveLeft() {
+        if (head == first) {
+            if (first == 0) {
+                grow();
+            }
+            first--;
+            cells[first] = EMPTY_SYMBOL_ID;
+        }
+        head--;
+    }
+
+    @Override
+    public void moveRight() {
+        if (head == end - 1) {
+            if (end == cells.length) {
+                grow();
+            }
+            cells[end] = EMPTY_SYMBOL_ID;
+            end++;
+        }
+        head++;
+    }
+
+    @Override
+    public void move(boolean right, int count) {
+        if (right) {
+            final int missing = head + count - (end - 1);
+            if (missing > 0) {
+                ensureRoom(0, missing);
+                Arrays.fill(cells, end, end + missing, EMPTY_SYMBOL_ID);
+                end += missing;
+            }
+            head += count;
+        } else {
+            final int missing = first - (head - count);
+            if (missing > 0) {
+                ensureRoom(missing, 0);
+                Arrays.fill(cells, first - missing, first, EMPTY_SYMBOL_ID);
+                first -= missing;
+            }
+            head -= count;
+        }
+    }
+
+    @Override
+    public long skip(int symbol, boolean right, long max) {
+        long moves = 0;
+        while (moves < max && cells[head] == symbol) {
+            final long remaining = max - moves;
+            final int available = right ? end - head : head - first + 1;
+            final int limit = (int) Math.min(available, remaining);
+
+            int count = 1;
+            if (right) {
+                while (count < limit && cells[head + count] == symbol) {
+                    count++;
+                }
+            } else {
+                while (count < limit && cells[head - count] == symbol) {
+                    count++;
+                }
+            }
+
+            if (count == available && symbol == EMPTY_SYMBOL_ID) {
+                // the run extends over the cells which have not been visited yet
+                count += (int) Math.min(remaining - count, MAX_EMPTY_SKIP);
+            }
+
+            move(right, count);
+            moves += count;
+        }
+        return moves;
+    }
+
+    @Override
+    public int getPosition() {
+        return head - first;
+    }
+
+    @Override
+    public int getOrigin() {
+        return origin - first;
+    }
+
+    @Override
+    public int size() {
+        return end - first;
+    }
+
+    @Override
+    public int symbolAt(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        return cells[first + position];
+    }
+
+    @Override
+    public void copySymbols(int position, int[] into, int offset, int length) {
+        if (position < 0 || position + length > size()) {
+            throw new IndexOutOfBoundsException(position + length);
+        }
+        System.arraycopy(cells, first + position, into, offset, length);
+    }
+
+    /**
+     * Grows until there are at least <code>left</code> free cells before the used ones and <code>right</code> after.
+     */
+    private void ensureRoom(int left, int right) {
+        while (first < left || cells.length - end < right) {
+            grow();
+        }
+    }
+
+    /**
+     * Doubles the capacity, keeping the used cells centered so that both ends get room to grow.
+     */
+    private void grow() {
+        final int size = size();
+        final int[] grown = new int[2 * cells.length];
+        final int shift = (grown.length - size) / 2 - first;
+        System.arraycopy(cells, first, grown, first + shift, size);
+        cells = grown;
+        first += shift;
+        end += shift;
+        head += shift;
+        origin += shift;
+    }
+}
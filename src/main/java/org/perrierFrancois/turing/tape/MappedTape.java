@@ -0,0 +1,366 @@
+package org.perrierFrancois.turing.tape;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.EMPTY_SYMBOL_ID;
+
+/**
+ * {@link SymbolTape} stored in a memory-mapped file, one byte per cell, so that its size is bounded by the disk rather
+ * than by the heap: the cells are paged in and out by the operating system, the heap only holding one
+ * {@link MappedByteBuffer} per segment.<br/>
+ * The tape is split into fixed-size segments, numbered from the first cell of the initial ribbon in both directions,
+ * each one being mapped the first time the head enters it. Unmapped segments and the unused parts of the (sparse) file
+ * read as zeros, ie. empty cells, so moving past an end never writes anything.<br/>
+ * Symbol ids must fit in a byte, ie. alphabets of at most 256 symbols. Positions are tracked as <code>long</code>s:
+ * the <code>int</code> views of {@link SymbolTape} throw an {@link ArithmeticException} once the tape exceeds
+ * {@link Integer#MAX_VALUE} cells, see {@link #getLongPosition()}, {@link #getLongOrigin()} and {@link #longSize()}
+ * instead.<br/>
+ * The backing file is created in a directory, and deleted on {@link #close()}; on POSIX systems the file is unlinked
+ * right away and only lives as long as its mappings.
+ */
+public class MappedTape extends AbstractSymbolTape implements Closeable {
+
+    public static final int MAX_SYMBOLS = 1 << Byte.SIZE;
+
+    /**
+     * 64MB segments
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+
+    /**
+     * maximum number of empty cells appended by a single {@link #skip(int, boolean, long)} past an end of the tape
+     */
+    private static final int MAX_EMPTY_SKIP = 1 << 20;
+
+    private final FileChannel file;
+
+    private final int segmentShift;
+
+    private final int segmentMask;
+
+    /**
+     * mapped segments <code>0, 1, ...</code> on the right of the origin, and <code>-1, -2, ...</code> on its left
+     */
+    private MappedByteBuffer[] rightSegments = new MappedByteBuffer[4];
+    private MappedByteBuffer[] leftSegments = new MappedByteBuffer[4];
+
+    private int mappedSegments;
+
+    /**
+     * segment under the head, and head offset in this segment
+     */
+    private MappedByteBuffer segment;
+    private int offset;
+
+    /**
+     * cell indexes relative to the first cell of the initial ribbon: the head, the leftmost cell, and the cell
+     * following the rightmost one
+     */
+    private long head;
+    private long first;
+    private long end;
+
+    /**
+     * Builds a tape with {@link #DEFAULT_SEGMENT_SIZE} segments in the temporary directory.
+     */
+    public MappedTape(IntFunction<String> symbolNames, int[] initialState) {
+        this(Path.of(System.getProperty("java.io.tmpdir")), DEFAULT_SEGMENT_SIZE, symbolNames, initialState);
+    }
+
+    /**
+     * @param directory   where the backing file is created
+     * @param segmentSize number of cells per segment, a power of two
+     * @throws UncheckedIOException if the backing file can not be created or mapped
+     */
+    public MappedTape(Path directory, int segmentSize, IntFunction<String> symbolNames, int[] initialState) {
+        super(symbolNames);
+        if (segmentSize <= 0 || Integer.bitCount(segmentSize) != 1) {
+            throw new IllegalArgumentException(format("Segment size should be a power of two, got %d", segmentSize));
+        }
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+        try {
+            this.file = FileChannel.open(Files.createTempFile(directory, "tape", ".bin"), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        load(initialState, initialState.length);
+    }
+
+    /**
+     * @return a factory of tapes stored in the given directory
+     */
+    public static SymbolTapeFactory factory(Path directory, int segmentSize) {
+        return (symbolNames, initialState) -> new MappedTape(directory, segmentSize, symbolNames, initialState);
+    }
+
+    /**
+     * Keeps the file and its mappings, only clearing the cells used by the previous run.
+     */
+    @Override
+    public boolean reload(int[] ribbon, int length) {
+        for (long cell = first; cell < end; ) {
+            final MappedByteBuffer mapped = mapped(cell >> segmentShift);
+            final int from = (int) (cell & segmentMask);
+            final int to = (int) Math.min(segmentMask + 1L, from + end - cell);
+            if (mapped != null) {
+                for (int i = from; i < to; i++) {
+                    mapped.put(i, (byte) EMPTY_SYMBOL_ID);
+                }
+            }
+            cell += to - from;
+        }
+        load(ribbon, length);
+        return true;
+    }
+
+    private void load(int[] ribbon, int length) {
+        this.first = 0;
+        this.end = Math.max(1, length);
+        for (head = 0; head < length; head++) {
+            checkSymbol(ribbon[(int) head]);
+            if ((head & segmentMask) == 0) {
+                select();
+            }
+            segment.put((int) (head & segmentMask), (byte) ribbon[(int) head]);
+        }
+        head = 0;
+        select();
+    }
+
+    @Override
+    public int read() {
+        return segment.get(offset) & 0xFF;
+    }
+
+    @Override
+    public void write(int symbol) {
+        checkSymbol(symbol);
+        segment.put(offset, (byte) symbol);
+    }
+
+    @Override
+    public void moveLeft() {
+        if (head == first) {
+            first--;
+        }
+        head--;
+        if (--offset < 0) {
+            select();
+        }
+    }
+
+    @Override
+    public void moveRight() {
+        head++;
+        if (head == end) {
+            end++;
+        }
+        if (++offset > segmentMask) {
+            select();
+        }
+    }
+
+    @Override
+    public void move(boolean right, int count) {
+        head += right ? count : -count;
+        first = Math.min(first, head);
+        end = Math.max(end, head + 1);
+        final long moved = offset + (right ? (long) count : -(long) count);
+        if (moved < 0 || moved > segmentMask) {
+            select();
+        } else {
+            offset = (int) moved;
+        }
+    }
+
+    @Override
+    public long skip(int symbol, boolean right, long max) {
+        long moves = 0;
+        while (moves < max && read() == symbol) {
+            final long remaining = max - moves;
+            // cells up to the end of the segment, or of the tape
+            final long available = right ? Math.min(segmentMask + 1 - offset, end - head)
+                    : Math.min(offset + 1, head - first + 1);
+            final int limit = (int) Math.min(available, remaining);
+
+            int count = 1;
+            if (right) {
+                while (count < limit && (segment.get(offset + count) & 0xFF) == symbol) {
+                    count++;
+                }
+            } else {
+                while (count < limit && (segment.get(offset - count) & 0xFF) == symbol) {
+                    count++;
+                }
+            }
+
+            final boolean atEnd = right ? head + count == end : head - count == first - 1;
+            if (count == limit && atEnd && symbol == EMPTY_SYMBOL_ID) {
+                // the run extends over the cells which have not been visited yet
+                count += (int) Math.min(remaining - count, MAX_EMPTY_SKIP);
+            }
+
+            move(right, count);
+            moves += count;
+        }
+        return moves;
+    }
+
+    @Override
+    public int getPosition() {
+        return Math.toIntExact(getLongPosition());
+    }
+
+    @Override
+    public int getOrigin() {
+        return Math.toIntExact(getLongOrigin());
+    }
+
+    @Override
+    public int size() {
+        return Math.toIntExact(longSize());
+    }
+
+    /**
+     * @return the head position, relative to the leftmost cell
+     */
+    public long getLongPosition() {
+        return head - first;
+    }
+
+    /**
+     * @return the position of the first cell of the initial ribbon, relative to the leftmost cell
+     */
+    public long getLongOrigin() {
+        return -first;
+    }
+
+    /**
+     * @return the number of cells on the tape
+     */
+    public long longSize() {
+        return end - first;
+    }
+
+    /**
+     * @return the number of segments mapped so far, each one holding up to the segment size of the file
+     */
+    public int getMappedSegments() {
+        return mappedSegments;
+    }
+
+    @Override
+    public int symbolAt(int position) {
+        return symbolAt((long) position);
+    }
+
+    /**
+     * @param position position relative to the leftmost cell
+     * @return the symbol id at the given position
+     */
+    public int symbolAt(long position) {
+        if (position < 0 || position >= longSize()) {
+            throw new IndexOutOfBoundsException(format("Index %d out of bounds for length %d", position, longSize()));
+        }
+        final long cell = first + position;
+        final MappedByteBuffer mapped = mapped(cell >> segmentShift);
+        return mapped == null ? EMPTY_SYMBOL_ID : mapped.get((int) (cell & segmentMask)) & 0xFF;
+    }
+
+    @Override
+    public void copySymbols(int position, int[] into, int offset, int length) {
+        if (position < 0 || (long) position + length > longSize()) {
+            throw new IndexOutOfBoundsException(position + length);
+        }
+        for (int i = 0; i < length; ) {
+            final long cell = first + position + i;
+            final MappedByteBuffer mapped = mapped(cell >> segmentShift);
+            final int from = (int) (cell & segmentMask);
+            final int count = Math.min(segmentMask + 1 - from, length - i);
+            if (mapped == null) {
+                Arrays.fill(into, offset + i, offset + i + count, EMPTY_SYMBOL_ID);
+            } else {
+                for (int j = 0; j < count; j++) {
+                    into[offset + i + j] = mapped.get(from + j) & 0xFF;
+                }
+            }
+            i += count;
+        }
+    }
+
+    /**
+     * Closes the backing file, which is deleted; the tape can not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        Arrays.fill(rightSegments, null);
+        Arrays.fill(leftSegments, null);
+        file.close();
+    }
+
+    /**
+     * Makes the segment of the head current, mapping it if needed.
+     */
+    private void select() {
+        final long index = head >> segmentShift;
+        MappedByteBuffer mapped = mapped(index);
+        if (mapped == null) {
+            mapped = map(index);
+        }
+        segment = mapped;
+        offset = (int) (head & segmentMask);
+    }
+
+    private MappedByteBuffer mapped(long index) {
+        final MappedByteBuffer[] segments = index >= 0 ? rightSegments : leftSegments;
+        final long slot = index >= 0 ? index : -index - 1;
+        return slot < segments.length ? segments[(int) slot] : null;
+    }
+
+    private MappedByteBuffer map(long index) {
+        final long slot = index >= 0 ? index : -index - 1;
+        if (slot >= Integer.MAX_VALUE / 2) {
+            throw new IllegalStateException(format("Tape exceeds %d segments", Integer.MAX_VALUE / 2));
+        }
+        final MappedByteBuffer mapped;
+        try {
+            // segments are laid out in the file in mapping order, the file growing as needed
+            mapped = file.map(FileChannel.MapMode.READ_WRITE, (long) mappedSegments << segmentShift, segmentMask + 1L);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        mappedSegments++;
+
+        if (index >= 0) {
+            rightSegments = ensureSlot(rightSegments, (int) slot);
+            rightSegments[(int) slot] = mapped;
+        } else {
+            leftSegments = ensureSlot(leftSegments, (int) slot);
+            leftSegments[(int) slot] = mapped;
+        }
+        return mapped;
+    }
+
+    private static MappedByteBuffer[] ensureSlot(MappedByteBuffer[] segments, int slot) {
+        return slot < segments.length ? segments : Arrays.copyOf(segments, Math.max(2 * segments.length, slot + 1));
+    }
+
+    private static void checkSymbol(int symbol) {
+        if (symbol < 0 || symbol >= MAX_SYMBOLS) {
+            throw new IllegalArgumentException(format("Symbol id %d does not fit in a byte", symbol));
+        }
+    }
+}
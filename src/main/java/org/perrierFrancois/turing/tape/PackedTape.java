@@ -0,0 +1,321 @@
+package org.perrierFrancois.turing.tape;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+
+/**
+ * {@link SymbolTape} for alphabets of at most {@link #MAX_SYMBOLS} symbols (eg. the empty symbol, <code>0</code> and
+ * <code>1</code> of the adders), packing 2 bits per cell, 32 cells per <code>long</code>.<br/>
+ * Like {@link ArrayTape}, the used cells are the <code>[first, end)</code> range of the words, which grow in both
+ * directions by doubling; the cells out of this range are kept empty (zero), so moving past an end writes nothing.<br/>
+ * {@link #skip(int, boolean, long)} works a word at a time: the cells differing from the skipped symbol are the non
+ * zero pairs of bits of <code>word ^ pattern</code>, the pattern holding the symbol in every cell, and the first of
+ * them is found by counting the trailing (or leading) zeros. {@link #fill(int, int, int)} likewise masks the partial
+ * words at the ends of the range and sets the others whole.
+ */
+public class PackedTape extends AbstractSymbolTape {
+
+    public static final int MAX_SYMBOLS = 4;
+
+    private static final int BITS = 2;
+
+    private static final int CELLS_PER_WORD = Long.SIZE / BITS;
+
+    private static final int WORD_SHIFT = Integer.numberOfTrailingZeros(CELLS_PER_WORD);
+
+    private static final int OFFSET_MASK = CELLS_PER_WORD - 1;
+
+    private static final int CELL_MASK = MAX_SYMBOLS - 1;
+
+    /**
+     * the symbol 1 in every cell of a word
+     */
+    private static final long ONES = 0x5555_5555_5555_5555L;
+
+    private static final int MIN_WORDS = 2;
+
+    /**
+     * maximum number of empty cells appended by a single {@link #skip(int, boolean, long)} past an end of the tape
+     */
+    private static final int MAX_EMPTY_SKIP = 1 << 16;
+
+    private long[] words;
+
+    /**
+     * cell index of the leftmost cell
+     */
+    private int first;
+
+    /**
+     * cell index following the rightmost cell
+     */
+    private int end;
+
+    /**
+     * cell index of the head
+     */
+    private int head;
+
+    /**
+     * cell index of the first cell of the initial ribbon
+     */
+    private int origin;
+
+    public PackedTape(IntFunction<String> symbolNames, int[] initialState) {
+        super(symbolNames);
+        this.words = new long[wordsFor(initialState.length)];
+        load(initialState, initialState.length);
+    }
+
+    /**
+     * Keeps the words when they can hold the ribbon, only clearing the ones used by the previous run.
+     */
+    @Override
+    public boolean reload(int[] ribbon, int length) {
+        if (words.length < wordsFor(length)) {
+            words = new long[wordsFor(length)];
+        } else {
+            Arrays.fill(words, first >>> WORD_SHIFT, ((end - 1) >>> WORD_SHIFT) + 1, 0);
+        }
+        load(ribbon, length);
+        return true;
+    }
+
+    private static int wordsFor(int length) {
+        return Math.max(MIN_WORDS, 2 * (Math.max(1, length) / CELLS_PER_WORD + 1));
+    }
+
+    private void load(int[] ribbon, int length) {
+        final int cellCount = Math.max(1, length);
+        // start on a word boundary, so that the ribbon is packed word by word
+        this.first = (words.length - (cellCount + CELLS_PER_WORD - 1) / CELLS_PER_WORD) / 2 * CELLS_PER_WORD;
+        this.end = first + cellCount;
+        this.head = first;
+        this.origin = first;
+        for (int i = 0; i < length; i++) {
+            checkSymbol(ribbon[i]);
+            words[(first + i) >>> WORD_SHIFT] |= (long) ribbon[i] << shift(first + i);
+        }
+    }
+
+    @Override
+    public int read() {
+        return (int) (words[head >>> WORD_SHIFT] >>> shift(head)) & CELL_MASK;
+    }
+
+    @Override
+    public void write(int symbol) {
+        checkSymbol(symbol);
+        final int index = head >>> WORD_SHIFT;
+        final int shift = shift(head);
+        words[index] = words[index] & ~((long) CELL_MASK << shift) | (long) symbol << shift;
+    }
+
+    @Override
+    public void moveLeft() {
+        if (head == first) {
+            if (first == 0) {
+                grow();
+            }
+            first--;
+        }
+        head--;
+    }
+
+    @Override
+    public void moveRight() {
+        if (head == end - 1) {
+            if (end == capacity()) {
+                grow();
+            }
+            end++;
+        }
+        head++;
+    }
+
+    @Override
+    public void move(boolean right, int count) {
+        if (right) {
+            final int missing = head + count - (end - 1);
+            if (missing > 0) {
+                ensureRoom(0, missing);
+                end += missing;
+            }
+            head += count;
+        } else {
+            final int missing = first - (head - count);
+            if (missing > 0) {
+                ensureRoom(missing, 0);
+                first -= missing;
+            }
+            head -= count;
+        }
+    }
+
+    @Override
+    public long skip(int symbol, boolean right, long max) {
+        if (symbol < 0 || symbol >= MAX_SYMBOLS) {
+            return 0;
+        }
+        final long pattern = symbol * ONES;
+        // past an end, only a bounded number of empty cells are appended
+        final long limit = Math.min(max, (right ? end - head : head - first + 1) + (long) MAX_EMPTY_SKIP);
+
+        long moves = 0;
+        while (moves < limit) {
+            // the run stops on a different symbol, or at the end of the words when skipping empty cells
+            final int run = right ? runRight(pattern, limit - moves) : runLeft(pattern, limit - moves);
+            if (run == 0) {
+                break;
+            }
+            move(right, run);
+            moves += run;
+        }
+        return moves;
+    }
+
+    /**
+     * @return the number of cells matching <code>pattern</code> from the head to the right, up to <code>max</code> or
+     * the end of the words
+     */
+    private int runRight(long pattern, long max) {
+        final int stop = (int) Math.min(capacity(), head + max);
+        int cell = head;
+        while (cell < stop) {
+            final long differing = (words[cell >>> WORD_SHIFT] ^ pattern) >>> shift(cell);
+            if (differing != 0) {
+                cell += Long.numberOfTrailingZeros(differing) / BITS;
+                break;
+            }
+            cell += CELLS_PER_WORD - (cell & OFFSET_MASK);
+        }
+        return Math.min(cell, stop) - head;
+    }
+
+    /**
+     * @return the number of cells matching <code>pattern</code> from the head to the left, up to <code>max</code> or
+     * the start of the words
+     */
+    private int runLeft(long pattern, long max) {
+        final int stop = (int) Math.max(-1, head - max);
+        int cell = head;
+        while (cell > stop) {
+            final long differing = (words[cell >>> WORD_SHIFT] ^ pattern) << (Long.SIZE - BITS - shift(cell));
+            if (differing != 0) {
+                cell -= Long.numberOfLeadingZeros(differing) / BITS;
+                break;
+            }
+            cell -= (cell & OFFSET_MASK) + 1;
+        }
+        return head - Math.max(cell, stop);
+    }
+
+    /**
+     * Writes <code>symbol</code> on <code>length</code> cells, starting at <code>position</code> (relative to the
+     * leftmost cell).
+     */
+    public void fill(int position, int length, int symbol) {
+        if (position < 0 || length < 0 || position + length > size()) {
+            throw new IndexOutOfBoundsException(position + length);
+        }
+        checkSymbol(symbol);
+        fillCells(first + position, length, symbol);
+    }
+
+    private void fillCells(int from, int length, int symbol) {
+        if (length == 0) {
+            return;
+        }
+        final long pattern = symbol * ONES;
+        final int to = from + length;
+        final int firstWord = from >>> WORD_SHIFT;
+        final int lastWord = (to - 1) >>> WORD_SHIFT;
+        // bits of the cells from 'from' to the end of its word, and from the start of the last word to 'to'
+        final long head = -1L << shift(from);
+        final long tail = -1L >>> (Long.SIZE - BITS - shift(to - 1));
+        if (firstWord == lastWord) {
+            final long mask = head & tail;
+            words[firstWord] = words[firstWord] & ~mask | pattern & mask;
+            return;
+        }
+        words[firstWord] = words[firstWord] & ~head | pattern & head;
+        Arrays.fill(words, firstWord + 1, lastWord, pattern);
+        words[lastWord] = words[lastWord] & ~tail | pattern & tail;
+    }
+
+    @Override
+    public int getPosition() {
+        return head - first;
+    }
+
+    @Override
+    public int getOrigin() {
+        return origin - first;
+    }
+
+    @Override
+    public int size() {
+        return end - first;
+    }
+
+    @Override
+    public int symbolAt(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        final int cell = first + position;
+        return (int) (words[cell >>> WORD_SHIFT] >>> shift(cell)) & CELL_MASK;
+    }
+
+    @Override
+    public void copySymbols(int position, int[] into, int offset, int length) {
+        if (position < 0 || position + length > size()) {
+            throw new IndexOutOfBoundsException(position + length);
+        }
+        for (int i = 0; i < length; i++) {
+            final int cell = first + position + i;
+            into[offset + i] = (int) (words[cell >>> WORD_SHIFT] >>> shift(cell)) & CELL_MASK;
+        }
+    }
+
+    private int capacity() {
+        return words.length * CELLS_PER_WORD;
+    }
+
+    private static int shift(int cell) {
+        return (cell & OFFSET_MASK) * BITS;
+    }
+
+    /**
+     * Grows until there are at least <code>left</code> free cells before the used ones and <code>right</code> after.
+     */
+    private void ensureRoom(int left, int right) {
+        while (first < left || capacity() - end < right) {
+            grow();
+        }
+    }
+
+    /**
+     * Doubles the capacity, keeping the used words centered so that both ends get room to grow.
+     */
+    private void grow() {
+        final int firstWord = first >>> WORD_SHIFT;
+        final int usedWords = ((end - 1) >>> WORD_SHIFT) + 1 - firstWord;
+        final long[] grown = new long[2 * words.length];
+        final int shift = (grown.length - usedWords) / 2 - firstWord;
+        System.arraycopy(words, firstWord, grown, firstWord + shift, usedWords);
+        words = grown;
+        first += shift * CELLS_PER_WORD;
+        end += shift * CELLS_PER_WORD;
+        head += shift * CELLS_PER_WORD;
+        origin += shift * CELLS_PER_WORD;
+    }
+
+    private static void checkSymbol(int symbol) {
+        if (symbol < 0 || symbol >= MAX_SYMBOLS) {
+            throw new IllegalArgumentException(format("Symbol id %d does not fit in %d bits", symbol, BITS));
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package org.perrierFrancois.turing.tape;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+import static org.perrierFrancois.turing.compiled.CompiledDefinition.EMPTY_SYMBOL_ID;
+
+/**
+ * {@link SymbolTape} storing runs of identical symbols as <code>(symbol, length)</code> pairs, so that memory scales
+ * with the number of runs instead of the number of cells.<br/>
+ * Runs are kept in a gap buffer around the head: the run under the head, and two stacks holding the runs on its left
+ * and on its right, the nearest run on top. Moving and writing only touch the top of the stacks; a write splits the
+ * current run, and merges the written cell with its neighbours when they hold the same symbol, so that adjacent runs
+ * always hold different symbols.<br/>
+ * {@link #skip(int, boolean, long)} and {@link #move(boolean, int)} cross whole runs at once.
+ */
+public class RunLengthTape extends AbstractSymbolTape {
+
+    /**
+     * maximum number of empty cells appended by a single {@link #skip(int, boolean, long)} past an end of the tape
+     */
+    private static final int MAX_EMPTY_SKIP = 1 << 20;
+
+    private final Runs left = new Runs();
+
+    private final Runs right = new Runs();
+
+    private int symbol;
+
+    private int length;
+
+    /**
+     * head offset in the current run
+     */
+    private int offset;
+
+    /**
+     * number of cells added on the left since initialization
+     */
+    private int origin;
+
+    public RunLengthTape(IntFunction<String> symbolNames, int[] initialState) {
+        super(symbolNames);
+        if (initialState.length == 0) {
+            symbol = EMPTY_SYMBOL_ID;
+            length = 1;
+            return;
+        }
+
+        // push the runs of the ribbon from right to left on the right stack, the first run becomes the current one
+        int end = initialState.length;
+        while (end > 0) {
+            int start = end - 1;
+            while (start > 0 && initialState[start - 1] == initialState[end - 1]) {
+                start--;
+            }
+            right.push(initialState[start], end - start);
+            end = start;
+        }
+        symbol = right.topSymbol();
+        length = right.pop();
+    }
+
+    @Override
+    public int read() {
+        return symbol;
+    }
+
+    @Override
+    public void write(int written) {
+        if (written == symbol) {
+            return;
+        }
+
+        // split the current run around the head
+        if (offset > 0) {
+            left.push(symbol, offset);
+        }
+        if (offset < length - 1) {
+            right.push(symbol, length - 1 - offset);
+        }
+        symbol = written;
+        length = 1;
+        offset = 0;
+
+        // merge with the neighbours
+        if (!left.isEmpty() && left.topSymbol() == written) {
+            offset = left.pop();
+            length += offset;
+        }
+        if (!right.isEmpty() && right.topSymbol() == written) {
+            length += right.pop();
+        }
+    }
+
+    @Override
+    public void moveLeft() {
+        if (offset > 0) {
+            offset--;
+        } else if (!left.isEmpty()) {
+            right.push(symbol, length);
+            symbol = left.topSymbol();
+            length = left.pop();
+            offset = length - 1;
+        } else {
+            appendLeft(1);
+        }
+    }
+
+    @Override
+    public void moveRight() {
+        if (offset < length - 1) {
+            offset++;
+        } else if (!right.isEmpty()) {
+            left.push(symbol, length);
+            symbol = right.topSymbol();
+            length = right.pop();
+            offset = 0;
+        } else {
+            appendRight(1);
+        }
+    }
+
+    @Override
+    public void move(boolean toRight, int count) {
+        int remaining = count;
+        while (remaining > 0) {
+            final int available = toRight ? length - 1 - offset : offset;
+            if (remaining <= available) {
+                offset += toRight ? remaining : -remaining;
+                return;
+            }
+            if (available > 0) {
+                offset += toRight ? available : -available;
+                remaining -= available;
+            }
+
+            if (toRight ? right.isEmpty() : left.isEmpty()) {
+                if (toRight) {
+                    appendRight(remaining);
+                } else {
+                    appendLeft(remaining);
+                }
+                return;
+            }
+            if (toRight) {
+                moveRight();
+            } else {
+                moveLeft();
+            }
+            remaining--;
+        }
+    }
+
+    @Override
+    public long skip(int skipped, boolean toRight, long max) {
+        long moves = 0;
+        while (moves < max && symbol == skipped) {
+            final long remaining = max - moves;
+            final int available = toRight ? length - offset : offset + 1;
+            final boolean atEnd = toRight ? right.isEmpty() : left.isEmpty();
+
+            int count = (int) Math.min(available, remaining);
+            if (count == available && atEnd && skipped == EMPTY_SYMBOL_ID) {
+                // the run extends over the cells which have not been visited yet
+                count += (int) Math.min(remaining - count, MAX_EMPTY_SKIP);
+            }
+
+            move(toRight, count);
+            moves += count;
+        }
+        return moves;
+    }
+
+    @Override
+    public int getPosition() {
+        return left.cells + offset;
+    }
+
+    @Override
+    public int getOrigin() {
+        return origin;
+    }
+
+    @Override
+    public int size() {
+        return left.cells + length + right.cells;
+    }
+
+    /**
+     * @return the number of runs on the tape
+     */
+    public int getRunCount() {
+        return left.size + 1 + right.size;
+    }
+
+    @Override
+    public int symbolAt(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        if (position < left.cells) {
+            int start = 0;
+            for (int i = 0; ; i++) {
+                start += left.lengths[i];
+                if (position < start) {
+                    return left.symbols[i];
+                }
+            }
+        }
+        int start = left.cells + length;
+        if (position < start) {
+            return symbol;
+        }
+        for (int i = right.size - 1; ; i--) {
+            start += right.lengths[i];
+            if (position < start) {
+                return right.symbols[i];
+            }
+        }
+    }
+
+    @Override
+    public void copySymbols(int position, int[] into, int offset, int length) {
+        if (position < 0 || position + length > size()) {
+            throw new IndexOutOfBoundsException(position + length);
+        }
+        final int end = position + length;
+        int start = 0;
+        for (int run = 0; run < getRunCount() && start < end; run++) {
+            final int runSymbol;
+            final int runLength;
+            if (run < left.size) {
+                runSymbol = left.symbols[run];
+                runLength = left.lengths[run];
+            } else if (run == left.size) {
+                runSymbol = symbol;
+                runLength = length;
+            } else {
+                final int index = right.size - 1 - (run - left.size - 1);
+                runSymbol = right.symbols[index];
+                runLength = right.lengths[index];
+            }
+
+            final int from = Math.max(start, position);
+            final int to = Math.min(start + runLength, end);
+            if (from < to) {
+                Arrays.fill(into, offset + from - position, offset + to - position, runSymbol);
+            }
+            start += runLength;
+        }
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            /**
+             * run index from the leftmost one, and number of cells of the run already returned
+             */
+            private int run = 0;
+            private int returned = 0;
+
+            @Override
+            public boolean hasNext() {
+                return run < getRunCount();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final int runSymbol;
+                final int runLength;
+                if (run < left.size) {
+                    runSymbol = left.symbols[run];
+                    runLength = left.lengths[run];
+                } else if (run == left.size) {
+                    runSymbol = symbol;
+                    runLength = length;
+                } else {
+                    final int index = right.size - 1 - (run - left.size - 1);
+                    runSymbol = right.symbols[index];
+                    runLength = right.lengths[index];
+                }
+
+                if (++returned == runLength) {
+                    run++;
+                    returned = 0;
+                }
+                return symbolName(runSymbol);
+            }
+        };
+    }
+
+    private void appendLeft(int count) {
+        if (symbol != EMPTY_SYMBOL_ID) {
+            right.push(symbol, length);
+            symbol = EMPTY_SYMBOL_ID;
+            length = count;
+        } else {
+            length += count;
+        }
+        offset = 0;
+        origin += count;
+    }
+
+    private void appendRight(int count) {
+        if (symbol != EMPTY_SYMBOL_ID) {
+            left.push(symbol, length);
+            symbol = EMPTY_SYMBOL_ID;
+            length = count;
+        } else {
+            length += count;
+        }
+        offset = length - 1;
+    }
+
+    /**
+     * Stack of runs, the top being the nearest from the head.
+     */
+    private static class Runs {
+        private int[] symbols = new int[8];
+        private int[] lengths = new int[8];
+        private int size;
+
+        /**
+         * total number of cells in the runs
+         */
+        private int cells;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int symbol, int length) {
+            if (size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, 2 * size);
+                lengths = Arrays.copyOf(lengths, 2 * size);
+            }
+            symbols[size] = symbol;
+            lengths[size] = length;
+            size++;
+            cells += length;
+        }
+
+        int topSymbol() {
+            return symbols[size - 1];
+        }
+
+        /**
+         * @return the length of the removed run
+         */
+        int pop() {
+            size--;
+            cells -= lengths[size];
+            return lengths[size];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.perrierFrancois.turing.tape;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tape storing symbol ids of a compiled definition (see {@link org.perrierFrancois.turing.compiled.CompiledDefinition}).<br/>
+ * Like {@link org.perrierFrancois.turing.TuringMachine.Tape}, the tape only contains the cells which have been initialized
+ * or visited by the head; moving past an end appends an empty cell.
+ */
+public interface SymbolTape extends Iterable<String> {
+
+    int read();
+
+    void write(int symbol);
+
+    void moveLeft();
+
+    void moveRight();
+
+    /**
+     * Moves the head by <code>count</code> cells in the given direction, as <code>count</code> calls to
+     * {@link #moveLeft()} or {@link #moveRight()} would.
+     */
+    default void move(boolean right, int count) {
+        for (int i = 0; i < count; i++) {
+            if (right) {
+                moveRight();
+            } else {
+                moveLeft();
+            }
+        }
+    }
+
+    /**
+     * Moves the head in the given direction as long as it reads <code>symbol</code>, stopping after at most
+     * <code>max</code> moves.<br/>
+     * Implementations may stop earlier when skipping over empty cells past an end of the tape; callers loop until the
+     * head reads another symbol.
+     *
+     * @return the number of moves
+     */
+    default long skip(int symbol, boolean right, long max) {
+        long moves = 0;
+        while (moves < max && read() == symbol) {
+            if (right) {
+                moveRight();
+            } else {
+                moveLeft();
+            }
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * @return the head position, relative to the leftmost cell
+     */
+    int getPosition();
+
+    /**
+     * @return the position of the first cell of the initial ribbon, relative to the leftmost cell (ie. the number of
+     * cells added on the left since initialization)
+     */
+    int getOrigin();
+
+    /**
+     * @return the number of cells on the tape
+     */
+    int size();
+
+    /**
+     * @param position position relative to the leftmost cell
+     * @return the symbol id at the given position
+     */
+    int symbolAt(int position);
+
+    /**
+     * Copies the symbol ids of <code>length</code> cells, starting at <code>position</code> (relative to the leftmost
+     * cell), into <code>into</code> from <code>offset</code>.
+     */
+    default void copySymbols(int position, int[] into, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            into[offset + i] = symbolAt(position + i);
+        }
+    }
+
+    /**
+     * Replaces the whole tape by the first <code>length</code> cells of <code>ribbon</code>, the head on the first one,
+     * as a new tape built by a {@link SymbolTapeFactory} would, reusing the storage of this tape.
+     *
+     * @return <code>false</code> if the implementation does not support reloading, the tape being left unchanged
+     */
+    default boolean reload(int[] ribbon, int length) {
+        return false;
+    }
+
+    String symbolName(int symbol);
+
+    List<String> getSymbols();
+
+    Stream<String> stream();
+}
@@ -0,0 +1,18 @@
+package org.perrierFrancois.turing.tape;
+
+import java.util.function.IntFunction;
+
+/**
+ * Builds the tape of a {@link org.perrierFrancois.turing.compiled.CompiledTuringMachine}, eg. <code>ArrayTape::new</code>
+ * or <code>RunLengthTape::new</code>.
+ */
+@FunctionalInterface
+public interface SymbolTapeFactory {
+
+    /**
+     * @param symbolNames  resolves the symbol ids to their names
+     * @param initialState symbol ids of the initial ribbon, which the tape must not retain; the head starts on its first
+     *                     cell
+     */
+    SymbolTape create(IntFunction<String> symbolNames, int[] initialState);
+}
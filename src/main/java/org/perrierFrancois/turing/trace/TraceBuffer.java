@@ -0,0 +1,120 @@
+package org.perrierFrancois.turing.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated ring buffer of step events, written by the thread running the machine and drained by a single other
+ * thread (see {@link TraceRecorder}).<br/>
+ * An event is packed into {@link #EVENT_LONGS} longs:
+ * <pre>
+ * long step
+ * long (state << 32) | position
+ * long (read << 32) | (write << 2) | move
+ * </pre>
+ * The producer and the consumer only share two counters, published with ordered writes; each side caches the
+ * counter of the other and only reads it again when the buffer looks full (or empty), so that recording an event is
+ * a few plain array writes.
+ */
+public final class TraceBuffer {
+
+    public static final int EVENT_LONGS = 3;
+
+    private final long[] events;
+
+    private final int mask;
+
+    /**
+     * number of events written, and read
+     */
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    // producer side
+    private long cachedHead;
+
+    // consumer side
+    private long cachedTail;
+
+    /**
+     * @param capacity number of events, rounded up to a power of two
+     */
+    public TraceBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 26) {
+            throw new IllegalArgumentException("Capacity should be between 1 and 2^26 events");
+        }
+        final int events = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.events = new long[events * EVENT_LONGS];
+        this.mask = events - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return <code>false</code> if the buffer is full
+     */
+    public boolean offer(long step, int state, int position, int read, int write, int move) {
+        final long tail = this.tail.get();
+        if (tail - cachedHead > mask) {
+            cachedHead = head.get();
+            if (tail - cachedHead > mask) {
+                return false;
+            }
+        }
+
+        final int index = (int) (tail & mask) * EVENT_LONGS;
+        events[index] = step;
+        events[index + 1] = (long) state << 32 | position & 0xFFFFFFFFL;
+        events[index + 2] = (long) read << 32 | (long) write << 2 | move;
+        this.tail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * Moves the available events, at most <code>into.length / EVENT_LONGS</code>, to <code>into</code>.
+     *
+     * @return the number of events
+     */
+    public int drain(long[] into) {
+        final long head = this.head.get();
+        if (head == cachedTail) {
+            cachedTail = tail.get();
+        }
+        final int count = (int) Math.min(cachedTail - head, into.length / EVENT_LONGS);
+
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(events, (int) (head + i & mask) * EVENT_LONGS, into, i * EVENT_LONGS, EVENT_LONGS);
+        }
+        this.head.lazySet(head + count);
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    public static long step(long[] events, int event) {
+        return events[event * EVENT_LONGS];
+    }
+
+    public static int state(long[] events, int event) {
+        return (int) (events[event * EVENT_LONGS + 1] >>> 32);
+    }
+
+    public static int position(long[] events, int event) {
+        return (int) events[event * EVENT_LONGS + 1];
+    }
+
+    public static int read(long[] events, int event) {
+        return (int) (events[event * EVENT_LONGS + 2] >>> 32);
+    }
+
+    public static int write(long[] events, int event) {
+        return (int) events[event * EVENT_LONGS + 2] >>> 2;
+    }
+
+    public static int move(long[] events, int event) {
+        return (int) events[event * EVENT_LONGS + 2] & 3;
+    }
+}
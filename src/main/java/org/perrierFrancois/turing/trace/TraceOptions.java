@@ -0,0 +1,45 @@
+package org.perrierFrancois.turing.trace;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * What a {@link TraceRecorder} records.
+ */
+@Value
+@Builder
+public class TraceOptions {
+
+    public static final TraceOptions ALL = TraceOptions.builder().build();
+
+    /**
+     * Records one transition every <code>sampleInterval</code>, starting at {@link #windowStart}
+     */
+    @Builder.Default
+    long sampleInterval = 1;
+
+    /**
+     * First recorded transition (transitions are numbered from <code>0</code>)
+     */
+    @Builder.Default
+    long windowStart = 0;
+
+    /**
+     * Transition following the last recorded one
+     */
+    @Builder.Default
+    long windowEnd = Long.MAX_VALUE;
+
+    /**
+     * Number of events the ring buffer holds
+     */
+    @Builder.Default
+    int bufferCapacity = 1 << 16;
+
+    /**
+     * When the ring buffer is full, whether the machine waits for the writer (<code>true</code>), or the event is
+     * dropped and counted (<code>false</code>), so that tracing never slows the machine down to the disk speed
+     */
+    @Builder.Default
+    boolean lossless = false;
+}
@@ -0,0 +1,191 @@
+package org.perrierFrancois.turing.trace;
+
+import lombok.Getter;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.String.format;
+
+/**
+ * Records the transitions of a run into a trace file, to be rendered offline by {@link TraceRenderer}.<br/>
+ * The machine (see {@link org.perrierFrancois.turing.compiled.CompiledTuringMachine#enableTracing(TraceRecorder)})
+ * reports each transition with {@link #step(long, int, int, int, long)}; the sampled ones are packed into a
+ * {@link TraceBuffer}, which a background thread drains to the file. Recording an event never formats nor
+ * allocates anything.<br/>
+ * Format (big endian, see {@link java.io.DataOutput}):
+ * <pre>
+ * int    magic ("TMTR")
+ * int    version
+ * long   definition fingerprint (see {@link CompiledDefinition#fingerprint()})
+ * long   sample interval, window start
+ * int    foreign symbol count, then the names (see {@link java.io.DataOutput#writeUTF(String)})
+ * int    initial ribbon length, then the symbol ids
+ * long[] events, as packed in {@link TraceBuffer}
+ * </pre>
+ * Positions are relative to the first cell of the initial ribbon.
+ */
+public class TraceRecorder implements Closeable {
+
+    static final int MAGIC = 0x52544D54;
+
+    static final int VERSION = 1;
+
+    /**
+     * events moved from the ring buffer at once
+     */
+    private static final int BATCH = 1024;
+
+    private static final long IDLE_NANOS = 100_000;
+
+    private final Path path;
+
+    private final long fingerprint;
+
+    private final TraceOptions options;
+
+    private final TraceBuffer buffer;
+
+    private long nextSampled;
+
+    /**
+     * Events recorded into the buffer, and dropped because it was full. Only updated by the thread running the machine
+     */
+    @Getter
+    private long recorded;
+    @Getter
+    private long dropped;
+
+    private Thread writer;
+
+    private volatile boolean closing;
+
+    private volatile IOException failure;
+
+    public TraceRecorder(Path path, CompiledDefinition definition, TraceOptions options) {
+        if (options.getSampleInterval() <= 0) {
+            throw new IllegalArgumentException("Sample interval should be positive");
+        }
+        this.path = path;
+        this.fingerprint = definition.fingerprint();
+        this.options = options;
+        this.buffer = new TraceBuffer(options.getBufferCapacity());
+        this.nextSampled = options.getWindowStart();
+    }
+
+    /**
+     * Opens the trace file and starts the writer.
+     *
+     * @param ribbon         symbol ids of the initial ribbon
+     * @param foreignSymbols names of the ribbon symbols which do not appear in the definition
+     * @throws UncheckedIOException if the file can not be written
+     */
+    public void begin(int[] ribbon, List<String> foreignSymbols) {
+        if (writer != null) {
+            throw new IllegalStateException("A recorder traces a single run");
+        }
+
+        final DataOutputStream output;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(fingerprint);
+            output.writeLong(options.getSampleInterval());
+            output.writeLong(options.getWindowStart());
+            output.writeInt(foreignSymbols.size());
+            for (String symbol : foreignSymbols) {
+                output.writeUTF(symbol);
+            }
+            output.writeInt(ribbon.length);
+            for (int symbol : ribbon) {
+                output.writeInt(symbol);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Can not write trace %s", path), e);
+        }
+
+        writer = new Thread(() -> write(output), "trace-writer-" + path.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reports the transition about to be performed.
+     *
+     * @param step     transitions counter before the transition
+     * @param position head position, relative to the first cell of the initial ribbon
+     * @param action   packed action, see {@link CompiledDefinition}
+     */
+    public void step(long step, int state, int position, int read, long action) {
+        if (step < nextSampled || step >= options.getWindowEnd()) {
+            return;
+        }
+        nextSampled = step + options.getSampleInterval();
+
+        final int write = CompiledDefinition.writeSymbol(action);
+        final int move = CompiledDefinition.move(action);
+        while (!buffer.offer(step, state, position, read, write, move)) {
+            if (!options.isLossless()) {
+                dropped++;
+                return;
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(format("Can not write trace %s", path), failure);
+            }
+            LockSupport.parkNanos(IDLE_NANOS);
+        }
+        recorded++;
+    }
+
+    /**
+     * Writes the remaining events and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        closing = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the trace", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void write(DataOutputStream output) {
+        final long[] events = new long[BATCH * TraceBuffer.EVENT_LONGS];
+        try (output) {
+            while (true) {
+                // read before draining: the events recorded before closing are drained
+                final boolean last = closing;
+                final int count = buffer.drain(events);
+                for (int i = 0; i < count * TraceBuffer.EVENT_LONGS; i++) {
+                    output.writeLong(events[i]);
+                }
+                if (count == 0) {
+                    if (last) {
+                        break;
+                    }
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.perrierFrancois.turing.trace;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.tape.ArrayTape;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+
+/**
+ * Renders the trace files written by {@link TraceRecorder} as human readable text, one line per recorded transition.
+ * <br/>
+ * When the trace holds every transition from the start of the run, the tape is also replayed and drawn after each
+ * transition, like {@link org.perrierFrancois.turing.TuringMachine#toString()} would; the tape drawing stops at the
+ * first transition which has not been recorded (sampled or dropped event).
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TraceRenderer {
+
+    /**
+     * @param tapes whether to draw the tapes, when the trace is complete
+     * @throws IOException if the trace can not be read, or has been recorded for another definition
+     */
+    public static void render(Path trace, CompiledDefinition definition, Appendable out, boolean tapes) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(trace), 1 << 16))) {
+            if (input.readInt() != TraceRecorder.MAGIC) {
+                throw new IOException("Not a trace file");
+            }
+            final int version = input.readInt();
+            if (version != TraceRecorder.VERSION) {
+                throw new IOException(format("Unsupported trace file version %d", version));
+            }
+            if (input.readLong() != definition.fingerprint()) {
+                throw new IOException("Trace of another definition");
+            }
+            final long sampleInterval = input.readLong();
+            final long windowStart = input.readLong();
+
+            final List<String> foreignSymbols = new ArrayList<>();
+            final int foreignCount = input.readInt();
+            for (int i = 0; i < foreignCount; i++) {
+                foreignSymbols.add(input.readUTF());
+            }
+            final IntFunction<String> symbolNames = symbol -> symbol < definition.getSymbolCount()
+                    ? definition.symbolName(symbol) : foreignSymbols.get(symbol - definition.getSymbolCount());
+            final int[] ribbon = new int[input.readInt()];
+            for (int i = 0; i < ribbon.length; i++) {
+                ribbon[i] = input.readInt();
+            }
+
+            ArrayTape tape = tapes && sampleInterval == 1 && windowStart == 0 ? new ArrayTape(symbolNames, ribbon) : null;
+            if (tape != null) {
+                out.append(tape.toString()).append(lineSeparator());
+            }
+
+            final long[] event = new long[TraceBuffer.EVENT_LONGS];
+            long expected = 0;
+            while (readEvent(input, event)) {
+                final long step = TraceBuffer.step(event, 0);
+                final int write = TraceBuffer.write(event, 0);
+                final Move move = CompiledDefinition.toMove(TraceBuffer.move(event, 0));
+                out.append(format("%d: %s reads '%s' at %d, writes '%s', moves %s",
+                        step,
+                        definition.stateName(TraceBuffer.state(event, 0)),
+                        symbolNames.apply(TraceBuffer.read(event, 0)),
+                        TraceBuffer.position(event, 0),
+                        symbolNames.apply(write),
+                        move))
+                        .append(lineSeparator());
+
+                if (tape != null && step != expected) {
+                    out.append(format("Transitions %d to %d not recorded, tape drawing stopped", expected, step - 1))
+                            .append(lineSeparator());
+                    tape = null;
+                }
+                if (tape != null) {
+                    tape.write(write);
+                    if (move != Move.DONT_MOVE) {
+                        tape.move(move == Move.RIGHT, 1);
+                    }
+                    out.append(tape.toString()).append(lineSeparator());
+                    expected++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return <code>false</code> at the end of the trace, ignoring an incomplete last event
+     */
+    private static boolean readEvent(DataInputStream input, long[] event) throws IOException {
+        try {
+            for (int i = 0; i < event.length; i++) {
+                event[i] = input.readLong();
+            }
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+}
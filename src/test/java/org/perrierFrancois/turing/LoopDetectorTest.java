@@ -0,0 +1,90 @@
+package org.perrierFrancois.turing;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+import static org.perrierFrancois.turing.definition.Actions.action;
+
+class LoopDetectorTest {
+
+    @Test
+    public void testExactLoop() {
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("a")
+                .finalState("end")
+                .action(action("a", "1", "0", Move.RIGHT, "b"))
+                .action(action("b", EMPTY_SYMBOL, EMPTY_SYMBOL, Move.LEFT, "c"))
+                .action(action("c", "0", "1", Move.DONT_MOVE, "a"))
+                .build();
+
+        final TuringMachine interpreted = new TuringMachine(definition);
+        interpreted.enableLoopDetection();
+        assertLoop(interpreted, interpreted::getLoop, List.of("1"), LoopDetector.Kind.EXACT, 3, 0);
+
+        final CompiledTuringMachine compiled = new CompiledTuringMachine(definition);
+        compiled.enableLoopDetection();
+        assertLoop(compiled, compiled::getLoop, List.of("1"), LoopDetector.Kind.EXACT, 3, 0);
+    }
+
+    @Test
+    public void testTranslatedLoop() {
+        // writes 1 then steps back once before moving on: |1| |1| |1|...
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("a")
+                .finalState("end")
+                .action(action("a", EMPTY_SYMBOL, "1", Move.RIGHT, "b"))
+                .action(action("b", EMPTY_SYMBOL, EMPTY_SYMBOL, Move.LEFT, "c"))
+                .action(action("c", "1", "1", Move.RIGHT, "d"))
+                .action(action("d", EMPTY_SYMBOL, EMPTY_SYMBOL, Move.RIGHT, "a"))
+                .build();
+
+        final TuringMachine interpreted = new TuringMachine(definition);
+        interpreted.enableLoopDetection();
+        assertLoop(interpreted, interpreted::getLoop, List.of(), LoopDetector.Kind.TRANSLATED, 4, 2);
+
+        final CompiledTuringMachine compiled = new CompiledTuringMachine(definition);
+        compiled.enableLoopDetection();
+        assertLoop(compiled, compiled::getLoop, List.of(), LoopDetector.Kind.TRANSLATED, 4, 2);
+    }
+
+    @Test
+    public void testNoFalsePositive() {
+        final CompiledTuringMachine counter = new CompiledTuringMachine(BinaryCounterDefinitionGenerator.buildDefinition());
+        counter.enableLoopDetection();
+        counter.initialize(List.of());
+        assertThat(counter.run(1_000_000).getMachineState()).isEqualTo(MachineState.RUNNING);
+
+        final TuringMachine adder = new TuringMachine(BinaryAdderDefinitionGenerator.buildDefinition(3));
+        adder.enableLoopDetection();
+        adder.initialize(Arrays.asList("1", "0", "1", "1", "1", "0"));
+        final RunResult result = adder.run();
+        assertThat(result.getReason()).isEqualTo(StopReason.ACCEPTED);
+        assertThat(result.getTransitions()).isEqualTo(4 * 3 * 3 + 2 * 3 - 1);
+    }
+
+    private void assertLoop(TuringMachineEngine machine, Supplier<Optional<LoopDetector.Loop>> loop,
+                            List<String> ribbon, LoopDetector.Kind kind, long period, long shift) {
+        machine.initialize(ribbon);
+        final RunResult result = machine.run(10_000);
+
+        assertThat(result.getReason()).isEqualTo(StopReason.LOOPING);
+        assertThat(machine.getMachineState()).isEqualTo(MachineState.LOOPING);
+        assertThat(loop.get()).hasValueSatisfying(l -> {
+            assertThat(l.getKind()).isEqualTo(kind);
+            assertThat(l.getPeriod()).isEqualTo(period);
+            assertThat(l.getShift()).isEqualTo(shift);
+            assertThat(l.getDetectedAt()).isEqualTo(machine.getTransitions());
+        });
+    }
+}
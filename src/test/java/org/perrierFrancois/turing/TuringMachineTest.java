@@ -0,0 +1,43 @@
+package org.perrierFrancois.turing;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+import static org.perrierFrancois.turing.definition.Actions.action;
+
+class TuringMachineTest {
+
+    @Test
+    public void testSymbolIdDoesNotAssignIds() {
+        final TuringMachine machine = new TuringMachine(BinaryAdderDefinitionGenerator.buildDefinition(2));
+
+        assertThat(machine.symbolId("x")).isEqualTo(-1);
+        assertThatThrownBy(() -> machine.initialize(new int[]{machine.symbolId("1"), machine.symbolId("x")}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(machine.symbolName(machine.symbolId("1"))).isEqualTo("1");
+    }
+
+    @Test
+    public void testSymbolsOnlyReadHaveIds() {
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("erase")
+                .finalState("end")
+                .action(action("erase", "x", EMPTY_SYMBOL, Move.RIGHT, "erase"))
+                .action(action("erase", EMPTY_SYMBOL, EMPTY_SYMBOL, Move.DONT_MOVE, "end"))
+                .build();
+        final TuringMachine machine = new TuringMachine(definition);
+
+        final int x = machine.symbolId("x");
+        assertThat(x).isNotNegative();
+        machine.initialize(new int[]{x, x});
+        machine.run();
+
+        assertThat(machine.getMachineState()).isEqualTo(MachineState.ACCEPTED);
+        assertThat(machine.getTransitions()).isEqualTo(3);
+    }
+}
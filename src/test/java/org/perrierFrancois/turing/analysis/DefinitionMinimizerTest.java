@@ -0,0 +1,74 @@
+package org.perrierFrancois.turing.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.definition.Actions.action;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
+
+class DefinitionMinimizerTest {
+
+    @Test
+    public void testAdder() {
+        final int bits = 4;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+        final DefinitionMinimizer.Result result = DefinitionMinimizer.minimize(definition);
+
+        assertThat(result.getUnreachableStates()).isZero();
+        assertThat(result.getMergedStates()).isPositive();
+        assertThat(result.getStatesAfter()).isLessThan(result.getStatesBefore());
+        assertThat(result.getActionsAfter()).isLessThan(result.getActionsBefore());
+        assertThat(result.getDefinition().getActions()).hasSize(result.getActionsAfter());
+        assertThat(CompiledDefinition.compile(result.getDefinition()).getStateCount()).isEqualTo(result.getStatesAfter());
+
+        final CompiledTuringMachine original = new CompiledTuringMachine(CompiledDefinition.compile(definition));
+        final CompiledTuringMachine minimized = new CompiledTuringMachine(CompiledDefinition.compile(result.getDefinition()));
+        for (int a = 0; a < 1 << bits; a++) {
+            for (int b = 0; b < 1 << bits; b++) {
+                final List<String> ribbon = buildTape(bits, a, b);
+                original.reset();
+                minimized.reset();
+                original.initialize(ribbon);
+                minimized.initialize(ribbon);
+
+                assertThat(minimized.run()).isEqualTo(original.run());
+                assertThat(minimized.getTransitions()).isEqualTo(original.getTransitions());
+                assertThat(minimized.getTape().getSymbols()).isEqualTo(original.getTape().getSymbols());
+                assertThat(minimized.getInternalState()).isEqualTo(original.getInternalState());
+            }
+        }
+    }
+
+    @Test
+    public void testPruneUnreachableStates() {
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("a")
+                .finalState("end")
+                .action(action("a", "0", "1", Move.RIGHT, "b"))
+                .action(action("b", "0", "1", Move.RIGHT, "c"))
+                .action(action("b", "", "", Move.DONT_MOVE, "end"))
+                .action(action("c", "0", "1", Move.RIGHT, "b"))
+                .action(action("c", "", "", Move.DONT_MOVE, "end"))
+                .action(action("orphan", "0", "0", Move.LEFT, "a"))
+                .build();
+
+        final DefinitionMinimizer.Result result = DefinitionMinimizer.minimize(definition);
+
+        assertThat(result.getStatesBefore()).isEqualTo(5);
+        assertThat(result.getUnreachableStates()).isEqualTo(1);
+        // a, b and c all write 1 and move right on 0, but only b and c stop on the empty symbol
+        assertThat(result.getMergedStates()).isEqualTo(1);
+        assertThat(result.getStatesAfter()).isEqualTo(3);
+        assertThat(result.getDefinition().getActions()).containsExactlyInAnyOrder(
+                action("a", "0", "1", Move.RIGHT, "b"),
+                action("b", "0", "1", Move.RIGHT, "b"),
+                action("b", "", "", Move.DONT_MOVE, "end"));
+    }
+}
@@ -0,0 +1,66 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.collectingAndThen;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.generators.AdderRibbons.allTapes;
+
+class BatchRunnerTest {
+
+    private static final int BITS = 6;
+
+    private final CompiledDefinition definition = CompiledDefinition.compile(BinaryAdderDefinitionGenerator.buildDefinition(BITS));
+
+    @Test
+    public void testResultsAreInInputOrder() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BatchRunner runner = new BatchRunner(definition, executor, Long.MAX_VALUE, 16);
+
+            final List<Integer> results = runner.runAll(allTapes(BITS), BatchRunnerTest::result);
+
+            assertThat(results).isEqualTo(IntStream.range(0, 1 << (2 * BITS))
+                    .mapToObj(i -> (i >> BITS) + (i & ((1 << BITS) - 1)))
+                    .collect(Collectors.toList()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testResultsAsTheyComplete() {
+        final BatchRunner runner = new BatchRunner(definition);
+        final ConcurrentHashMap<Long, Integer> results = new ConcurrentHashMap<>();
+
+        runner.runAll(allTapes(BITS), BatchRunnerTest::result, (result, index) -> results.put(index, result));
+
+        assertThat(results).hasSize(1 << (2 * BITS));
+        results.forEach((index, result) -> assertThat(result).isEqualTo((index >> BITS) + (index & ((1 << BITS) - 1))));
+    }
+
+    @Test
+    public void testRunResults() {
+        final List<RunResult> results = new BatchRunner(definition).runAll(allTapes(BITS).limit(100));
+
+        assertThat(results).hasSize(100).allSatisfy(result -> {
+            assertThat(result.getReason()).isEqualTo(StopReason.ACCEPTED);
+            assertThat(result.getTransitions()).isEqualTo(4 * BITS * BITS + 2 * BITS - 1);
+        });
+    }
+
+    private static int result(CompiledTuringMachine machine) {
+        return machine.getTape().getSymbols().subList(2 * BITS, 3 * BITS + 1).stream()
+                .collect(collectingAndThen(Collectors.joining(), s -> Integer.valueOf(s, 2)));
+    }
+}
@@ -0,0 +1,95 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.TuringMachine.EMPTY_SYMBOL;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
+
+class BlockCachedTuringMachineTest {
+
+    @Test
+    public void testSameBehaviourAsTuringMachine() {
+        final int bits = 4;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+
+        final TuringMachine reference = new TuringMachine(definition);
+        final BlockCachedTuringMachine cached = new BlockCachedTuringMachine(CompiledDefinition.compile(definition), 3, 64);
+
+        for (int a = 0; a < 1 << bits; a++) {
+            for (int b = 0; b < 1 << bits; b++) {
+                final List<String> ribbon = buildTape(bits, a, b);
+                reference.reset();
+                reference.initialize(ribbon);
+                cached.reset();
+                cached.initialize(ribbon);
+
+                reference.run();
+                cached.run();
+
+                assertThat(cached.getMachineState()).isEqualTo(MachineState.ACCEPTED);
+                assertThat(cached.getTransitions()).isEqualTo(reference.getTransitions());
+                assertThat(cached.toString()).isEqualTo(reference.toString());
+            }
+        }
+
+        assertThat(cached.getCache().getHits()).isPositive();
+        assertThat(cached.getCache().getEvictions()).isPositive();
+        assertThat(cached.getCache().size()).isEqualTo(64);
+    }
+
+    @Test
+    public void testRepeatedSweepsHitTheCache() {
+        final TuringMachineDefinition definition = BinaryCounterDefinitionGenerator.buildDefinition();
+
+        final TuringMachine reference = new TuringMachine(definition);
+        final BlockCachedTuringMachine cached = new BlockCachedTuringMachine(CompiledDefinition.compile(definition));
+        reference.initialize(List.of());
+        cached.initialize(List.of());
+
+        for (int budget : new int[]{1, 7, 100, 1000, 100_000}) {
+            reference.run(budget);
+            cached.run(budget);
+
+            assertThat(cached.getTransitions()).isEqualTo(reference.getTransitions());
+            assertThat(cached.getInternalState()).isEqualTo(reference.getInternalState());
+            assertThat(cached.toString()).isEqualTo(reference.toString());
+        }
+
+        final BlockTransitionCache cache = cached.getCache();
+        assertThat(cache.getHits()).isGreaterThan(10 * cache.getMisses());
+    }
+
+    @Test
+    public void testLoopInsideABlockHitsTheCache() {
+        // moves back and forth between two cells of the same block forever
+        final CompiledDefinition.Builder builder = CompiledDefinition.builder().initialState("ping").finalState("done");
+        builder.action("ping", EMPTY_SYMBOL, EMPTY_SYMBOL, Move.RIGHT, "pong");
+        builder.action("pong", EMPTY_SYMBOL, EMPTY_SYMBOL, Move.LEFT, "ping");
+        final CompiledDefinition definition = builder.build();
+
+        final CompiledTuringMachine reference = new CompiledTuringMachine(definition);
+        final BlockCachedTuringMachine cached = new BlockCachedTuringMachine(definition);
+        reference.initialize(List.of());
+        cached.initialize(List.of());
+
+        reference.run(100_000);
+        cached.run(100_000);
+
+        assertThat(cached.getTransitions()).isEqualTo(reference.getTransitions());
+        assertThat(cached.getInternalState()).isEqualTo(reference.getInternalState());
+        assertThat(cached.toString()).isEqualTo(reference.toString());
+
+        final BlockTransitionCache cache = cached.getCache();
+        assertThat(cache.getMisses()).isOne();
+        assertThat(cache.getHits()).isPositive();
+    }
+}
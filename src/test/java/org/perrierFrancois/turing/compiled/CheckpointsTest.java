@@ -0,0 +1,90 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+import org.perrierFrancois.turing.tape.RunLengthTape;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CheckpointsTest {
+
+    @TempDir
+    Path directory;
+
+    private final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+
+    @Test
+    public void testResume() throws IOException {
+        final Path file = directory.resolve("counter.tmcp");
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+        machine.initialize(ribbon());
+
+        try (CheckpointWriter writer = new CheckpointWriter(file)) {
+            for (int i = 0; i < 5; i++) {
+                machine.run(100_000);
+                writer.checkpoint(machine);
+            }
+            // the counter only changes the cells around the start of the initial ribbon
+            assertThat(writer.getCheckpoints()).isEqualTo(5);
+            assertThat(machine.getTape().size()).isGreaterThan(3 * Checkpoints.SEGMENT_SIZE);
+            assertThat(writer.getWrittenSegments()).isLessThanOrEqualTo(2);
+        }
+
+        final CompiledTuringMachine restored = new CompiledTuringMachine(definition, RunLengthTape::new);
+        Checkpoints.restore(file, restored);
+        assertSameConfiguration(restored, machine);
+
+        machine.run(100_000);
+        restored.run(100_000);
+        assertSameConfiguration(restored, machine);
+    }
+
+    @Test
+    public void testIncompleteCheckpoint() throws IOException {
+        final Path file = directory.resolve("counter.tmcp");
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+        machine.initialize(ribbon());
+
+        try (CheckpointWriter writer = new CheckpointWriter(file)) {
+            machine.run(1_000);
+            writer.checkpoint(machine);
+            machine.run(1_000);
+            writer.checkpoint(machine);
+        }
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        final CompiledTuringMachine restored = new CompiledTuringMachine(definition);
+        Checkpoints.restore(file, restored);
+        assertThat(restored.getTransitions()).isEqualTo(1_000);
+        assertThat(restored.getMachineState()).isEqualTo(MachineState.RUNNING);
+
+        final CompiledTuringMachine adder = new CompiledTuringMachine(BinaryAdderDefinitionGenerator.compileDefinition(2));
+        assertThatThrownBy(() -> Checkpoints.restore(file, adder)).isInstanceOf(IOException.class)
+                .hasMessageContaining("another definition");
+    }
+
+    private static List<String> ribbon() {
+        return Collections.nCopies(3 * Checkpoints.SEGMENT_SIZE + 1, "");
+    }
+
+    private static void assertSameConfiguration(CompiledTuringMachine actual, CompiledTuringMachine expected) {
+        assertThat(actual.getTransitions()).isEqualTo(expected.getTransitions());
+        assertThat(actual.getMachineState()).isEqualTo(expected.getMachineState());
+        assertThat(actual.getInternalState()).isEqualTo(expected.getInternalState());
+        assertThat(actual.getTape().getPosition()).isEqualTo(expected.getTape().getPosition());
+        assertThat(actual.getTape().getOrigin()).isEqualTo(expected.getTape().getOrigin());
+        assertThat(actual.getTape().getSymbols()).isEqualTo(expected.getTape().getSymbols());
+    }
+}
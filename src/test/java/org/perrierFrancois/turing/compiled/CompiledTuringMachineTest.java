@@ -0,0 +1,196 @@
+package org.perrierFrancois.turing.compiled;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.TuringMachineEngine;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.tape.RunLengthTape;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
+
+class CompiledTuringMachineTest {
+
+    @Test
+    public void testSameBehaviourAsTuringMachine() {
+        final int bits = 4;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+
+        final TuringMachine reference = new TuringMachine(definition);
+        final CompiledTuringMachine compiled = new CompiledTuringMachine(definition);
+
+        for (int a = 0; a < 1 << bits; a++) {
+            for (int b = 0; b < 1 << bits; b++) {
+                final List<String> ribbon = buildTape(bits, a, b);
+                reference.reset();
+                reference.initialize(ribbon);
+                compiled.reset();
+                compiled.initialize(ribbon);
+
+                assertSameConfiguration(reference, compiled);
+                while (!reference.getMachineState().isFinal()) {
+                    reference.nextStep();
+                    compiled.nextStep();
+                    assertSameConfiguration(reference, compiled);
+                }
+                assertThat(compiled.getMachineState()).isEqualTo(MachineState.ACCEPTED);
+            }
+        }
+    }
+
+    @Test
+    public void testRunLengthTape() {
+        final int bits = 4;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+
+        final TuringMachine reference = new TuringMachine(definition);
+        final CompiledTuringMachine compiled = new CompiledTuringMachine(CompiledDefinition.compile(definition), RunLengthTape::new);
+
+        for (int a = 0; a < 1 << bits; a++) {
+            final List<String> ribbon = buildTape(bits, a, (1 << bits) - 1 - a);
+            reference.reset();
+            reference.initialize(ribbon);
+            compiled.reset();
+            compiled.initialize(ribbon);
+
+            reference.run();
+            compiled.run();
+            assertSameConfiguration(reference, compiled);
+        }
+    }
+
+    @Test
+    public void testUnknownSymbolLeadsToIllegalState() {
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("start")
+                .finalState("end")
+                .action(Action.builder().inState("start").whenReading("a").write("b").move(Move.RIGHT).toState("start").build())
+                .build();
+
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+        machine.initialize(Arrays.asList("a", "z"));
+        machine.nextStep();
+        machine.nextStep();
+
+        assertThat(machine.getMachineState()).isEqualTo(MachineState.ILLEGAL_STATE);
+        assertThat(machine.getTransitions()).isEqualTo(1);
+        assertThat(machine.getTape().getSymbols()).containsExactly("b", "z");
+        assertThat(machine.getTape().getPosition()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDuplicateActionIsRejected() {
+        final Action action = Action.builder().inState("start").whenReading("a").write("b").move(Move.RIGHT).toState("end").build();
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("start")
+                .finalState("end")
+                .action(action)
+                .action(action)
+                .build();
+
+        assertThatThrownBy(() -> CompiledDefinition.compile(definition)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testBuiltDefinitionIsNotChangedByItsBuilder() {
+        final CompiledDefinition.Builder builder = CompiledDefinition.builder().initialState("start").finalState("end");
+        builder.action("start", "a", "b", Move.RIGHT, "end");
+        final CompiledDefinition definition = builder.build();
+
+        builder.action("end", "c", "d", Move.LEFT, "later");
+
+        assertThat(definition.stateId("later")).isEqualTo(-1);
+        assertThat(definition.symbolId("c")).isEqualTo(-1);
+        assertThat(builder.build().stateId("later")).isEqualTo(2);
+    }
+
+    @Test
+    public void testRunStopsWhenBudgetIsExhausted() {
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("loop")
+                .finalState("end")
+                .action(Action.builder().inState("loop").whenReading("").write("1").move(Move.RIGHT).toState("loop").build())
+                .build();
+
+        for (TuringMachineEngine machine : Arrays.asList(new TuringMachine(definition), new CompiledTuringMachine(definition))) {
+            machine.initialize(List.of());
+
+            RunResult result = machine.run(1000);
+            assertThat(result.getReason()).isEqualTo(StopReason.BUDGET_EXHAUSTED);
+            assertThat(result.getMachineState()).isEqualTo(MachineState.RUNNING);
+            assertThat(result.getSteps()).isEqualTo(1000);
+
+            result = machine.run(500);
+            assertThat(result.getTransitions()).isEqualTo(1500);
+            assertThat(machine.getTransitions()).isEqualTo(1500);
+        }
+    }
+
+    @Test
+    public void testRunUntil() {
+        final int bits = 3;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+
+        for (TuringMachineEngine machine : Arrays.asList(new TuringMachine(definition), new CompiledTuringMachine(definition))) {
+            machine.initialize(buildTape(bits, 5, 6));
+
+            RunResult result = machine.runUntil(m -> m.getInternalState().startsWith("addDigits1_"));
+            assertThat(result.getReason()).isEqualTo(StopReason.CONDITION_MET);
+            assertThat(machine.getInternalState()).isEqualTo("addDigits1_0");
+
+            result = machine.run();
+            assertThat(result.getReason()).isEqualTo(StopReason.ACCEPTED);
+            assertThat(result.getTransitions()).isEqualTo(4 * bits * bits + 2 * bits - 1);
+        }
+    }
+
+    @Test
+    public void testReinitializationAllocatesNothing() {
+        final int bits = 4;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (TuringMachineEngine machine : Arrays.asList(new TuringMachine(definition), new CompiledTuringMachine(definition))) {
+            final TuringMachineEngine expected = machine instanceof TuringMachine ? new TuringMachine(definition) : new CompiledTuringMachine(definition);
+            for (int a = 0; a < 1 << bits; a++) {
+                machine.reset();
+                machine.initialize(String.join("", buildTape(bits, a, 11)));
+                expected.reset();
+                expected.initialize(buildTape(bits, a, 11));
+                assertThat(machine.run()).isEqualTo(expected.run());
+                assertThat(machine.toString()).isEqualTo(expected.toString());
+            }
+
+            final String ribbon = "01101001";
+            final long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < 10_000; i++) {
+                machine.reset();
+                machine.initialize(ribbon);
+            }
+            final long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+            // only the measurement itself allocates
+            assertThat(allocated).isLessThan(1_000);
+        }
+    }
+
+    private void assertSameConfiguration(TuringMachine reference, CompiledTuringMachine compiled) {
+        assertThat(compiled.getMachineState()).isEqualTo(reference.getMachineState());
+        assertThat(compiled.getInternalState()).isEqualTo(reference.getInternalState());
+        assertThat(compiled.getTransitions()).isEqualTo(reference.getTransitions());
+        assertThat(compiled.getTape().getPosition()).isEqualTo(reference.getTape().getPosition());
+        assertThat(compiled.getTape().getSymbols()).isEqualTo(reference.getTape().getSymbols());
+        assertThat(compiled.toString()).isEqualTo(reference.toString());
+    }
+}
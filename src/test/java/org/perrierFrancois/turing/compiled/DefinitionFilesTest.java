@@ -0,0 +1,139 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DefinitionFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final CompiledDefinition definition = BinaryAdderDefinitionGenerator.compileDefinition(6);
+        final Path file = directory.resolve("adder6.tmcd");
+
+        DefinitionFiles.write(definition, file);
+        final CompiledDefinition loaded = DefinitionFiles.read(file);
+
+        assertThat(loaded.getStateCount()).isEqualTo(definition.getStateCount());
+        assertThat(loaded.getSymbolCount()).isEqualTo(definition.getSymbolCount());
+        assertThat(loaded.getInitialState()).isEqualTo(definition.getInitialState());
+        assertThat(loaded.actions).isEqualTo(definition.actions);
+        for (int state = 0; state < definition.getStateCount(); state++) {
+            assertThat(loaded.stateName(state)).isEqualTo(definition.stateName(state));
+            assertThat(loaded.stateId(definition.stateName(state))).isEqualTo(state);
+            assertThat(loaded.isFinal(state)).isEqualTo(definition.isFinal(state));
+        }
+        assertThat(loaded.symbolId("1")).isEqualTo(definition.symbolId("1"));
+
+        final CompiledTuringMachine machine = new CompiledTuringMachine(loaded);
+        machine.initialize(Arrays.asList("0", "0", "0", "1", "1", "1", "0", "0", "0", "1", "0", "1"));
+        machine.run();
+        assertThat(machine.getTape().getSymbols().subList(12, 19)).containsExactly("0", "0", "0", "1", "1", "0", "0");
+    }
+
+    @Test
+    public void testRejectsInvalidFiles() throws IOException {
+        final Path file = directory.resolve("invalid.tmcd");
+        DefinitionFiles.write(BinaryAdderDefinitionGenerator.compileDefinition(2), file);
+
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[4] = 2;
+        Files.write(file, bytes);
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("version");
+
+        Files.write(file, Arrays.copyOf(bytes, 30));
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testRejectsCorruptedHeaders() throws IOException {
+        final Path file = directory.resolve("corrupted.tmcd");
+
+        // counts far beyond the size of the file
+        Files.write(file, header(Integer.MAX_VALUE, Integer.MAX_VALUE, 0, 0).array());
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("Truncated");
+
+        Files.write(file, header(1 << 20, 1 << 10, 0, 1 << 30).array());
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("Truncated");
+
+        // a string longer than the file
+        final ByteBuffer name = header(1, 1, 0, 0);
+        Files.write(file, Arrays.copyOf(name.array(), name.capacity() + 12));
+        final ByteBuffer longName = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        longName.putInt(name.capacity(), Integer.MAX_VALUE);
+        Files.write(file, longName.array());
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("Truncated");
+
+        // a valid header, but a table of 1M actions missing
+        final ByteBuffer table = ByteBuffer.allocate(48).order(ByteOrder.LITTLE_ENDIAN);
+        table.put(header(1 << 10, 1 << 10, 0, 0).array());
+        Files.write(file, table.array());
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class);
+
+        final ByteBuffer negative = header(-1, 2, 0, 0);
+        Files.write(file, negative.array());
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("count");
+    }
+
+    @Test
+    public void testRejectsInconsistentNames() throws IOException {
+        final Path file = directory.resolve("names.tmcd");
+
+        Files.write(file, definition(new String[]{"a", "b"}, new String[]{"0", ""}));
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("empty symbol");
+
+        Files.write(file, definition(new String[]{"a", "b"}, new String[0]));
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("empty symbol");
+
+        Files.write(file, definition(new String[]{"a", "a"}, new String[]{"", "0"}));
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("Duplicate state");
+
+        Files.write(file, definition(new String[]{"a", "b"}, new String[]{"", "0", "0"}));
+        assertThatThrownBy(() -> DefinitionFiles.read(file)).isInstanceOf(IOException.class).hasMessageContaining("Duplicate symbol");
+
+        Files.write(file, definition(new String[]{"a", "b"}, new String[]{"", "0"}));
+        assertThat(DefinitionFiles.read(file).getSymbolCount()).isEqualTo(2);
+    }
+
+    /**
+     * @return a definition file without final states nor actions, starting in the first state
+     */
+    private static byte[] definition(String[] states, String[] symbols) {
+        final ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN)
+                .put(header(states.length, symbols.length, 0, 0).array());
+        for (String name : Stream.concat(Arrays.stream(states), Arrays.stream(symbols)).toArray(String[]::new)) {
+            final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        buffer.position((buffer.position() + Long.BYTES - 1) & -Long.BYTES);
+        for (int i = 0; i < states.length * symbols.length; i++) {
+            buffer.putLong(CompiledDefinition.NO_ACTION);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static ByteBuffer header(int stateCount, int symbolCount, int initialState, int finalCount) {
+        return ByteBuffer.allocate(6 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(DefinitionFiles.MAGIC)
+                .putInt(DefinitionFiles.VERSION)
+                .putInt(stateCount)
+                .putInt(symbolCount)
+                .putInt(initialState)
+                .putInt(finalCount);
+    }
+}
@@ -0,0 +1,99 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
+
+class GeneratedTuringMachineTest {
+
+    @Test
+    public void testSameBehaviourAsCompiledTuringMachine() {
+        assertSameBehaviour(8, 7);
+    }
+
+    @Test
+    public void testDefinitionSplitInSeveralMethods() {
+        assertSameBehaviour(32, 1 << 27);
+    }
+
+    private void assertSameBehaviour(int bits, int increment) {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryAdderDefinitionGenerator.buildDefinition(bits));
+
+        final CompiledTuringMachine reference = new CompiledTuringMachine(definition);
+        final GeneratedTuringMachine generated = new GeneratedTuringMachine(definition);
+
+        for (long a = 0; a < 1L << bits; a += increment) {
+            for (long b = 0; b < 1L << bits; b += increment + 2) {
+                final List<String> ribbon = buildTape(bits, a, b);
+                reference.reset();
+                reference.initialize(ribbon);
+                generated.reset();
+                generated.initialize(ribbon);
+
+                // stop half way, then resume
+                generated.run(100);
+                assertThat(generated.getMachineState()).isEqualTo(MachineState.RUNNING);
+                assertThat(generated.getTransitions()).isEqualTo(100);
+
+                reference.run();
+                final RunResult result = generated.run();
+
+                assertThat(result.getReason()).isEqualTo(StopReason.ACCEPTED);
+                assertThat(generated.getTransitions()).isEqualTo(reference.getTransitions());
+                assertThat(generated.toString()).isEqualTo(reference.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testStepByStep() {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final CompiledTuringMachine reference = new CompiledTuringMachine(definition);
+        final GeneratedTuringMachine generated = new GeneratedTuringMachine(definition);
+        reference.initialize(List.of());
+        generated.initialize(List.of());
+
+        for (int i = 0; i < 1000; i++) {
+            reference.nextStep();
+            generated.nextStep();
+            assertThat(generated.toString()).isEqualTo(reference.toString());
+        }
+    }
+
+    @Test
+    public void testIllegalState() {
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("start")
+                .finalState("end")
+                .action(Action.builder().inState("start").whenReading("a").write("b").move(Move.RIGHT).toState("start").build())
+                .build();
+
+        final GeneratedTuringMachine machine = new GeneratedTuringMachine(definition);
+        machine.initialize(Arrays.asList("a", "a", "z"));
+        final RunResult result = machine.run();
+
+        assertThat(result.getReason()).isEqualTo(StopReason.ILLEGAL_STATE);
+        assertThat(result.getTransitions()).isEqualTo(2);
+        assertThat(machine.getTape().getSymbols()).containsExactly("b", "b", "z");
+    }
+
+    @Test
+    public void testBackendSelection() {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryAdderDefinitionGenerator.buildDefinition(4));
+
+        assertThat(GeneratedTuringMachine.forDefinition(definition, 1000)).isNotInstanceOf(GeneratedTuringMachine.class);
+        assertThat(GeneratedTuringMachine.forDefinition(definition, Long.MAX_VALUE)).isInstanceOf(GeneratedTuringMachine.class);
+    }
+}
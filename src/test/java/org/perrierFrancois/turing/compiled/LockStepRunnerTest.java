@@ -0,0 +1,89 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.generators.AdderRibbons.allTapes;
+
+class LockStepRunnerTest {
+
+    private static final int BITS = 4;
+
+    private final CompiledDefinition definition = CompiledDefinition.compile(BinaryAdderDefinitionGenerator.buildDefinition(BITS));
+
+    @Test
+    public void testRunsLikeCompiledTuringMachine() {
+        final List<String> expected = inputs().map(ribbon -> {
+            final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+            machine.initialize(ribbon);
+            machine.run();
+            return machine.getTransitions() + machine.toString();
+        }).collect(Collectors.toList());
+
+        // margins too small for the adder make lanes leave their window
+        for (int margin : new int[]{0, 1, LockStepRunner.DEFAULT_MARGIN}) {
+            final LockStepRunner runner = new LockStepRunner(definition, 100, margin, Long.MAX_VALUE);
+
+            assertThat(runner.runAll(inputs(), machine -> machine.getTransitions() + machine.toString()))
+                    .as("margin %d", margin)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testRunResults() {
+        final List<RunResult> results = new LockStepRunner(definition).runAll(inputs());
+
+        assertThat(results).hasSize(1 << (2 * BITS)).allSatisfy(result -> {
+            assertThat(result.getMachineState()).isEqualTo(MachineState.ACCEPTED);
+            assertThat(result.getTransitions()).isPositive();
+        });
+    }
+
+    @Test
+    public void testStepBudget() {
+        final CompiledDefinition counter = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final LockStepRunner runner = new LockStepRunner(counter, 8, 4, 1000);
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final CompiledTuringMachine machine = new CompiledTuringMachine(counter);
+            machine.initialize(ribbon(i));
+            machine.run(1000);
+            expected.add(machine.getMachineState() + " " + machine.getTransitions() + machine.toString());
+        }
+
+        assertThat(runner.runAll(IntStream.range(0, 20).mapToObj(this::ribbon),
+                machine -> machine.getMachineState() + " " + machine.getTransitions() + machine.toString()))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    public void testForeignSymbols() {
+        final List<RunResult> results = new LockStepRunner(definition).runAll(Stream.of(
+                Arrays.asList("0", "1", "x", "0", "1", "1", "0", "0"),
+                Arrays.asList("0", "0", "0", "1", "0", "0", "0", "1")));
+
+        assertThat(results.get(0).getMachineState()).isEqualTo(MachineState.ILLEGAL_STATE);
+        assertThat(results.get(1).getMachineState()).isEqualTo(MachineState.ACCEPTED);
+    }
+
+    private Stream<List<String>> inputs() {
+        return allTapes(BITS);
+    }
+
+    private List<String> ribbon(int i) {
+        return i == 0 ? List.of() : Arrays.asList(Integer.toString(i, 2).split(""));
+    }
+}
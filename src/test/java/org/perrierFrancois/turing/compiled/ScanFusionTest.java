@@ -0,0 +1,96 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.TuringMachineEngine;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
+
+class ScanFusionTest {
+
+    @Test
+    public void testDetectsAdderScanChains() {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryAdderDefinitionGenerator.buildDefinition(4));
+
+        assertThat(definition.getFusedStates()).isPositive();
+        assertThat(definition.fusion.kinds[definition.getInitialState()]).isEqualTo(ScanFusion.SCAN);
+    }
+
+    @Test
+    public void testFusedRunsLikeTuringMachine() {
+        final int bits = 4;
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+
+        final TuringMachine reference = new TuringMachine(definition);
+        final CompiledTuringMachine compiled = new CompiledTuringMachine(definition);
+
+        for (int a = 0; a < 1 << bits; a++) {
+            for (int b = 0; b < 1 << bits; b++) {
+                final List<String> ribbon = buildTape(bits, a, b);
+                reference.reset();
+                reference.initialize(ribbon);
+                compiled.reset();
+                compiled.initialize(ribbon);
+
+                reference.run();
+                compiled.run();
+
+                assertThat(compiled.getMachineState()).isEqualTo(MachineState.ACCEPTED);
+                assertSameConfiguration(reference, compiled);
+            }
+        }
+    }
+
+    @Test
+    public void testBudgetsSplittingMacroInstructions() {
+        final TuringMachineDefinition definition = BinaryCounterDefinitionGenerator.buildDefinition();
+
+        final TuringMachine reference = new TuringMachine(definition);
+        final CompiledTuringMachine compiled = new CompiledTuringMachine(definition);
+        reference.initialize(List.of());
+        compiled.initialize(List.of());
+
+        for (int budget = 1; budget < 300; budget++) {
+            reference.run(budget);
+            compiled.run(budget);
+            assertSameConfiguration(reference, compiled);
+        }
+    }
+
+    @Test
+    public void testSkipOverEmptyCells() {
+        final TuringMachineDefinition definition = TuringMachineDefinition.builder()
+                .initialState("right")
+                .finalState("end")
+                .action(Action.builder().inState("right").whenReading("a").write("a").move(Move.RIGHT).toState("right").build())
+                .action(Action.builder().inState("right").whenReading("").write("").move(Move.RIGHT).toState("right").build())
+                .action(Action.builder().inState("right").whenReading("b").write("b").move(Move.DONT_MOVE).toState("end").build())
+                .build();
+
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+        machine.initialize(Arrays.asList("a", "a", "", "a"));
+        machine.run(1_000_000);
+
+        assertThat(machine.getMachineState()).isEqualTo(MachineState.RUNNING);
+        assertThat(machine.getTransitions()).isEqualTo(1_000_000);
+        assertThat(machine.getTape().getPosition()).isEqualTo(1_000_000);
+        assertThat(machine.getTape().size()).isEqualTo(1_000_001);
+    }
+
+    private void assertSameConfiguration(TuringMachineEngine reference, CompiledTuringMachine compiled) {
+        assertThat(compiled.getMachineState()).isEqualTo(reference.getMachineState());
+        assertThat(compiled.getInternalState()).isEqualTo(reference.getInternalState());
+        assertThat(compiled.getTransitions()).isEqualTo(reference.getTransitions());
+        assertThat(compiled.toString()).isEqualTo(reference.toString());
+    }
+}
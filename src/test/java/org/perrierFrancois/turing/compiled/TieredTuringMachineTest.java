@@ -0,0 +1,156 @@
+package org.perrierFrancois.turing.compiled;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.compiled.TieredDefinition.Tier;
+import org.perrierFrancois.turing.definition.Action;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
+
+class TieredTuringMachineTest {
+
+    private final TuringMachineDefinition counter = BinaryCounterDefinitionGenerator.buildDefinition();
+
+    @Test
+    public void testPromotedDuringRun() {
+        final TieredDefinition definition = new TieredDefinition(counter, 10_000, 1_000_000, Runnable::run);
+        final TieredTuringMachine machine = definition.newMachine();
+        final TuringMachine reference = new TuringMachine(counter);
+        machine.initialize(List.of());
+        reference.initialize(List.of());
+
+        machine.run(5000);
+        reference.run(5000);
+        assertThat(machine.getTier()).isEqualTo(Tier.INTERPRETED);
+        assertThat(machine.toString()).isEqualTo(reference.toString());
+
+        machine.run(20_000);
+        reference.run(20_000);
+        assertThat(machine.getTier()).isEqualTo(Tier.COMPILED);
+        assertThat(machine.getTransitions()).isEqualTo(reference.getTransitions());
+        assertThat(machine.toString()).isEqualTo(reference.toString());
+
+        machine.run(2_000_000);
+        reference.run(2_000_000);
+        assertThat(machine.getTier()).isEqualTo(Tier.GENERATED);
+        assertThat(machine.getTransitions()).isEqualTo(reference.getTransitions());
+        assertThat(machine.toString()).isEqualTo(reference.toString());
+        assertThat(definition.getTransitions()).isEqualTo(2_025_000);
+    }
+
+    @Test
+    public void testRejectedPromotionIsRetried() {
+        final AtomicInteger submissions = new AtomicInteger();
+        final TieredDefinition definition = new TieredDefinition(counter, 1000, Long.MAX_VALUE, task -> {
+            submissions.incrementAndGet();
+            throw new RejectedExecutionException("shut down");
+        });
+        final TieredTuringMachine machine = definition.newMachine();
+        machine.initialize(List.of());
+
+        machine.run(50_000);
+        assertThat(machine.getTransitions()).isEqualTo(50_000);
+        assertThat(machine.getTier()).isEqualTo(Tier.INTERPRETED);
+        assertThat(submissions.get()).isGreaterThan(1);
+        assertThat(definition.getFailure()).isEmpty();
+    }
+
+    @Test
+    public void testFailedCompilation() {
+        // the interpreter only needs a move when it runs the action, the compiler encodes them all
+        final TuringMachineDefinition broken = TuringMachineDefinition.builder()
+                .initialState(counter.getInitialState())
+                .finalStates(counter.getFinalStates())
+                .actions(counter.getActions())
+                .action(Action.builder().inState("unreachable").whenReading("0").write("0").toState("unreachable").build())
+                .build();
+        final TieredDefinition definition = new TieredDefinition(broken, 1000, 2000, Runnable::run);
+        final TieredTuringMachine machine = definition.newMachine();
+        final TuringMachine reference = new TuringMachine(counter);
+        machine.initialize(List.of());
+        reference.initialize(List.of());
+
+        machine.run(50_000);
+        reference.run(50_000);
+        assertThat(machine.getTier()).isEqualTo(Tier.INTERPRETED);
+        assertThat(machine.toString()).isEqualTo(reference.toString());
+        assertThat(definition.getFailure()).containsInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void testCompiledInBackground() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final TieredDefinition definition = new TieredDefinition(counter, 1000, Long.MAX_VALUE, tasks::add);
+        final TieredTuringMachine machine = definition.newMachine();
+        machine.initialize(List.of());
+
+        // the machine keeps interpreting until the compilation is over
+        machine.run(50_000);
+        assertThat(tasks).hasSize(1);
+        assertThat(machine.getTier()).isEqualTo(Tier.INTERPRETED);
+
+        tasks.get(0).run();
+        assertThat(definition.getTier()).isEqualTo(Tier.COMPILED);
+        machine.nextStep();
+        assertThat(machine.getTier()).isEqualTo(Tier.COMPILED);
+        assertThat(machine.getTransitions()).isEqualTo(50_001);
+
+        // new machines start compiled
+        assertThat(definition.newMachine().getTier()).isEqualTo(Tier.COMPILED);
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    public void testHottestStatesFirst() {
+        final TieredDefinition definition = new TieredDefinition(counter, 10_000, Long.MAX_VALUE, Runnable::run);
+        final TieredTuringMachine machine = definition.newMachine();
+        machine.initialize(List.of());
+        machine.run(20_000);
+
+        final Map<String, Long> visits = definition.getStateVisits();
+        final CompiledDefinition compiled = definition.getCompiledDefinition().orElseThrow();
+        assertThat(compiled.stateName(compiled.getInitialState())).isEqualTo(counter.getInitialState());
+        for (int state = 2; state < visits.size(); state++) {
+            assertThat(visits.get(compiled.stateName(state - 1)))
+                    .as("state %s", compiled.stateName(state - 1))
+                    .isGreaterThanOrEqualTo(visits.get(compiled.stateName(state)));
+        }
+    }
+
+    @Test
+    public void testRunsLikeTuringMachine() {
+        final int bits = 4;
+        final TuringMachineDefinition adder = BinaryAdderDefinitionGenerator.buildDefinition(bits);
+        final TieredDefinition definition = new TieredDefinition(adder, 500, 5000, Runnable::run);
+        final TieredTuringMachine machine = definition.newMachine();
+        final TuringMachine reference = new TuringMachine(adder);
+
+        for (int a = 0; a < 1 << bits; a++) {
+            for (int b = 0; b < 1 << bits; b++) {
+                final List<String> ribbon = buildTape(bits, a, b);
+                reference.reset();
+                reference.initialize(ribbon);
+                reference.run();
+                machine.reset();
+                machine.initialize(ribbon);
+                machine.run();
+
+                assertThat(machine.getMachineState()).isEqualTo(MachineState.ACCEPTED);
+                assertThat(machine.getTransitions()).isEqualTo(reference.getTransitions());
+                assertThat(machine.getSymbols()).isEqualTo(reference.getTape().getSymbols());
+            }
+        }
+        assertThat(machine.getTier()).isEqualTo(Tier.GENERATED);
+    }
+}
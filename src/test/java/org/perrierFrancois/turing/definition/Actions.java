@@ -0,0 +1,15 @@
+package org.perrierFrancois.turing.definition;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Shorthand for the {@link Action}s of hand written test definitions.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Actions {
+
+    public static Action action(String inState, String whenReading, String write, Move move, String toState) {
+        return Action.builder().inState(inState).whenReading(whenReading).write(write).move(move).toState(toState).build();
+    }
+}
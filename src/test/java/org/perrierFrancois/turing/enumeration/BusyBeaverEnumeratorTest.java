@@ -0,0 +1,76 @@
+package org.perrierFrancois.turing.enumeration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.TuringMachine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusyBeaverEnumeratorTest {
+
+    @Test
+    public void testTwoStates() throws Exception {
+        final EnumerationResult result = new BusyBeaverEnumerator(EnumerationOptions.builder()
+                .states(2)
+                .symbols(2)
+                .maxSteps(100)
+                .build())
+                .enumerate();
+
+        assertThat(result.getMaxSteps()).isEqualTo(6);
+        assertThat(result.getMaxOnes()).isEqualTo(4);
+
+        // the champion runs the same on the reference machine, which does not perform the halting step
+        final TuringMachine machine = new TuringMachine(PackedTables.toDefinition(PackedTables.parse(result.getMaxStepsTable(), 2), 2));
+        machine.initialize(Collections.emptyList());
+        final RunResult run = machine.run();
+        assertThat(run.getMachineState()).isEqualTo(MachineState.ILLEGAL_STATE);
+        assertThat(run.getTransitions()).isEqualTo(5);
+    }
+
+    @Test
+    public void testSurvivors(@TempDir Path directory) throws Exception {
+        final Path survivors = directory.resolve("survivors.txt");
+        final EnumerationResult result = new BusyBeaverEnumerator(EnumerationOptions.builder()
+                .states(3)
+                .symbols(2)
+                .maxSteps(100)
+                .maxSpace(64)
+                .survivors(survivors)
+                .build())
+                .enumerate();
+
+        assertThat(result.getMaxSteps()).isEqualTo(21);
+        assertThat(result.getMaxOnes()).isEqualTo(6);
+
+        final List<String> lines = Files.readAllLines(survivors);
+        assertThat(lines).hasSize((int) result.getSurvivors()).doesNotHaveDuplicates();
+        assertThat(result.getSurvivors()).isPositive();
+        // survivors never halt within the limits
+        final SmallMachineExecutor executor = new SmallMachineExecutor(64);
+        for (String line : lines) {
+            assertThat(PackedTables.format(PackedTables.parse(line, 2), 2)).isEqualTo(line);
+            assertThat(executor.run(PackedTables.parse(line, 2), 2, 100)).isNotEqualTo(SmallMachineExecutor.Status.HALTED);
+        }
+    }
+
+    @Test
+    public void testThreeSymbols() throws Exception {
+        final EnumerationResult result = new BusyBeaverEnumerator(EnumerationOptions.builder()
+                .states(2)
+                .symbols(3)
+                .maxSteps(200)
+                .build())
+                .enumerate();
+
+        assertThat(result.getMaxSteps()).isEqualTo(38);
+        assertThat(result.getMaxOnes()).isEqualTo(9);
+    }
+}
@@ -0,0 +1,44 @@
+package org.perrierFrancois.turing.generators;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Ribbons of the {@link BinaryAdderDefinitionGenerator} and {@link MultiTapeBinaryAdderDefinitionGenerator} machines.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class AdderRibbons {
+
+    /**
+     * @return the digits of <code>a</code> then <code>b</code>, see {@link #buildNumber(long, int)}
+     */
+    public static List<String> buildTape(int bits, long a, long b) {
+        final List<String> ribbon = new ArrayList<>(buildNumber(a, bits));
+        ribbon.addAll(buildNumber(b, bits));
+        return ribbon;
+    }
+
+    /**
+     * @return the tapes of every pair of numbers of <code>bits</code> digits, ordered by <code>a</code> then
+     * <code>b</code>
+     */
+    public static Stream<List<String>> allTapes(int bits) {
+        return IntStream.range(0, 1 << (2 * bits)).mapToObj(i -> buildTape(bits, i >> bits, i & ((1 << bits) - 1)));
+    }
+
+    /**
+     * @return the <code>bits</code> binary digits of <code>i</code>, most significant first
+     */
+    public static List<String> buildNumber(long i, int bits) {
+        final String digits = format("%" + bits + "s", Long.toString(i, 2)).replace(' ', '0');
+        return Arrays.asList(digits.split(""));
+    }
+}
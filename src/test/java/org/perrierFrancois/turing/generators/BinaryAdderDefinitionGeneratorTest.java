@@ -2,17 +2,20 @@ package org.perrierFrancois.turing.generators;
 
 import org.junit.jupiter.api.Test;
 import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.StopReason;
 import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
 import org.perrierFrancois.turing.definition.TuringMachineDefinition;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.collectingAndThen;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildNumber;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
 
 class BinaryAdderDefinitionGeneratorTest {
 
@@ -46,29 +49,41 @@ class BinaryAdderDefinitionGeneratorTest {
         }
     }
 
-    private void run(TuringMachine turingMachine) {
-        System.out.println(turingMachine.toString());
-
-        while (!turingMachine.getMachineState().isFinal()) {
-            turingMachine.nextStep();
-            System.out.println("###################################################");
-            System.out.println(turingMachine.toString());
+    @Test
+    public void testCompileDefinition() {
+        final int bits = 5;
+        final CompiledDefinition expected = CompiledDefinition.compile(BinaryAdderDefinitionGenerator.buildDefinition(bits));
+        final CompiledDefinition streamed = BinaryAdderDefinitionGenerator.compileDefinition(bits);
+
+        assertThat(streamed.getStateCount()).isEqualTo(expected.getStateCount());
+        assertThat(streamed.getSymbolCount()).isEqualTo(expected.getSymbolCount());
+        assertThat(streamed.getInitialState()).isEqualTo(expected.getInitialState());
+        for (int state = 0; state < expected.getStateCount(); state++) {
+            assertThat(streamed.stateName(state)).isEqualTo(expected.stateName(state));
+            assertThat(streamed.isFinal(state)).isEqualTo(expected.isFinal(state));
+            for (int symbol = 0; symbol < expected.getSymbolCount(); symbol++) {
+                assertThat(streamed.action(state, symbol)).isEqualTo(expected.action(state, symbol));
+            }
         }
+
+        final CompiledTuringMachine machine = new CompiledTuringMachine(streamed);
+        machine.initialize(buildTape(bits, 21, 13));
+        machine.run();
+        assertThat(machine.getTape().getSymbols().subList(2 * bits, 3 * bits + 1)).containsExactlyElementsOf(buildNumber(34, bits + 1));
     }
 
-    private List<String> buildTape(int bits, int a, int b) {
-        List<String> ribbon = new ArrayList<>();
-        ribbon.addAll(buildNumber(a, bits));
-        ribbon.addAll(buildNumber(b, bits));
+    private void run(TuringMachine turingMachine) {
+        System.out.println(turingMachine.toString());
 
-        return ribbon;
-    }
+        final RunResult result = turingMachine.run();
+        assertThat(result.getReason()).isEqualTo(StopReason.ACCEPTED);
 
-    private List<String> buildNumber(int i, int bits) {
-        String strI = format("%" + bits + "s", Integer.toString(i, 2)).replace(' ', '0');
-        return Arrays.asList(strI.split(""));
+        System.out.println("###################################################");
+        System.out.println(turingMachine.toString());
     }
 
+
+
     private int assertResult(TuringMachine machine, int bits, int a, int b) {
         assertThat(machine.getMachineState()).isEqualTo(MachineState.ACCEPTED);
         assertThat(machine.getTape().getPosition()).isEqualTo(2 * bits);
@@ -0,0 +1,58 @@
+package org.perrierFrancois.turing.generators;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.multitape.MultiTapeTuringMachine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildNumber;
+
+class MultiTapeBinaryAdderDefinitionGeneratorTest {
+
+    @Test
+    public void testAdder() {
+        final int bits = 6;
+        final MultiTapeTuringMachine machine = new MultiTapeTuringMachine(MultiTapeBinaryAdderDefinitionGenerator.buildDefinition());
+
+        for (int a = 0; a < 1 << bits; a++) {
+            for (int b = 0; b < 1 << bits; b++) {
+                machine.reset();
+                machine.initializeTapes(List.of(buildNumber(a, bits), buildNumber(b, bits), Collections.emptyList()));
+                final RunResult result = machine.run();
+
+                assertThat(result.getMachineState()).isEqualTo(MachineState.ACCEPTED);
+                assertThat(result.getTransitions()).isEqualTo(2 * bits + 2);
+                // the operand heads visit one empty cell past each end of the operands
+                assertThat(machine.getTape(0).getSymbols().subList(1, bits + 1)).containsExactlyElementsOf(buildNumber(a, bits));
+                assertThat(machine.getTape(1).getSymbols().subList(1, bits + 1)).containsExactlyElementsOf(buildNumber(b, bits));
+                assertThat(machine.getTape(2).getSymbols()).containsExactlyElementsOf(buildNumber(a + b, bits + 1));
+                assertThat(machine.getTape(2).getPosition()).isZero();
+            }
+        }
+    }
+
+    @Test
+    public void testWideOperands() {
+        final int bits = 1000;
+        final MultiTapeTuringMachine machine = new MultiTapeTuringMachine(MultiTapeBinaryAdderDefinitionGenerator.buildDefinition());
+        machine.initializeTapes(List.of(digits(bits, "1"), digits(bits, "1"), Collections.emptyList()));
+
+        assertThat(machine.run().getTransitions()).isEqualTo(2 * bits + 2);
+        // 2^(bits+1) - 2
+        final List<String> expected = digits(bits, "1");
+        expected.add("0");
+        assertThat(machine.getTape(2).getSymbols()).containsExactlyElementsOf(expected);
+    }
+
+    private static List<String> digits(int count, String digit) {
+        final String[] digits = new String[count];
+        Arrays.fill(digits, digit);
+        return new ArrayList<>(Arrays.asList(digits));
+    }
+}
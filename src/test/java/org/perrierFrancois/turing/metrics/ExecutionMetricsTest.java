@@ -0,0 +1,165 @@
+package org.perrierFrancois.turing.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.compiled.BatchRunner;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.perrierFrancois.turing.generators.AdderRibbons.allTapes;
+import static org.perrierFrancois.turing.generators.AdderRibbons.buildTape;
+
+class ExecutionMetricsTest {
+
+    @Test
+    public void testCounters() throws Exception {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final ExecutionMetrics metrics = new ExecutionMetrics(definition);
+        final List<RunResult> notified = new ArrayList<>();
+        metrics.addListener((m, result) -> notified.add(result));
+
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+        machine.enableMetrics(metrics);
+        machine.initialize(Collections.emptyList());
+        machine.run(600);
+        machine.run(400);
+
+        assertThat(notified).extracting(RunResult::getSteps).containsExactly(600L, 400L);
+        assertThat(metrics.getRuns()).isEqualTo(2);
+        assertThat(metrics.getSteps()).isEqualTo(1_000);
+        assertThat(metrics.getStepsPerSecond()).isPositive();
+        assertThat(IntStream.range(0, definition.getStateCount()).mapToLong(metrics::visits).sum()).isEqualTo(1_000);
+        assertThat(metrics.visits(definition.stateId("increment")))
+                .isEqualTo(metrics.transitions(definition.stateId("increment"), definition.symbolId("0"))
+                        + metrics.transitions(definition.stateId("increment"), definition.symbolId("1"))
+                        + metrics.transitions(definition.stateId("increment"), definition.symbolId("")));
+        assertThat(metrics.getLeftGrowth()).isEqualTo(machine.getTape().getOrigin());
+        assertThat(metrics.getLeftGrowth() + metrics.getRightGrowth()).isEqualTo(machine.getTape().size() - 1);
+
+        long histogram = 0;
+        for (int bucket = 0; bucket < ExecutionMetrics.BUCKETS; bucket++) {
+            histogram += metrics.displacements(bucket, true) + metrics.displacements(bucket, false);
+        }
+        assertThat(histogram).isEqualTo(1_000);
+        // the number grows on the left of the initial cell, and the head never goes further than one cell on the right
+        assertThat(metrics.displacements(ExecutionMetrics.bucket(2), false)).isZero();
+        assertThat(metrics.hottestStates(1)).hasSize(1);
+
+        final ObjectName name = MetricsMBeans.register("counter", () -> metrics);
+        try {
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Steps")).isEqualTo(1_000L);
+            final long[][] transitions = (long[][]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Transitions");
+            assertThat(transitions[definition.stateId("increment")][definition.symbolId("1")])
+                    .isEqualTo(metrics.transitions(definition.stateId("increment"), definition.symbolId("1")));
+            assertThat((String[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "HottestTransitions"))
+                    .isNotEmpty()
+                    .containsExactlyElementsOf(metrics.hottestTransitions(10));
+        } finally {
+            MetricsMBeans.unregister(name);
+        }
+    }
+
+    @Test
+    public void testFusedRunsCountLikeSteps() {
+        final CompiledDefinition definition = BinaryAdderDefinitionGenerator.compileDefinition(6);
+        assertThat(definition.getFusedStates()).isPositive();
+        final ExecutionMetrics fused = new ExecutionMetrics(definition);
+        final ExecutionMetrics stepped = new ExecutionMetrics(definition);
+
+        final CompiledTuringMachine fusedMachine = new CompiledTuringMachine(definition);
+        fusedMachine.enableMetrics(fused);
+        fusedMachine.initialize(buildTape(6, 0b101010, 0b111100));
+        fusedMachine.run();
+
+        // the loop detector makes the machine run step by step
+        final CompiledTuringMachine steppedMachine = new CompiledTuringMachine(definition);
+        steppedMachine.enableMetrics(stepped);
+        steppedMachine.enableLoopDetection();
+        steppedMachine.initialize(buildTape(6, 0b101010, 0b111100));
+        steppedMachine.run();
+
+        assertThat(fused.getSteps()).isEqualTo(stepped.getSteps());
+        assertThat(fused.visits()).isEqualTo(stepped.visits());
+        for (int state = 0; state < definition.getStateCount(); state++) {
+            assertThat(fused.visits(state)).isEqualTo(stepped.visits()[state]);
+        }
+        for (int bucket = 0; bucket < ExecutionMetrics.BUCKETS; bucket++) {
+            assertThat(fused.displacements(bucket, true)).isEqualTo(stepped.displacements(bucket, true));
+            assertThat(fused.displacements(bucket, false)).isEqualTo(stepped.displacements(bucket, false));
+        }
+        assertThat(fused.getRightGrowth()).isEqualTo(stepped.getRightGrowth());
+    }
+
+    @Test
+    public void testSampledCounters() {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final ExecutionMetrics exact = new ExecutionMetrics(definition);
+        final ExecutionMetrics sampled = new ExecutionMetrics(definition, 64);
+
+        for (ExecutionMetrics metrics : List.of(exact, sampled)) {
+            final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+            machine.enableMetrics(metrics);
+            machine.initialize(Collections.emptyList());
+            for (int i = 0; i < 100; i++) {
+                machine.run(10_000);
+            }
+        }
+
+        assertThat(sampled.getSteps()).isEqualTo(exact.getSteps());
+        // each stretch between two samples is counted as a whole
+        assertThat(IntStream.range(0, definition.getStateCount()).mapToLong(sampled::visits).sum()).isEqualTo(1_000_000);
+        assertThat(sampled.hottestStates(1)).hasSize(1);
+        for (int state = 0; state < definition.getStateCount(); state++) {
+            assertThat((double) sampled.visits(state)).isCloseTo(exact.visits(state), within(0.1 * exact.getSteps()));
+        }
+    }
+
+    @Test
+    public void testBatchMetrics() {
+        final int bits = 4;
+        final BatchRunner runner = new BatchRunner(BinaryAdderDefinitionGenerator.compileDefinition(bits));
+        runner.enableMetrics();
+
+        final long transitions = runner.runAll(allTapes(bits), CompiledTuringMachine::getTransitions).stream()
+                .mapToLong(Long::longValue).sum();
+
+        final ExecutionMetrics metrics = runner.getMetrics();
+        assertThat(metrics.getRuns()).isEqualTo(1 << (2 * bits));
+        assertThat(metrics.getSteps()).isEqualTo(transitions);
+    }
+
+    @Test
+    public void testBatchMetricsOnThreadPerTask() {
+        final int bits = 4;
+        final CompiledDefinition definition = BinaryAdderDefinitionGenerator.compileDefinition(bits);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final BatchRunner runner = new BatchRunner(definition, executor, Long.MAX_VALUE, 4);
+            runner.enableMetrics();
+
+            runner.runAll(allTapes(bits));
+            runner.runAll(allTapes(bits));
+
+            final ExecutionMetrics metrics = runner.getMetrics();
+            assertThat(metrics.getRuns()).isEqualTo(2 << (2 * bits));
+            assertThat(metrics.getSteps()).isEqualTo(2L * (1 << (2 * bits)) * (4 * bits * bits + 2 * bits - 1));
+            assertThat(IntStream.range(0, definition.getStateCount()).mapToLong(metrics::visits).sum())
+                    .isEqualTo(metrics.getSteps());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
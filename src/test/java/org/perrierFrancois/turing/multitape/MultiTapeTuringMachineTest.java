@@ -0,0 +1,79 @@
+package org.perrierFrancois.turing.multitape;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.MachineState;
+import org.perrierFrancois.turing.RunResult;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.MultiTapeAction;
+import org.perrierFrancois.turing.definition.MultiTapeDefinition;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiTapeTuringMachineTest {
+
+    @Test
+    public void testSingleTapeDefinition() {
+        final TuringMachineDefinition definition = BinaryAdderDefinitionGenerator.buildDefinition(3);
+        final List<String> ribbon = Arrays.asList("1", "0", "1", "0", "1", "1");
+
+        final TuringMachine expected = new TuringMachine(definition);
+        expected.initialize(ribbon);
+        final RunResult expectedResult = expected.run();
+
+        final MultiTapeTuringMachine machine = new MultiTapeTuringMachine(MultiTapeDefinition.of(definition));
+        machine.initialize(ribbon);
+        assertThat(machine.run()).isEqualTo(expectedResult);
+        assertThat(machine.getInternalState()).isEqualTo(expected.getInternalState());
+        assertThat(machine.getTape(0).getSymbols()).isEqualTo(expected.getTape().getSymbols());
+        assertThat(machine.getTape(0).getPosition()).isEqualTo(expected.getTape().getPosition());
+    }
+
+    @Test
+    public void testIllegalState() {
+        // copies the first tape on the second one, then rewinds both heads
+        final MultiTapeDefinition definition = MultiTapeDefinition.builder()
+                .tapes(2)
+                .initialState("copy")
+                .finalState("end")
+                .action(action("copy", "a", "", "a", "a", Move.RIGHT, "copy"))
+                .action(action("copy", "", "", "", "", Move.LEFT, "end"))
+                .build();
+        final MultiTapeTuringMachine machine = new MultiTapeTuringMachine(definition);
+
+        machine.initializeTapes(List.of(List.of("a", "a"), List.of()));
+        assertThat(machine.run().getMachineState()).isEqualTo(MachineState.ACCEPTED);
+        assertThat(machine.getTape(1).getSymbols()).containsExactly("a", "a", "");
+
+        machine.reset();
+        machine.initializeTapes(List.of(List.of("a", "b"), List.of()));
+        final RunResult result = machine.run();
+        assertThat(result.getMachineState()).isEqualTo(MachineState.ILLEGAL_STATE);
+        assertThat(result.getTransitions()).isEqualTo(1);
+        assertThat(machine.getTape(0).symbolName(machine.getTape(0).read())).isEqualTo("b");
+
+        assertThatThrownBy(() -> new MultiTapeTuringMachine(MultiTapeDefinition.builder()
+                .tapes(3)
+                .initialState("copy")
+                .actions(definition.getActions())
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MultiTapeAction action(String inState, String read0, String read1, String write0, String write1,
+                                          Move move, String toState) {
+        return MultiTapeAction.builder()
+                .inState(inState)
+                .whenReading(List.of(read0, read1))
+                .write(List.of(write0, write1))
+                .moves(List.of(move, move))
+                .toState(toState)
+                .build();
+    }
+}
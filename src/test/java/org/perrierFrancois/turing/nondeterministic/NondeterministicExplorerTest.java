@@ -0,0 +1,80 @@
+package org.perrierFrancois.turing.nondeterministic;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.definition.Move;
+import org.perrierFrancois.turing.definition.TuringMachineDefinition;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.definition.Actions.action;
+
+class NondeterministicExplorerTest {
+
+    /**
+     * Looks for an <code>x</code> in both directions
+     */
+    private static final TuringMachineDefinition SEARCH = TuringMachineDefinition.builder()
+            .initialState("search")
+            .finalState("found")
+            .action(action("search", "a", "a", Move.LEFT, "search"))
+            .action(action("search", "a", "a", Move.RIGHT, "search"))
+            .action(action("search", "x", "x", Move.DONT_MOVE, "found"))
+            .build();
+
+    /**
+     * Writes every binary word, never halting
+     */
+    private static final TuringMachineDefinition WORDS = TuringMachineDefinition.builder()
+            .initialState("write")
+            .finalState("end")
+            .action(action("write", "", "0", Move.RIGHT, "write"))
+            .action(action("write", "", "1", Move.RIGHT, "write"))
+            .build();
+
+    @Test
+    public void testAccepted() {
+        final NondeterministicExplorer explorer = new NondeterministicExplorer(SEARCH);
+
+        final ExplorationResult result = explorer.explore(List.of("a", "a", "a", "a", "x"), ExplorationLimits.DEFAULT);
+        assertThat(result.getOutcome()).isEqualTo(ExplorationResult.Outcome.ACCEPTED);
+        assertThat(result.getDepth()).isEqualTo(5);
+        assertThat(result.getFinalState()).isEqualTo("found");
+        assertThat(result.getTape()).containsExactly("a", "a", "a", "a", "x");
+        assertThat(result.getPosition()).isEqualTo(4);
+    }
+
+    @Test
+    public void testRejected() {
+        final NondeterministicExplorer explorer = new NondeterministicExplorer(SEARCH);
+
+        final ExplorationResult result = explorer.explore(List.of("a", "a", "a", "a"), ExplorationLimits.DEFAULT);
+        assertThat(result.getOutcome()).isEqualTo(ExplorationResult.Outcome.REJECTED);
+        // the head on each cell, and on the empty cells past each end, where branches halt
+        assertThat(result.getConfigurations()).isEqualTo(6);
+        assertThat(result.getFinalState()).isNull();
+    }
+
+    @Test
+    public void testLimits() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final NondeterministicExplorer explorer = new NondeterministicExplorer(WORDS, pool);
+
+            final ExplorationResult frontier = explorer.explore(List.of(), ExplorationLimits.builder().maxFrontier(50_000).build());
+            assertThat(frontier.getOutcome()).isEqualTo(ExplorationResult.Outcome.FRONTIER_LIMIT);
+            assertThat(frontier.getDepth()).isEqualTo(16);
+            assertThat(frontier.getConfigurations()).isEqualTo((1 << 17) - 1);
+
+            final ExplorationResult depth = explorer.explore(List.of(), ExplorationLimits.builder().maxDepth(5).build());
+            assertThat(depth.getOutcome()).isEqualTo(ExplorationResult.Outcome.DEPTH_LIMIT);
+            assertThat(depth.getDepth()).isEqualTo(5);
+
+            final ExplorationResult configurations = explorer.explore(List.of(), ExplorationLimits.builder().maxConfigurations(1_000).build());
+            assertThat(configurations.getOutcome()).isEqualTo(ExplorationResult.Outcome.CONFIGURATION_LIMIT);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.perrierFrancois.turing.nondeterministic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentTapeTest {
+
+    @Test
+    public void testBranchesShareCells() {
+        final PersistentTape tape = PersistentTape.of(new int[]{1, 2, 0});
+        final PersistentTape left = tape.write(2).moveLeft().moveLeft();
+        final PersistentTape right = tape.moveRight().write(1).moveRight();
+
+        assertThat(tape.toArray()).containsExactly(1, 2);
+        assertThat(tape.getPosition()).isZero();
+        assertThat(left.toArray()).containsExactly(0, 0, 2, 2);
+        assertThat(left.getPosition()).isZero();
+        assertThat(right.toArray()).containsExactly(1, 1, 0);
+        assertThat(right.getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEmptyCellsAreIgnored() {
+        final PersistentTape tape = PersistentTape.of(new int[]{1, 2});
+        final PersistentTape visited = tape.moveLeft().moveLeft().moveRight().moveRight()
+                .moveRight().moveRight().moveRight().moveLeft().moveLeft().moveLeft();
+
+        assertThat(visited).isEqualTo(tape);
+        assertThat(visited.hashCode()).isEqualTo(tape.hashCode());
+        assertThat(visited.moveRight()).isNotEqualTo(tape);
+        assertThat(tape.write(2)).isNotEqualTo(tape);
+    }
+}
@@ -0,0 +1,94 @@
+package org.perrierFrancois.turing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.perrierFrancois.turing.service.JobServiceTest.INCREMENT;
+import static org.perrierFrancois.turing.service.JobServiceTest.PING_PONG;
+
+class JobServerTest {
+
+    @Test
+    public void testSubmitJobs() throws IOException {
+        try (JobService service = new JobService(); JobServer server = JobServer.start(service, 0)) {
+            final Response accepted = post(server, "/jobs?ribbon=1011", INCREMENT);
+            assertThat(accepted.status).isEqualTo(200);
+            assertThat(accepted.body).contains("outcome ACCEPTED", "transitions 8", "tape 1100_", "position 1");
+
+            final Response budget = post(server, "/jobs?ribbon=+&maxSteps=10", PING_PONG);
+            assertThat(budget.status).isEqualTo(200);
+            assertThat(budget.body).contains("outcome STEP_LIMIT", "transitions 10");
+
+            assertThat(post(server, "/jobs", "initial a\na 0 0 X a").status).isEqualTo(400);
+
+            final Response metrics = get(server, "/metrics");
+            assertThat(metrics.status).isEqualTo(200);
+            assertThat(metrics.body).contains("jobs_completed 2", "definition_cache_misses 3");
+        }
+    }
+
+    @Test
+    public void testBackpressure() throws IOException {
+        final JobServiceOptions options = JobServiceOptions.builder()
+                .parallelism(1)
+                .maxPendingJobs(1)
+                .maxTime(Duration.ofMinutes(1))
+                .build();
+        final JobService service = new JobService(options);
+        try (JobServer server = JobServer.start(service, 0)) {
+            final CompletableFuture<JobResult> noisy = service.submit(PING_PONG, "");
+
+            assertThat(post(server, "/jobs?ribbon=1", INCREMENT).status).isEqualTo(429);
+
+            service.close();
+            assertThat(noisy).isCompletedExceptionally();
+            assertThat(post(server, "/jobs?ribbon=1", INCREMENT).status).isEqualTo(503);
+        }
+    }
+
+    private static Response post(JobServer server, String path, String body) throws IOException {
+        final HttpURLConnection connection = connect(server, path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(connection);
+    }
+
+    private static Response get(JobServer server, String path) throws IOException {
+        return read(connect(server, path));
+    }
+
+    private static HttpURLConnection connect(JobServer server, String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+    }
+
+    private static Response read(HttpURLConnection connection) throws IOException {
+        final int status = connection.getResponseCode();
+        try (InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.perrierFrancois.turing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobServiceTest {
+
+    static final String INCREMENT = String.join("\n",
+            "# binary increment",
+            "initial right",
+            "final done",
+            "right 0 0 R right",
+            "right 1 1 R right",
+            "right _ _ L carry",
+            "carry 1 0 L carry",
+            "carry 0 1 N done",
+            "carry _ 1 N done");
+
+    /**
+     * moves back and forth between two cells forever
+     */
+    static final String PING_PONG = String.join("\n",
+            "initial ping",
+            "final done",
+            "ping _ _ R pong",
+            "pong _ _ L ping");
+
+    @Test
+    public void testRunsJob() {
+        try (JobService service = new JobService()) {
+            final JobResult result = service.submit(INCREMENT, "1011").join();
+
+            assertThat(result.getOutcome()).isEqualTo(JobResult.Outcome.ACCEPTED);
+            assertThat(result.getInternalState()).isEqualTo("done");
+            assertThat(result.getTransitions()).isEqualTo(8);
+            assertThat(result.getSymbols()).containsExactly("1", "1", "0", "0", "");
+            assertThat(result.getPosition()).isEqualTo(1);
+
+            assertThat(service.submit(INCREMENT, "10x1").join().getOutcome()).isEqualTo(JobResult.Outcome.ILLEGAL_STATE);
+        }
+    }
+
+    @Test
+    public void testInvalidDefinition() {
+        try (JobService service = new JobService()) {
+            assertThatThrownBy(() -> service.submit("initial a\na 0 0 X a", "0"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Line 2");
+            assertThatThrownBy(() -> service.submit("a 0 0 R a", "0"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("No initial state");
+            assertThatThrownBy(() -> service.submit("initial a\na 0 0 R a\na 0 1 R a", "0"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Duplicate action");
+        }
+    }
+
+    @Test
+    public void testBudgets() {
+        final JobServiceOptions options = JobServiceOptions.builder()
+                .maxSteps(1_000_000_000_000L)
+                .maxTime(Duration.ofMillis(20))
+                .sliceSteps(10_000)
+                .build();
+        try (JobService service = new JobService(options)) {
+            final JobResult steps = service.submit(PING_PONG, "", 12_345).join();
+            assertThat(steps.getOutcome()).isEqualTo(JobResult.Outcome.STEP_LIMIT);
+            assertThat(steps.getTransitions()).isEqualTo(12_345);
+
+            final long before = System.nanoTime();
+            final JobResult time = service.submit(PING_PONG, "").join();
+            assertThat(time.getOutcome()).isEqualTo(JobResult.Outcome.TIME_LIMIT);
+            assertThat(System.nanoTime() - before).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    @Test
+    public void testTimeBudgetIncludesWaitingForSlices() {
+        final JobServiceOptions options = JobServiceOptions.builder()
+                .parallelism(1)
+                .maxTime(Duration.ofMillis(200))
+                .sliceSteps(10_000)
+                .build();
+        try (JobService service = new JobService(options)) {
+            final CompletableFuture<JobResult> first = service.submit(PING_PONG, "");
+            final CompletableFuture<JobResult> second = service.submit(PING_PONG, "");
+
+            for (JobResult result : List.of(first.join(), second.join())) {
+                assertThat(result.getOutcome()).isEqualTo(JobResult.Outcome.TIME_LIMIT);
+                // the other job ran meanwhile
+                assertThat(result.getRunNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(200));
+            }
+        }
+    }
+
+    @Test
+    public void testBackpressure() {
+        final JobServiceOptions options = JobServiceOptions.builder()
+                .parallelism(1)
+                .maxPendingJobs(2)
+                .maxTime(Duration.ofMinutes(1))
+                .build();
+        final JobService service = new JobService(options);
+        final CompletableFuture<JobResult> first = service.submit(PING_PONG, "");
+        final CompletableFuture<JobResult> second = service.submit(PING_PONG, "");
+
+        assertThatThrownBy(() -> service.submit(INCREMENT, "1")).isInstanceOf(RejectedExecutionException.class);
+        // rejected before being compiled
+        assertThatThrownBy(() -> service.submit("initial a\na 0 0 X a", "1")).isInstanceOf(RejectedExecutionException.class);
+        assertThat(service.getMetrics().getRejected()).isEqualTo(2);
+        assertThat(service.getMetrics().getCacheMisses()).isEqualTo(1);
+
+        service.close();
+        assertThatThrownBy(first::join).isInstanceOf(CancellationException.class);
+        assertThatThrownBy(second::join).isInstanceOf(CancellationException.class);
+        assertThatThrownBy(() -> service.submit(INCREMENT, "1")).isInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> service.submit("initial a\na 0 0 X a", "1")).isInstanceOf(RejectedExecutionException.class);
+        assertThat(service.getMetrics().getQueueDepth()).isZero();
+        assertThat(service.getMetrics().getRunning()).isZero();
+    }
+
+    @Test
+    public void testLongJobDoesNotStarveShortOnes() {
+        final JobServiceOptions options = JobServiceOptions.builder()
+                .parallelism(1)
+                .maxTime(Duration.ofSeconds(30))
+                .build();
+        try (JobService service = new JobService(options)) {
+            final CompletableFuture<JobResult> noisy = service.submit(PING_PONG, "");
+
+            for (int i = 0; i < 10; i++) {
+                assertThat(service.submit(INCREMENT, "1011").join().getOutcome()).isEqualTo(JobResult.Outcome.ACCEPTED);
+            }
+            assertThat(noisy).isNotDone();
+            assertThat(service.getMetrics().getRunning()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        try (JobService service = new JobService()) {
+            for (String ribbon : List.of("0", "1", "11")) {
+                service.submit(INCREMENT, ribbon).join();
+            }
+
+            final JobMetrics metrics = service.getMetrics();
+            assertThat(metrics.getCompleted()).isEqualTo(3);
+            assertThat(metrics.getSteps()).isEqualTo(3 + 4 + 6);
+            assertThat(metrics.getCacheMisses()).isEqualTo(1);
+            assertThat(metrics.getCacheHits()).isEqualTo(2);
+            assertThat(metrics.getLatency(99, TimeUnit.NANOSECONDS))
+                    .isPositive()
+                    .isGreaterThanOrEqualTo(metrics.getLatency(50, TimeUnit.NANOSECONDS));
+            assertThat(metrics.toString()).contains("jobs_completed 3", "steps 13", "latency_p99_ms");
+        }
+    }
+}
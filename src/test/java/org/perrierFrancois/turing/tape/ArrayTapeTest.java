@@ -0,0 +1,103 @@
+package org.perrierFrancois.turing.tape;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArrayTapeTest {
+
+    private static final String[] NAMES = {"", "0", "1"};
+
+    @Test
+    public void testGrowsInBothDirections() {
+        final ArrayTape tape = new ArrayTape(s -> NAMES[s], new int[]{1, 2});
+
+        for (int i = 0; i < 100; i++) {
+            tape.moveLeft();
+        }
+        tape.write(2);
+
+        assertThat(tape.getPosition()).isZero();
+        assertThat(tape.getOrigin()).isEqualTo(100);
+        assertThat(tape.size()).isEqualTo(102);
+
+        for (int i = 0; i < 150; i++) {
+            tape.moveRight();
+        }
+        tape.write(1);
+
+        assertThat(tape.getPosition()).isEqualTo(150);
+        assertThat(tape.size()).isEqualTo(151);
+
+        final List<String> expected = new ArrayList<>();
+        expected.add("1");
+        expected.addAll(Collections.nCopies(99, ""));
+        expected.add("0");
+        expected.add("1");
+        expected.addAll(Collections.nCopies(48, ""));
+        expected.add("0");
+        assertThat(tape.getSymbols()).isEqualTo(expected);
+    }
+
+    @Test
+    public void testEmptyRibbonHasOneEmptyCell() {
+        final ArrayTape tape = new ArrayTape(s -> NAMES[s], new int[0]);
+
+        assertThat(tape.getSymbols()).containsExactly("");
+        assertThat(tape.getPosition()).isZero();
+        assertThat(tape.toString()).isEqualTo("| |" + System.lineSeparator() + " ^");
+    }
+
+    @Test
+    public void testReload() {
+        final ArrayTape tape = new ArrayTape(s -> NAMES[s], new int[]{1, 2, 1});
+        tape.move(false, 5);
+        tape.write(2);
+        tape.move(true, 20);
+
+        assertThat(tape.reload(new int[]{2, 2, 0}, 2)).isTrue();
+        assertThat(tape.getSymbols()).containsExactly("1", "1");
+        assertThat(tape.getPosition()).isZero();
+        assertThat(tape.getOrigin()).isZero();
+        tape.move(false, 3);
+        assertThat(tape.getSymbols()).containsExactly("", "", "", "1", "1");
+
+        assertThat(tape.reload(new int[0], 0)).isTrue();
+        assertThat(tape.getSymbols()).containsExactly("");
+    }
+
+    @Test
+    public void testBulkMovesMatchSingleMoves() {
+        final int[] ribbon = {1, 1, 1, 2, 2, 0, 1};
+        final ArrayTape tape = new ArrayTape(s -> NAMES[s], ribbon);
+
+        assertThat(tape.skip(1, true, Long.MAX_VALUE)).isEqualTo(3);
+        assertThat(tape.getPosition()).isEqualTo(3);
+        assertThat(tape.skip(2, true, 1)).isEqualTo(1);
+        assertThat(tape.getPosition()).isEqualTo(4);
+
+        tape.move(true, 10);
+        assertThat(tape.getPosition()).isEqualTo(14);
+        assertThat(tape.size()).isEqualTo(15);
+
+        // the empty cells past the right end are skipped too
+        assertThat(tape.skip(0, false, 5)).isEqualTo(5);
+        tape.write(2);
+        tape.move(false, 9);
+        assertThat(tape.skip(1, false, Long.MAX_VALUE)).isEqualTo(1);
+        assertThat(tape.skip(0, false, 40)).isEqualTo(40);
+        assertThat(tape.getPosition()).isZero();
+        assertThat(tape.getOrigin()).isEqualTo(41);
+
+        final List<String> expected = new ArrayList<>(Collections.nCopies(41, ""));
+        expected.addAll(List.of("0", "0", "0", "1", "1", "", "0"));
+        expected.addAll(Collections.nCopies(2, ""));
+        expected.add("1");
+        expected.addAll(Collections.nCopies(5, ""));
+        assertThat(tape.getSymbols()).isEqualTo(expected);
+    }
+}
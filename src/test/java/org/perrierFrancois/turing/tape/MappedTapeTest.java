@@ -0,0 +1,175 @@
+package org.perrierFrancois.turing.tape;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedTapeTest {
+
+    private static final String[] NAMES = {"", "0", "1"};
+
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testMatchesArrayTape() throws IOException {
+        final int[] ribbon = {1, 2, 2, 1};
+        final Random random = new Random(42);
+
+        try (MappedTape mapped = new MappedTape(directory, SEGMENT_SIZE, s -> NAMES[s], ribbon)) {
+            final ArrayTape array = new ArrayTape(s -> NAMES[s], ribbon);
+            for (int i = 0; i < 20_000; i++) {
+                assertThat(mapped.read()).isEqualTo(array.read());
+                switch (random.nextInt(6)) {
+                    case 0:
+                        mapped.moveLeft();
+                        array.moveLeft();
+                        break;
+                    case 1:
+                        mapped.moveRight();
+                        array.moveRight();
+                        break;
+                    case 2:
+                        final int symbol = random.nextInt(3);
+                        mapped.write(symbol);
+                        array.write(symbol);
+                        break;
+                    case 3:
+                        final boolean right = random.nextBoolean();
+                        final int count = random.nextInt(3 * SEGMENT_SIZE);
+                        mapped.move(right, count);
+                        array.move(right, count);
+                        break;
+                    default:
+                        final int skipped = mapped.read();
+                        final boolean toRight = random.nextBoolean();
+                        final long max = random.nextInt(4 * SEGMENT_SIZE);
+                        assertThat(mapped.skip(skipped, toRight, max)).isEqualTo(array.skip(skipped, toRight, max));
+                }
+                assertThat(mapped.getPosition()).isEqualTo(array.getPosition());
+            }
+
+            assertThat(mapped.getOrigin()).isEqualTo(array.getOrigin());
+            assertThat(mapped.getSymbols()).isEqualTo(array.getSymbols());
+            final int[] copy = new int[mapped.size()];
+            mapped.copySymbols(0, copy, 0, copy.length);
+            assertThat(copy).containsExactly(array.getSymbols().stream().mapToInt(s -> List.of(NAMES).indexOf(s)).toArray());
+        }
+    }
+
+    @Test
+    public void testSegmentsAreMappedOnDemand() throws IOException {
+        try (MappedTape tape = new MappedTape(directory, SEGMENT_SIZE, s -> NAMES[s], new int[]{1, 2})) {
+            assertThat(tape.getMappedSegments()).isOne();
+
+            // jumping over a segment leaves it unmapped, it still reads as empty cells
+            tape.move(true, 3 * SEGMENT_SIZE);
+            tape.write(2);
+            tape.move(false, 4 * SEGMENT_SIZE);
+            tape.write(1);
+            assertThat(tape.getMappedSegments()).isEqualTo(3);
+
+            assertThat(tape.longSize()).isEqualTo(4 * SEGMENT_SIZE + 1);
+            assertThat(tape.getLongOrigin()).isEqualTo(SEGMENT_SIZE);
+            assertThat(tape.symbolAt(SEGMENT_SIZE + 1)).isEqualTo(2);
+            assertThat(tape.symbolAt(2 * SEGMENT_SIZE + 1)).isZero();
+
+            final List<String> expected = new ArrayList<>();
+            expected.add("0");
+            expected.addAll(Collections.nCopies(SEGMENT_SIZE - 1, ""));
+            expected.addAll(List.of("0", "1"));
+            expected.addAll(Collections.nCopies(3 * SEGMENT_SIZE - 2, ""));
+            expected.add("1");
+            assertThat(tape.getSymbols()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        try (MappedTape tape = new MappedTape(directory, SEGMENT_SIZE, s -> NAMES[s], new int[]{1, 2, 1})) {
+            tape.move(false, 2 * SEGMENT_SIZE);
+            tape.write(2);
+            tape.move(true, 4 * SEGMENT_SIZE);
+            tape.write(2);
+            assertThat(tape.getMappedSegments()).isEqualTo(3);
+
+            assertThat(tape.reload(new int[]{2, 2, 0}, 2)).isTrue();
+            assertThat(tape.getSymbols()).containsExactly("1", "1");
+            assertThat(tape.getPosition()).isZero();
+            tape.move(false, 2 * SEGMENT_SIZE);
+            tape.move(true, 4 * SEGMENT_SIZE);
+            assertThat(tape.getSymbols()).containsOnly("", "1");
+            // the segments are mapped once
+            assertThat(tape.getMappedSegments()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testBackingFileIsDeleted() throws IOException {
+        final MappedTape tape = new MappedTape(directory, SEGMENT_SIZE, s -> NAMES[s], new int[]{1});
+        tape.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void testSymbolsMustFitInAByte() throws IOException {
+        try (MappedTape tape = new MappedTape(directory, SEGMENT_SIZE, String::valueOf, new int[]{255})) {
+            assertThat(tape.read()).isEqualTo(255);
+            assertThatThrownBy(() -> tape.write(256)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void testCompiledMachine() {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final CompiledTuringMachine array = new CompiledTuringMachine(definition);
+        final CompiledTuringMachine mapped = new CompiledTuringMachine(definition, MappedTape.factory(directory, SEGMENT_SIZE));
+
+        for (int run = 0; run < 2; run++) {
+            array.reset();
+            array.initialize(List.of());
+            array.run(100_000);
+            mapped.reset();
+            mapped.initialize(List.of());
+            mapped.run(100_000);
+
+            assertThat(mapped.getTape().getSymbols()).isEqualTo(array.getTape().getSymbols());
+            assertThat(mapped.getTape().getPosition()).isEqualTo(array.getTape().getPosition());
+        }
+    }
+
+    @Test
+    public void testCompiledMachinePastIntegerRange() {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition, MappedTape.factory(directory, 1 << 20));
+        machine.initialize(List.of());
+
+        final MappedTape tape = (MappedTape) machine.getTape();
+        tape.move(true, Integer.MAX_VALUE);
+        tape.move(true, 100);
+        assertThat(tape.longSize()).isGreaterThan(Integer.MAX_VALUE);
+
+        machine.run(10);
+        assertThat(machine.getTransitions()).isEqualTo(10);
+        assertThat(tape.getLongPosition()).isGreaterThan(Integer.MAX_VALUE);
+    }
+}
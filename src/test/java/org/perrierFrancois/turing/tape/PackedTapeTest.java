@@ -0,0 +1,141 @@
+package org.perrierFrancois.turing.tape;
+
+import org.junit.jupiter.api.Test;
+import org.perrierFrancois.turing.TuringMachine;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedTapeTest {
+
+    private static final String[] NAMES = {"", "0", "1", "x"};
+
+    @Test
+    public void testMatchesArrayTape() {
+        final int[] ribbon = {1, 2, 2, 1, 3};
+        final Random random = new Random(42);
+        final PackedTape packed = new PackedTape(s -> NAMES[s], ribbon);
+        final ArrayTape array = new ArrayTape(s -> NAMES[s], ribbon);
+
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(packed.read()).isEqualTo(array.read());
+            final boolean right = random.nextBoolean();
+            switch (random.nextInt(6)) {
+                case 0:
+                    packed.moveLeft();
+                    array.moveLeft();
+                    break;
+                case 1:
+                    packed.moveRight();
+                    array.moveRight();
+                    break;
+                case 2:
+                    final int symbol = random.nextInt(4);
+                    packed.write(symbol);
+                    array.write(symbol);
+                    break;
+                case 3:
+                    final int count = random.nextInt(100);
+                    packed.move(right, count);
+                    array.move(right, count);
+                    break;
+                case 4:
+                    final int from = random.nextInt(packed.size());
+                    final int length = random.nextInt(packed.size() - from + 1);
+                    final int filled = random.nextInt(4);
+                    packed.fill(from, length, filled);
+                    for (int cell = from; cell < from + length; cell++) {
+                        array.move(cell > array.getPosition(), Math.abs(cell - array.getPosition()));
+                        array.write(filled);
+                    }
+                    array.move(packed.getPosition() > array.getPosition(), Math.abs(packed.getPosition() - array.getPosition()));
+                    break;
+                default:
+                    final long max = random.nextInt(200);
+                    assertThat(packed.skip(packed.read(), right, max)).isEqualTo(array.skip(array.read(), right, max));
+            }
+            assertThat(packed.getPosition()).isEqualTo(array.getPosition());
+            assertThat(packed.size()).isEqualTo(array.size());
+        }
+
+        assertThat(packed.getOrigin()).isEqualTo(array.getOrigin());
+        assertThat(packed.getSymbols()).isEqualTo(array.getSymbols());
+    }
+
+    @Test
+    public void testSkipCrossesWords() {
+        final int[] ribbon = new int[100];
+        Arrays.fill(ribbon, 1);
+        ribbon[70] = 2;
+        final PackedTape tape = new PackedTape(s -> NAMES[s], ribbon);
+
+        tape.move(true, 3);
+        assertThat(tape.skip(1, true, Long.MAX_VALUE)).isEqualTo(67);
+        assertThat(tape.getPosition()).isEqualTo(70);
+        tape.moveLeft();
+        assertThat(tape.skip(1, false, Long.MAX_VALUE)).isEqualTo(70);
+        assertThat(tape.getPosition()).isZero();
+        assertThat(tape.read()).isZero();
+
+        // the empty cells past the left end are skipped too
+        assertThat(tape.skip(0, false, 1000)).isEqualTo(1000);
+        assertThat(tape.getOrigin()).isEqualTo(1001);
+    }
+
+    @Test
+    public void testFill() {
+        final PackedTape tape = new PackedTape(s -> NAMES[s], new int[]{1, 1, 1, 1, 1});
+
+        tape.move(true, 200);
+        tape.fill(3, 150, 3);
+        assertThat(tape.getSymbols()).hasSize(201);
+        assertThat(tape.getSymbols().subList(0, 3)).containsOnly("0");
+        assertThat(tape.getSymbols().subList(3, 153)).containsOnly("x");
+        assertThat(tape.getSymbols().subList(153, 201)).containsOnly("");
+
+        assertThatThrownBy(() -> tape.fill(100, 200, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> tape.write(4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testReload() {
+        final PackedTape tape = new PackedTape(s -> NAMES[s], new int[]{1, 2, 1});
+        tape.move(false, 100);
+        tape.write(2);
+        tape.move(true, 300);
+        tape.write(3);
+
+        assertThat(tape.reload(new int[]{2, 2, 0}, 2)).isTrue();
+        assertThat(tape.getSymbols()).containsExactly("1", "1");
+        assertThat(tape.getOrigin()).isZero();
+        tape.move(false, 100);
+        tape.move(true, 300);
+        assertThat(tape.getSymbols()).containsOnly("", "1");
+
+        assertThat(tape.reload(new int[0], 0)).isTrue();
+        assertThat(tape.getSymbols()).containsExactly("");
+    }
+
+    @Test
+    public void testCompiledMachine() {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final TuringMachine reference = new TuringMachine(BinaryCounterDefinitionGenerator.buildDefinition());
+        final CompiledTuringMachine packed = new CompiledTuringMachine(definition, PackedTape::new);
+        reference.initialize(List.of());
+        packed.initialize(List.of());
+
+        for (int budget = 1; budget < 2000; budget += 37) {
+            reference.run(budget);
+            packed.run(budget);
+            assertThat(packed.getTransitions()).isEqualTo(reference.getTransitions());
+            assertThat(packed.toString()).isEqualTo(reference.toString());
+        }
+    }
+}
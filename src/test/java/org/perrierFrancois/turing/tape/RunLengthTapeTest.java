@@ -0,0 +1,76 @@
+package org.perrierFrancois.turing.tape;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunLengthTapeTest {
+
+    private static final String[] NAMES = {"", "0", "1"};
+
+    @Test
+    public void testSameContentsAsArrayTape() {
+        final Random random = new Random(42);
+        final int[] ribbon = {1, 1, 2, 0, 0, 2};
+        final ArrayTape reference = new ArrayTape(s -> NAMES[s], ribbon);
+        final RunLengthTape tape = new RunLengthTape(s -> NAMES[s], ribbon);
+
+        for (int i = 0; i < 20_000; i++) {
+            final boolean right = random.nextBoolean();
+            switch (random.nextInt(5)) {
+                case 0:
+                    final int symbol = random.nextInt(NAMES.length);
+                    reference.write(symbol);
+                    tape.write(symbol);
+                    break;
+                case 1:
+                    final int count = random.nextInt(4);
+                    reference.move(right, count);
+                    tape.move(right, count);
+                    break;
+                case 2:
+                    final int skipped = reference.read();
+                    final long max = random.nextInt(6);
+                    assertThat(tape.skip(skipped, right, max)).isEqualTo(reference.skip(skipped, right, max));
+                    break;
+                default:
+                    if (right) {
+                        reference.moveRight();
+                        tape.moveRight();
+                    } else {
+                        reference.moveLeft();
+                        tape.moveLeft();
+                    }
+            }
+
+            assertThat(tape.read()).isEqualTo(reference.read());
+            assertThat(tape.getPosition()).isEqualTo(reference.getPosition());
+            assertThat(tape.size()).isEqualTo(reference.size());
+            if (i % 100 == 0) {
+                assertThat(tape.getOrigin()).isEqualTo(reference.getOrigin());
+                assertThat(tape.getSymbols()).isEqualTo(reference.getSymbols());
+                assertThat(tape.symbolAt(random.nextInt(tape.size()))).isNotNegative();
+            }
+        }
+    }
+
+    @Test
+    public void testMemoryScalesWithRuns() {
+        final RunLengthTape tape = new RunLengthTape(s -> NAMES[s], new int[0]);
+
+        tape.move(true, 1_000_000);
+        tape.write(1);
+        assertThat(tape.skip(0, false, Long.MAX_VALUE)).isZero();
+        tape.moveLeft();
+        assertThat(tape.skip(0, false, 1_000_000)).isEqualTo(1_000_000);
+        tape.write(2);
+
+        assertThat(tape.size()).isEqualTo(1_000_002);
+        assertThat(tape.getOrigin()).isEqualTo(1);
+        assertThat(tape.getPosition()).isZero();
+        assertThat(tape.getRunCount()).isEqualTo(3);
+        assertThat(tape.symbolAt(1_000_001)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,75 @@
+package org.perrierFrancois.turing.trace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.perrierFrancois.turing.compiled.CompiledDefinition;
+import org.perrierFrancois.turing.compiled.CompiledTuringMachine;
+import org.perrierFrancois.turing.generators.BinaryAdderDefinitionGenerator;
+import org.perrierFrancois.turing.generators.BinaryCounterDefinitionGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static java.lang.System.lineSeparator;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRenderCompleteTrace() throws IOException {
+        final CompiledDefinition definition = BinaryAdderDefinitionGenerator.compileDefinition(3);
+        final Path file = directory.resolve("adder.tmtr");
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+
+        try (TraceRecorder recorder = new TraceRecorder(file, definition, TraceOptions.builder().lossless(true).build())) {
+            machine.enableTracing(recorder);
+            machine.initialize(Arrays.asList("1", "0", "1", "0", "1", "1"));
+            machine.run();
+            assertThat(recorder.getRecorded()).isEqualTo(machine.getTransitions());
+            assertThat(recorder.getDropped()).isZero();
+        }
+        assertThat(machine.getTape().getSymbols()).containsExactly("1", "0", "1", "0", "1", "1", "1", "0", "0", "0");
+
+        final StringBuilder rendered = new StringBuilder();
+        TraceRenderer.render(file, definition, rendered, true);
+
+        final String[] lines = rendered.toString().split(lineSeparator());
+        // initial tape, then an event line and a tape drawing (2 lines) per transition
+        assertThat(lines).hasSize(2 + 3 * (int) machine.getTransitions());
+        assertThat(lines[2]).startsWith("0: ");
+        assertThat(lines[lines.length - 2] + lineSeparator() + lines[lines.length - 1]).isEqualTo(machine.getTape().toString());
+    }
+
+    @Test
+    public void testSampledWindow() throws IOException {
+        final CompiledDefinition definition = CompiledDefinition.compile(BinaryCounterDefinitionGenerator.buildDefinition());
+        final Path file = directory.resolve("counter.tmtr");
+        final CompiledTuringMachine machine = new CompiledTuringMachine(definition);
+
+        final TraceOptions options = TraceOptions.builder()
+                .sampleInterval(10)
+                .windowStart(100)
+                .windowEnd(200)
+                .lossless(true)
+                .build();
+        try (TraceRecorder recorder = new TraceRecorder(file, definition, options)) {
+            machine.enableTracing(recorder);
+            machine.initialize(Collections.emptyList());
+            machine.run(1_000);
+            assertThat(recorder.getRecorded()).isEqualTo(10);
+        }
+
+        final StringBuilder rendered = new StringBuilder();
+        TraceRenderer.render(file, definition, rendered, true);
+
+        final String[] lines = rendered.toString().split(lineSeparator());
+        assertThat(lines).hasSize(10);
+        assertThat(lines[0]).startsWith("100: ");
+        assertThat(lines[9]).startsWith("190: ");
+    }
+}